@@ -1,9 +1,11 @@
 package bge.analysis;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import bge.game.chess.ChessConstants;
 
@@ -13,34 +15,54 @@ public class AnalysisResult<M> {
     public static final double DRAW = Double.NaN;
     public static final double WIN_INT = Integer.MAX_VALUE;
     public static final double LOSS_INT = -Integer.MAX_VALUE;
+    public static final double WIN_IN_ONE = WIN_INT - 1; // the best score of a position with a move to make
+    public static final double LOSS_IN_TWO = LOSS_INT + 2; // the worst score of a position with a move to make
 
     private static final int MAX_POSSIBLE_MOVES = ChessConstants.MAX_MOVES;
+    private static final int DEFAULT_CAPACITY = 4;
 
     private final int player;
 
-    private final List<MoveWithScore<M>> allValidMoves = new ArrayList<>();
-    private final List<MoveWithScore<M>> wonAndDrawnMoves = new ArrayList<>();
-    private final List<MoveWithScore<M>> lostMoves = new ArrayList<>();
-
-    private MoveWithScore<M> bestMove;
+    // parallel arrays of the moves and their scores, in the order they were added
+    private Object[] moves;
+    private double[] scores;
+    private int numMoves = 0;
+    private int numWonAndDrawn = 0;
+    private int numLost = 0;
+    private int bestIndex = -1;
 
     private boolean searchComplete = false;
 
     public AnalysisResult(int player) {
+        this(player, DEFAULT_CAPACITY);
+    }
+
+    public AnalysisResult(int player, int capacity) {
         this.player = player;
+        moves = new Object[Math.max(capacity, 1)];
+        scores = new double[moves.length];
     }
 
     public void addMoveWithScore(MoveWithScore<M> moveWithScore) {
-        allValidMoves.add(moveWithScore);
-        double score = moveWithScore.score;
-        if (bestMove == null || AnalysisResult.isGreater(score, bestMove.score)) {
-            bestMove = moveWithScore;
+        addMoveWithScore(moveWithScore.move, moveWithScore.score);
+    }
+
+    public void addMoveWithScore(M move, double score) {
+        if (numMoves == moves.length) {
+            moves = Arrays.copyOf(moves, numMoves * 2);
+            scores = Arrays.copyOf(scores, numMoves * 2);
+        }
+        moves[numMoves] = move;
+        scores[numMoves] = score;
+        if (bestIndex == -1 || AnalysisResult.isGreater(score, scores[bestIndex])) {
+            bestIndex = numMoves;
         }
         if (isWin(score) || isDraw(score)) {
-            wonAndDrawnMoves.add(moveWithScore);
+            ++numWonAndDrawn;
         } else if (isLoss(score)) {
-            lostMoves.add(moveWithScore);
+            ++numLost;
         }
+        ++numMoves;
     }
 
     public int getPlayer() {
@@ -55,72 +77,102 @@ public class AnalysisResult<M> {
         return searchComplete;
     }
 
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    @SuppressWarnings("unchecked")
+    public M getMove(int index) {
+        return (M) moves[index];
+    }
+
+    public double getScore(int index) {
+        return scores[index];
+    }
+
     public AnalysisResult<M> mergeWith(AnalysisResult<M> resultToMerge) {
-        AnalysisResult<M> mergedResult = new AnalysisResult<>(player);
-        for (MoveWithScore<M> moveWithScore : resultToMerge.allValidMoves) {
-            mergedResult.addMoveWithScore(moveWithScore);
+        AnalysisResult<M> mergedResult = new AnalysisResult<>(player, numMoves + resultToMerge.numMoves);
+        Set<Object> mergedMoves = new HashSet<>(resultToMerge.numMoves * 2);
+        for (int i = 0; i < resultToMerge.numMoves; ++i) {
+            mergedResult.addMoveWithScore(resultToMerge.getMove(i), resultToMerge.scores[i]);
+            mergedMoves.add(resultToMerge.moves[i]);
         }
-        for (MoveWithScore<M> moveWithScore : allValidMoves) {
-            boolean found = false;
-            for (MoveWithScore<M> mergeMoveWithScore : mergedResult.allValidMoves) {
-                if (moveWithScore.move.equals(mergeMoveWithScore.move)) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                mergedResult.addMoveWithScore(moveWithScore);
+        for (int i = 0; i < numMoves; ++i) {
+            if (!mergedMoves.contains(moves[i])) {
+                mergedResult.addMoveWithScore(getMove(i), scores[i]);
             }
         }
         return mergedResult;
     }
 
     public List<MoveWithScore<M>> getMovesWithScore() {
-        return new ArrayList<>(allValidMoves);
+        List<MoveWithScore<M>> movesWithScore = new ArrayList<>(numMoves);
+        for (int i = 0; i < numMoves; ++i) {
+            movesWithScore.add(new MoveWithScore<>(getMove(i), scores[i]));
+        }
+        return movesWithScore;
     }
 
     public MoveWithScore<M> getBestMove(int currentPlayer) {
-        if (bestMove == null) {
+        if (bestIndex == -1) {
             return null;
         }
-        return isDraw(bestMove.score) && !isDecided() ? new MoveWithScore<>(bestMove.move, 0.0) : bestMove.transform(player == currentPlayer);
+        return new MoveWithScore<>(getMove(bestIndex), getBestScore(currentPlayer));
+    }
+
+    /** The score of the best move from the point of view of the given player; there must be at least one move */
+    public double getBestScore(int currentPlayer) {
+        double bestScore = scores[bestIndex];
+        if (isDraw(bestScore) && !isDecided()) {
+            return 0.0;
+        }
+        return player == currentPlayer ? bestScore : -bestScore;
     }
 
     public List<M> getBestMoves() {
-        if (bestMove == null) {
+        if (bestIndex == -1) {
             return Collections.emptyList();
         }
         List<M> bestMoves = new ArrayList<>();
-        double maxScore = bestMove.score;
-        for (MoveWithScore<M> moveWithScore : allValidMoves) {
-            double score = moveWithScore.score;
+        double maxScore = scores[bestIndex];
+        for (int i = 0; i < numMoves; ++i) {
+            double score = scores[i];
             if (maxScore == score || isDraw(maxScore) && isDraw(score)) {
-                bestMoves.add(moveWithScore.move);
+                bestMoves.add(getMove(i));
             }
         }
         return bestMoves;
     }
 
     public List<MoveWithScore<M>> getDecidedMoves() {
-        List<MoveWithScore<M>> decidedMoves = new ArrayList<>(wonAndDrawnMoves);
-        decidedMoves.addAll(lostMoves);
+        List<MoveWithScore<M>> decidedMoves = new ArrayList<>(numWonAndDrawn + numLost);
+        for (int i = 0; i < numMoves; ++i) {
+            if (isWin(scores[i]) || isDraw(scores[i])) {
+                decidedMoves.add(new MoveWithScore<>(getMove(i), scores[i]));
+            }
+        }
+        for (int i = 0; i < numMoves; ++i) {
+            if (isLoss(scores[i])) {
+                decidedMoves.add(new MoveWithScore<>(getMove(i), scores[i]));
+            }
+        }
         return decidedMoves;
     }
 
     public boolean isWin() {
-        return bestMove != null && isWin(bestMove.score);
+        return bestIndex != -1 && isWin(scores[bestIndex]);
     }
 
     public boolean isLoss() {
-        return bestMove != null && isLoss(bestMove.score);
+        return bestIndex != -1 && isLoss(scores[bestIndex]);
     }
 
     public boolean onlyOneMove() {
-        return allValidMoves.size() == lostMoves.size() + 1;
+        return numMoves == numLost + 1;
     }
 
     public boolean isDecided() {
-        return allValidMoves.size() > 0 && wonAndDrawnMoves.size() + lostMoves.size() == allValidMoves.size();
+        return numMoves > 0 && numWonAndDrawn + numLost == numMoves;
     }
 
     public static boolean isGreater(double l, double r) {
@@ -143,16 +195,38 @@ public class AnalysisResult<M> {
         return isWin(score) || isLoss(score) || isDraw(score);
     }
 
+    /** The score of the position after a move from the position before it, so that a win or loss in n plies, or at once if it is infinite, becomes one in n + 1 */
+    public static double fromChild(double score) {
+        if (score == WIN) {
+            return WIN_IN_ONE;
+        } else if (score == LOSS) {
+            return LOSS_INT + 1;
+        } else if (score > WIN_INT - MAX_POSSIBLE_MOVES + 1) {
+            return score - 1;
+        } else if (score < LOSS_INT + MAX_POSSIBLE_MOVES - 1) {
+            return score + 1;
+        }
+        return score;
+    }
+
+    /** The bound of the position after a move given the bound of the position before it, the inverse of {@link #fromChild(double)} */
+    public static double toChild(double bound) {
+        if (bound > WIN_INT - MAX_POSSIBLE_MOVES && bound != WIN) {
+            return bound + 1;
+        } else if (bound < LOSS_INT + MAX_POSSIBLE_MOVES && bound != LOSS) {
+            return bound - 1;
+        }
+        return bound;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        Iterator<MoveWithScore<M>> moveScoreIter = allValidMoves.iterator();
-        while (moveScoreIter.hasNext()) {
-            MoveWithScore<M> moveWithScore = moveScoreIter.next();
-            sb.append(moveWithScore);
-            if (moveScoreIter.hasNext()) {
+        for (int i = 0; i < numMoves; ++i) {
+            if (i > 0) {
                 sb.append("\n");
             }
+            sb.append(MoveWithScore.toString(moves[i], scores[i]));
         }
         return sb.toString();
     }
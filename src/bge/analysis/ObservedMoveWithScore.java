@@ -4,10 +4,16 @@ public class ObservedMoveWithScore {
     public final String moveString;
     public final double score;
     public final boolean isPartial;
+    public final String principalVariation; // the line starting with the move, or null
 
     public ObservedMoveWithScore(String moveString, double score, boolean isPartial) {
+        this(moveString, score, isPartial, null);
+    }
+
+    public ObservedMoveWithScore(String moveString, double score, boolean isPartial, String principalVariation) {
         this.moveString = moveString;
         this.score = score;
         this.isPartial = isPartial;
+        this.principalVariation = principalVariation;
     }
 }
\ No newline at end of file
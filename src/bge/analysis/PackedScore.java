@@ -0,0 +1,123 @@
+package bge.analysis;
+
+import bge.game.chess.ChessConstants;
+
+/**
+ * Scores packed into ints for searches that compare and negate them in their inner loops. Heuristic scores are stored in thousandths and shifted left
+ * two bits so that a bound between two scores has a value of its own, a win in n plies is WIN - n, a loss in n plies is LOSS + n, and a draw is DRAW,
+ * which orders it between the losing scores and 0 as {@link AnalysisResult#isGreater(double, double)} does. As a draw is a draw for both players, scores
+ * are negated with {@link #negate(int)}; DRAW is odd and the heuristic scores and bounds even, so no other score negates to it.
+ */
+public class PackedScore {
+    public static final int WIN = 1 << 30;
+    public static final int LOSS = -WIN;
+    public static final int DRAW = -1;
+    public static final int WIN_IN_ONE = WIN - 1;
+    public static final int LOSS_IN_TWO = LOSS + 2;
+
+    public static final int SCALE = 1000;
+
+    private static final int MAX_PLIES = ChessConstants.MAX_MOVES;
+    private static final long MAX_SCORE = (WIN - 2 * MAX_PLIES) >> 2; // in thousandths
+
+    private PackedScore() {
+    }
+
+    public static boolean isWin(int score) {
+        return score > WIN - MAX_PLIES;
+    }
+
+    public static boolean isLoss(int score) {
+        return score < LOSS + MAX_PLIES;
+    }
+
+    public static boolean isGameOver(int score) {
+        return isWin(score) || isLoss(score) || score == DRAW;
+    }
+
+    /** Packs a score returned by a position evaluator or search */
+    public static int valueOf(double score) {
+        if (AnalysisResult.isDraw(score)) {
+            return DRAW;
+        } else if (AnalysisResult.isWin(score) || AnalysisResult.isLoss(score)) {
+            return packDecided(score);
+        }
+        return (int) clamp(Math.round(score * SCALE)) << 2;
+    }
+
+    /** Packs alpha or beta so that a score compares with the packed bound as it compares with the bound */
+    public static int boundOf(double bound) {
+        if (AnalysisResult.isDraw(bound)) {
+            return DRAW;
+        } else if (bound == AnalysisResult.WIN) {
+            return WIN + 1; // beyond a win in 0 plies, so that the full window contains every score
+        } else if (bound == AnalysisResult.LOSS) {
+            return LOSS - 1;
+        } else if (AnalysisResult.isWin(bound) || AnalysisResult.isLoss(bound)) {
+            return packDecided(bound);
+        }
+        double scaled = bound * SCALE;
+        long floor = (long) Math.floor(scaled);
+        return scaled == floor ? (int) clamp(floor) << 2 : ((int) clamp(floor) << 2) + 2; // between the scores either side of it
+    }
+
+    /** The score for the other player, a draw remaining a draw */
+    public static int negate(int score) {
+        return score == DRAW ? DRAW : -score;
+    }
+
+    /** The beta of a null window above an alpha that is not a draw, keeping the bounds even away from the decided scores */
+    public static int nullWindowBeta(int alpha) {
+        return isWin(alpha) || isLoss(alpha) ? alpha + 1 : alpha + 2;
+    }
+
+    /** The alpha of a null window below a beta that is not a draw, the inverse of {@link #nullWindowBeta(int)} */
+    public static int nullWindowAlpha(int beta) {
+        return isWin(beta) || isLoss(beta) ? beta - 1 : beta - 2;
+    }
+
+    private static int packDecided(double score) {
+        if (score == AnalysisResult.WIN) {
+            return WIN;
+        } else if (score == AnalysisResult.LOSS) {
+            return LOSS;
+        }
+        return score > 0 ? WIN - (int) (AnalysisResult.WIN_INT - score) : LOSS + (int) (score - AnalysisResult.LOSS_INT);
+    }
+
+    private static long clamp(long score) {
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    /** Unpacks a score, giving wins and losses in n plies as WIN_INT - n and LOSS_INT + n so that they remain finite as they are passed up the tree */
+    public static double toDouble(int score) {
+        if (score == DRAW) {
+            return AnalysisResult.DRAW;
+        } else if (isWin(score)) {
+            return score > WIN ? AnalysisResult.WIN : AnalysisResult.WIN_INT - (WIN - score);
+        } else if (isLoss(score)) {
+            return score < LOSS ? AnalysisResult.LOSS : AnalysisResult.LOSS_INT + (score - LOSS);
+        }
+        return (double) (score >> 2) / SCALE;
+    }
+
+    /** The score of the position after a move from the position before it, a win or loss in n plies becoming one in n + 1 */
+    public static int fromChild(int score) {
+        if (score > WIN - MAX_PLIES + 1) {
+            return score - 1;
+        } else if (score < LOSS + MAX_PLIES - 1) {
+            return score + 1;
+        }
+        return score;
+    }
+
+    /** The bound of the position after a move given the bound of the position before it, the inverse of {@link #fromChild(int)} */
+    public static int toChild(int bound) {
+        if (isWin(bound)) {
+            return bound + 1;
+        } else if (isLoss(bound)) {
+            return bound - 1;
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,188 @@
+package bge.analysis;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters shared by the threads of a search; each counter is striped across the threads that add to it and summed when read */
+public class SearchStatistics {
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder quiescenceNodes = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder playouts = new LongAdder();
+    private final LongAdder transpositionHits = new LongAdder();
+    private final LongAdder betaCutoffs = new LongAdder();
+    private final LongAdder firstMoveCutoffs = new LongAdder();
+    private final LongAdder forks = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder idleWorkerNanos = new LongAdder();
+
+    private volatile long stopLatencyNanos = 0;
+
+    private volatile long startNanos = System.nanoTime();
+    private volatile long stopNanos = 0;
+
+    private volatile long lastPlyNodes = 0;
+    private volatile double effectiveBranchingFactor = 0;
+
+    /** Clears the counters and starts timing a new search */
+    public void start() {
+        nodes.reset();
+        quiescenceNodes.reset();
+        evaluations.reset();
+        playouts.reset();
+        transpositionHits.reset();
+        betaCutoffs.reset();
+        firstMoveCutoffs.reset();
+        forks.reset();
+        joins.reset();
+        idleWorkerNanos.reset();
+        lastPlyNodes = 0;
+        effectiveBranchingFactor = 0;
+        stopNanos = 0;
+        stopLatencyNanos = 0;
+        startNanos = System.nanoTime();
+    }
+
+    public void stop() {
+        stopNanos = System.nanoTime();
+    }
+
+    /** Called by iterative deepening after each ply, so that the effective branching factor is the ratio of the nodes of the last two plies */
+    public void plyCompleted() {
+        long totalNodes = getNodes();
+        long previousPlyNodes = lastPlyNodes;
+        long plyNodes = totalNodes - previousPlyNodes;
+        if (previousPlyNodes > 0) {
+            effectiveBranchingFactor = (double) plyNodes / previousPlyNodes;
+        }
+        lastPlyNodes = plyNodes;
+    }
+
+    public void addNode() {
+        nodes.increment();
+    }
+
+    /** Quiescence nodes are also counted as nodes */
+    public void addQuiescenceNode() {
+        nodes.increment();
+        quiescenceNodes.increment();
+    }
+
+    public void addEvaluation() {
+        evaluations.increment();
+    }
+
+    /** The random games played by a Monte Carlo search */
+    public void addPlayouts(int numPlayouts) {
+        playouts.add(numPlayouts);
+    }
+
+    public void addTranspositionHit() {
+        transpositionHits.increment();
+    }
+
+    public void addBetaCutoff(boolean firstMove) {
+        betaCutoffs.increment();
+        if (firstMove) {
+            firstMoveCutoffs.increment();
+        }
+    }
+
+    public void addForks(int numForks) {
+        forks.add(numForks);
+    }
+
+    public void addJoin() {
+        joins.increment();
+    }
+
+    public void addIdleWorkerTime(long nanos) {
+        idleWorkerNanos.add(nanos);
+    }
+
+    /** Set by the tree searcher to the time from a request to stop the search to the search returning */
+    public void setStopLatency(long nanos) {
+        stopLatencyNanos = nanos;
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public long getQuiescenceNodes() {
+        return quiescenceNodes.sum();
+    }
+
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    public long getPlayouts() {
+        return playouts.sum();
+    }
+
+    public long getTranspositionHits() {
+        return transpositionHits.sum();
+    }
+
+    public long getBetaCutoffs() {
+        return betaCutoffs.sum();
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs.sum();
+    }
+
+    /** The fraction of beta cutoffs caused by the first move searched, which is high when moves are well ordered */
+    public double getFirstMoveCutoffRate() {
+        long cutoffs = getBetaCutoffs();
+        return cutoffs == 0 ? 0 : (double) getFirstMoveCutoffs() / cutoffs;
+    }
+
+    /** The number of branches forked to other workers */
+    public long getForks() {
+        return forks.sum();
+    }
+
+    /** The number of forked branches whose results have been joined */
+    public long getJoins() {
+        return joins.sum();
+    }
+
+    public long getIdleWorkerMs() {
+        return idleWorkerNanos.sum() / 1000000;
+    }
+
+    public long getStopLatencyMicros() {
+        return stopLatencyNanos / 1000;
+    }
+
+    public long getElapsedMs() {
+        long endNanos = stopNanos;
+        return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1000000;
+    }
+
+    public long getNodesPerSecond() {
+        long elapsedMs = getElapsedMs();
+        return elapsedMs == 0 ? 0 : getNodes() * 1000 / elapsedMs;
+    }
+
+    public long getPlayoutsPerSecond() {
+        long elapsedMs = getElapsedMs();
+        return elapsedMs == 0 ? 0 : getPlayouts() * 1000 / elapsedMs;
+    }
+
+    public double getEffectiveBranchingFactor() {
+        return effectiveBranchingFactor;
+    }
+
+    @Override
+    public String toString() {
+        if (getPlayouts() > 0) {
+            return String.format("nodes = %d, nps = %d, playouts = %d, playouts/s = %d, evals = %d, stop = %dus",
+                    getNodes(), getNodesPerSecond(), getPlayouts(), getPlayoutsPerSecond(), getEvaluations(), getStopLatencyMicros());
+        }
+        return String.format("nodes = %d, nps = %d, ebf = %.2f, q nodes = %d, evals = %d, tt hits = %d, cutoffs = %d (%.0f%% first), forks = %d, joins = %d, idle = %dms, stop = %dus",
+                getNodes(), getNodesPerSecond(), getEffectiveBranchingFactor(), getQuiescenceNodes(), getEvaluations(), getTranspositionHits(), getBetaCutoffs(),
+                getFirstMoveCutoffRate() * 100, getForks(), getJoins(), getIdleWorkerMs(), getStopLatencyMicros());
+    }
+}
@@ -12,6 +12,11 @@ public class StrategyResult {
     public final boolean isDecided;
 
     public <M> StrategyResult(AnalysisResult<M> analysisResult, List<MoveWithScore<M>> partialResults, int depth) {
+        this(analysisResult, partialResults, depth, Collections.emptyList());
+    }
+
+    /** Each principal variation starts with the root move it belongs to */
+    public <M> StrategyResult(AnalysisResult<M> analysisResult, List<MoveWithScore<M>> partialResults, int depth, List<List<M>> principalVariations) {
         if (analysisResult == null && partialResults.size() == 0) {
             moves = Collections.emptyList();
             isDecided = false;
@@ -21,6 +26,7 @@ public class StrategyResult {
                 addMovesToMap(moveMap, analysisResult.getMovesWithScore(), false);
             }
             addMovesToMap(moveMap, partialResults, true);
+            addPrincipalVariationsToMap(moveMap, principalVariations);
             moves = new ArrayList<>(moveMap.values());
             Collections.sort(moves, (move1, move2) -> {
                 if (move1.score == move2.score || (AnalysisResult.isDraw(move1.score) && AnalysisResult.isDraw(move2.score))) {
@@ -46,4 +52,18 @@ public class StrategyResult {
             moveMap.put(moveString, new ObservedMoveWithScore(moveString, moveWithScore.score, partial));
         }
     }
+
+    private static <M> void addPrincipalVariationsToMap(Map<String, ObservedMoveWithScore> moveMap, List<List<M>> principalVariations) {
+        for (List<M> principalVariation : principalVariations) {
+            String moveString = principalVariation.get(0).toString();
+            ObservedMoveWithScore moveWithScore = moveMap.get(moveString);
+            if (moveWithScore != null) {
+                StringBuilder line = new StringBuilder(moveString);
+                for (int i = 1; i < principalVariation.size(); ++i) {
+                    line.append(" ").append(principalVariation.get(i));
+                }
+                moveMap.put(moveString, new ObservedMoveWithScore(moveString, moveWithScore.score, moveWithScore.isPartial, line.toString()));
+            }
+        }
+    }
 }
@@ -20,11 +20,14 @@ import bge.game.chess.move.EnPassantCaptureMove;
 import bge.game.chess.move.IChessMove;
 import bge.game.chess.move.KingMove;
 import bge.game.chess.move.PawnPromotionMove;
+import bge.igame.IHashablePosition;
+import bge.igame.IMoveKeyPosition;
+import bge.igame.INullMovePosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.player.TwoPlayers;
 
-public class ChessPosition implements IPosition<IChessMove>, ChessConstants {
+public class ChessPosition implements IPosition<IChessMove>, IHashablePosition, IMoveKeyPosition<IChessMove>, INullMovePosition, ChessConstants {
     public final int[] squares;
 
     public final ChessPositionHistory positionHistory;
@@ -359,6 +362,57 @@ public class ChessPosition implements IPosition<IChessMove>, ChessConstants {
         positionHistory.unmakeMove(this);
     }
 
+    @Override
+    public boolean canPass() {
+        return !ChessFunctions.isSquareAttacked(this, kingSquares[currentPlayer], otherPlayer);
+    }
+
+    @Override
+    public boolean isZugzwangLikely() { // only a king and pawns
+        return numKnights[currentPlayer] + numBishops[currentPlayer] + numRooks[currentPlayer] + numQueens[currentPlayer] == 0;
+    }
+
+    @Override
+    public void makeNullMove() {
+        positionHistory.saveState(this);
+
+        if (enPassantSquare != NO_SQUARE) {
+            zobristHash ^= ChessPositionHasher.PIECE_POSITION_HASHES[UNPLAYED][enPassantSquare];
+            enPassantSquare = NO_SQUARE;
+        }
+
+        halfMoveClock = 0; // repetitions do not span a null move
+
+        otherPlayer = currentPlayer;
+        currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
+        white = !white;
+        zobristHash ^= ChessPositionHasher.WHITE_TURN_HASH;
+    }
+
+    @Override
+    public void unmakeNullMove() {
+        white = !white;
+        otherPlayer = currentPlayer;
+        currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
+
+        positionHistory.unmakeMove(this);
+    }
+
+    @Override
+    public long getZobristHash() {
+        return halfMoveClock == 100 || threefoldDrawn ? ~zobristHash : zobristHash; // drawn positions have no moves, so they must not share an entry
+    }
+
+    @Override
+    public int getMoveKey(IChessMove move) {
+        return move.getFrom() * BOARD_ARRAY_SIZE + move.getTo();
+    }
+
+    @Override
+    public int getNumMoveKeys() {
+        return BOARD_ARRAY_SIZE * BOARD_ARRAY_SIZE;
+    }
+
     @Override
     public ChessPosition createCopy() {
         return ChessFunctions.copyBoard(this);
@@ -55,6 +55,7 @@ public class ForkJoinExampleGameRenderer implements IGameRenderer<ForkJoinExampl
         g.drawString(
                 "Effective evaluations second: " + String.format("%.2f", Double.valueOf(ForkJoinExampleThreadTracker.getEffectiveNodesEvaluatedPerSecond())), 2,
                 fontHeight * 3);
+        g.drawString("Percent utilised: " + String.format("%.2f", Double.valueOf(ForkJoinExampleThreadTracker.getPercentUtilised())), 0, fontHeight * 4);
         List<List<ForkJoinExampleNode>> nodesByDepth = ForkJoinExampleThreadTracker.nodesByDepth();
         for (List<ForkJoinExampleNode> nodes : nodesByDepth) {
             for (ForkJoinExampleNode node : nodes) {
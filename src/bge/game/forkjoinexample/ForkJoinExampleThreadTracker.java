@@ -5,7 +5,10 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ForkJoinExampleThreadTracker {
     static long SLEEP_PER_EVAL = 100;
@@ -18,6 +21,10 @@ public class ForkJoinExampleThreadTracker {
     private static AtomicInteger nodesEvaluated = new AtomicInteger(0);
     private static AtomicInteger nodesReevaluated = new AtomicInteger(0);
 
+    // time spent evaluating and visiting branches by each thread that did either
+    private static AtomicLong timeWorked = new AtomicLong(0);
+    private static Set<String> workingThreads = ConcurrentHashMap.newKeySet();
+
     private static long startTime = System.currentTimeMillis();
     private static long timeElapsed = 0;
     private static boolean searchComplete = false;
@@ -40,6 +47,8 @@ public class ForkJoinExampleThreadTracker {
     public static synchronized void searchStarted() {
         nodesEvaluated.set(0);
         nodesReevaluated.set(0);
+        timeWorked.set(0);
+        workingThreads.clear();
         for (ForkJoinExampleNodeInfo nodeInfo : nodeToInfoMap.values()) {
             nodeInfo.clearInfo();
         }
@@ -116,7 +125,7 @@ public class ForkJoinExampleThreadTracker {
     public static void evaluateNode(ForkJoinExampleNode node) {
         ForkJoinExampleNodeInfo nodeInfo = nodeToInfoMap.get(node);
         if (nodeInfo != null) {
-            sleep(SLEEP_PER_EVAL);
+            work(SLEEP_PER_EVAL);
             nodeInfo.evaluate();
         }
     }
@@ -146,6 +155,11 @@ public class ForkJoinExampleThreadTracker {
         return 100 * nodesReevaluated.doubleValue() / nodesEvaluated.get();
     }
 
+    /** The percentage of the elapsed time that the threads which have worked during the search spent working */
+    public static double getPercentUtilised() {
+        return 100 * timeWorked.doubleValue() / (timeElapsed * workingThreads.size());
+    }
+
     public static void setForked(ForkJoinExampleNode parentMove) {
         ForkJoinExampleNodeInfo parentInfo = nodeToInfoMap.get(parentMove);
         if (parentInfo != null) {
@@ -163,11 +177,18 @@ public class ForkJoinExampleThreadTracker {
     public static void branchVisited(ForkJoinExampleNode parent, ForkJoinExampleNode child, long sleep) {
         ForkJoinExampleNodeInfo parentInfo = nodeToInfoMap.get(parent);
         if (parentInfo != null) {
-            sleep(sleep);
+            work(sleep);
             parentInfo.addChild(child);
         }
     }
 
+    private static void work(long sleep) {
+        long start = System.currentTimeMillis();
+        sleep(sleep);
+        timeWorked.addAndGet(System.currentTimeMillis() - start);
+        workingThreads.add(Thread.currentThread().getName());
+    }
+
     static void sleep(long sleep) {
         if (sleep == 0) {
             return;
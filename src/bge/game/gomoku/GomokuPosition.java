@@ -1,22 +1,30 @@
 package bge.game.gomoku;
 
+import bge.igame.IHashablePosition;
+import bge.igame.IMoveKeyPosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.player.TwoPlayers;
 
-public class GomokuPosition implements IPosition<Integer> {
+public class GomokuPosition implements IPosition<Integer>, IHashablePosition, IMoveKeyPosition<Integer> {
     int currentPlayer;
     final int[] board;
     boolean gameOver;
+    long zobristHash;
 
     public GomokuPosition() {
         this(GomokuUtilities.newInitialPosition(), TwoPlayers.PLAYER_1, false);
     }
 
     private GomokuPosition(int[] board, int currentPlayer, boolean gameOver) {
+        this(board, currentPlayer, gameOver, GomokuPositionHasher.computeHash(board, currentPlayer));
+    }
+
+    private GomokuPosition(int[] board, int currentPlayer, boolean gameOver, long zobristHash) {
         this.currentPlayer = currentPlayer;
         this.board = board;
         this.gameOver = gameOver;
+        this.zobristHash = zobristHash;
     }
 
     @Override
@@ -46,21 +54,39 @@ public class GomokuPosition implements IPosition<Integer> {
         int moveInt = move.intValue();
         board[moveInt] = currentPlayer;
         gameOver = GomokuUtilities.winExists(board, moveInt, currentPlayer);
+        zobristHash ^= GomokuPositionHasher.SQUARE_HASHES[currentPlayer][moveInt] ^ GomokuPositionHasher.PLAYER_2_TURN_HASH;
         currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
     }
 
     @Override
     public void unmakeMove(Integer move) {
-        board[move.intValue()] = TwoPlayers.UNPLAYED;
+        int moveInt = move.intValue();
+        board[moveInt] = TwoPlayers.UNPLAYED;
         gameOver = false;
         currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
+        zobristHash ^= GomokuPositionHasher.SQUARE_HASHES[currentPlayer][moveInt] ^ GomokuPositionHasher.PLAYER_2_TURN_HASH;
     }
 
     @Override
     public GomokuPosition createCopy() {
         int[] boardCopy = new int[GomokuUtilities.BOARD_SIZE];
         System.arraycopy(board, 0, boardCopy, 0, GomokuUtilities.BOARD_SIZE);
-        return new GomokuPosition(boardCopy, currentPlayer, gameOver);
+        return new GomokuPosition(boardCopy, currentPlayer, gameOver, zobristHash);
+    }
+
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    @Override
+    public int getMoveKey(Integer move) {
+        return move.intValue();
+    }
+
+    @Override
+    public int getNumMoveKeys() {
+        return GomokuUtilities.BOARD_SIZE;
     }
 
     @Override
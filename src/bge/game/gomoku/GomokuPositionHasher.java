@@ -0,0 +1,40 @@
+package bge.game.gomoku;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import bge.igame.player.TwoPlayers;
+
+public class GomokuPositionHasher {
+    public static final long[][] SQUARE_HASHES = new long[TwoPlayers.NUMBER_OF_PLAYERS + 1][GomokuUtilities.BOARD_SIZE];
+    public static final long PLAYER_2_TURN_HASH;
+
+    static {
+        Random random = new SecureRandom();
+
+        for (int player = TwoPlayers.PLAYER_1; player <= TwoPlayers.PLAYER_2; player++) {
+            for (int square = 0; square < GomokuUtilities.BOARD_SIZE; square++) {
+                SQUARE_HASHES[player][square] = random.nextLong();
+            }
+        }
+
+        PLAYER_2_TURN_HASH = random.nextLong();
+    }
+
+    public static long computeHash(int[] board, int currentPlayer) {
+        long hash = 0;
+
+        for (int square = 0; square < board.length; square++) {
+            int player = board[square];
+            if (player == TwoPlayers.PLAYER_1 || player == TwoPlayers.PLAYER_2) {
+                hash ^= SQUARE_HASHES[player][square];
+            }
+        }
+
+        if (currentPlayer == TwoPlayers.PLAYER_2) {
+            hash ^= PLAYER_2_TURN_HASH;
+        }
+
+        return hash;
+    }
+}
@@ -1,14 +1,17 @@
 package bge.game.papersoccer;
 
+import bge.igame.IHashablePosition;
+import bge.igame.IMoveKeyPosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.player.TwoPlayers;
 
-public class PaperSoccerPosition implements IPosition<Integer> {
+public class PaperSoccerPosition implements IPosition<Integer>, IHashablePosition, IMoveKeyPosition<Integer> {
     final int[] board;
     int ballLocation;
     int currentPlayer;
     boolean gameOver;
+    long zobristHash;
 
     final PaperSoccerPositionHistory positionHistory;
 
@@ -17,11 +20,16 @@ public class PaperSoccerPosition implements IPosition<Integer> {
     }
 
     private PaperSoccerPosition(int[] board, int ballLocation, int currentPlayer, PaperSoccerPositionHistory positionHistory, boolean gameOver) {
+        this(board, ballLocation, currentPlayer, positionHistory, gameOver, PaperSoccerPositionHasher.computeHash(board, ballLocation, currentPlayer));
+    }
+
+    private PaperSoccerPosition(int[] board, int ballLocation, int currentPlayer, PaperSoccerPositionHistory positionHistory, boolean gameOver, long zobristHash) {
         this.board = board;
         this.ballLocation = ballLocation;
         this.currentPlayer = currentPlayer;
         this.positionHistory = positionHistory;
         this.gameOver = gameOver;
+        this.zobristHash = zobristHash;
     }
 
     @Override
@@ -48,10 +56,16 @@ public class PaperSoccerPosition implements IPosition<Integer> {
         int oldBallLocation = ballLocation;
         positionHistory.saveState(this);
         ballLocation = move.intValue();
+        zobristHash ^= PaperSoccerPositionHasher.BALL_HASHES[oldBallLocation] ^ PaperSoccerPositionHasher.BALL_HASHES[ballLocation];
         if (board[ballLocation] == 0) {
             currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
+            zobristHash ^= PaperSoccerPositionHasher.PLAYER_2_TURN_HASH;
         }
+        int oldFromDirections = board[oldBallLocation];
+        int oldToDirections = board[ballLocation];
         PaperSoccerUtilities.updateBoard(board, oldBallLocation, ballLocation);
+        zobristHash ^= PaperSoccerPositionHasher.directionHash(oldBallLocation, board[oldBallLocation] ^ oldFromDirections)
+                ^ PaperSoccerPositionHasher.directionHash(ballLocation, board[ballLocation] ^ oldToDirections);
         if ((ballLocation > 4 && ballLocation < 8) || (ballLocation > 160 && ballLocation < 164)) {
             gameOver = true;
         }
@@ -64,10 +78,25 @@ public class PaperSoccerPosition implements IPosition<Integer> {
         gameOver = false;
     }
 
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    @Override
+    public int getMoveKey(Integer move) {
+        return move.intValue();
+    }
+
+    @Override
+    public int getNumMoveKeys() {
+        return PaperSoccerUtilities.BOARD_SIZE;
+    }
+
     @Override
     public IPosition<Integer> createCopy() {
         int[] boardCopy = new int[PaperSoccerUtilities.BOARD_SIZE];
         System.arraycopy(board, 0, boardCopy, 0, PaperSoccerUtilities.BOARD_SIZE);
-        return new PaperSoccerPosition(boardCopy, ballLocation, currentPlayer, positionHistory.createCopy(), gameOver);
+        return new PaperSoccerPosition(boardCopy, ballLocation, currentPlayer, positionHistory.createCopy(), gameOver, zobristHash);
     }
 }
@@ -0,0 +1,50 @@
+package bge.game.papersoccer;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import bge.igame.player.TwoPlayers;
+
+public class PaperSoccerPositionHasher {
+    private static final int NUM_DIRS = 8;
+
+    public static final long[][] DIRECTION_HASHES = new long[PaperSoccerUtilities.BOARD_SIZE][NUM_DIRS];
+    public static final long[] BALL_HASHES = new long[PaperSoccerUtilities.BOARD_SIZE];
+    public static final long PLAYER_2_TURN_HASH;
+
+    static {
+        Random random = new SecureRandom();
+
+        for (int location = 0; location < PaperSoccerUtilities.BOARD_SIZE; location++) {
+            for (int dir = 0; dir < NUM_DIRS; dir++) {
+                DIRECTION_HASHES[location][dir] = random.nextLong();
+            }
+            BALL_HASHES[location] = random.nextLong();
+        }
+
+        PLAYER_2_TURN_HASH = random.nextLong();
+    }
+
+    public static long directionHash(int location, int directionBit) {
+        return DIRECTION_HASHES[location][Integer.numberOfTrailingZeros(directionBit)];
+    }
+
+    public static long computeHash(int[] board, int ballLocation, int currentPlayer) {
+        long hash = BALL_HASHES[ballLocation];
+
+        for (int location = 0; location < PaperSoccerUtilities.BOARD_SIZE; location++) {
+            int directions = board[location];
+            while (directions != 0) {
+                int directionBit = Integer.lowestOneBit(directions);
+                hash ^= directionHash(location, directionBit);
+                directions ^= directionBit;
+            }
+        }
+
+        if (currentPlayer == TwoPlayers.PLAYER_2) {
+            hash ^= PLAYER_2_TURN_HASH;
+        }
+
+        return hash;
+    }
+}
@@ -14,13 +14,14 @@ public class PaperSoccerPositionHistory {
     }
 
     public void saveState(PaperSoccerPosition position) {
-        undoPaperSoccerMoves[plyCount++] = new UndoPaperSoccerMove(position.currentPlayer, position.ballLocation);
+        undoPaperSoccerMoves[plyCount++] = new UndoPaperSoccerMove(position.currentPlayer, position.ballLocation, position.zobristHash);
     }
 
     public void unmakeMove(PaperSoccerPosition position) {
         UndoPaperSoccerMove undoPaperSoccerMove = undoPaperSoccerMoves[--plyCount];
         position.currentPlayer = undoPaperSoccerMove.player;
         position.ballLocation = undoPaperSoccerMove.ballLocation;
+        position.zobristHash = undoPaperSoccerMove.zobristHash;
     }
 
     public PaperSoccerPositionHistory createCopy() {
@@ -32,10 +33,12 @@ public class PaperSoccerPositionHistory {
     static class UndoPaperSoccerMove {
         final int player;
         final int ballLocation;
+        final long zobristHash;
 
-        public UndoPaperSoccerMove(int player, int ballLocation) {
+        public UndoPaperSoccerMove(int player, int ballLocation, long zobristHash) {
             this.player = player;
             this.ballLocation = ballLocation;
+            this.zobristHash = zobristHash;
         }
 
         @Override
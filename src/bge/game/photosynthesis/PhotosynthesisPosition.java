@@ -9,10 +9,11 @@ import java.util.stream.IntStream;
 
 import bge.igame.Coordinate;
 import bge.igame.IDeepCopy;
+import bge.igame.IHashablePosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 
-public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMove>, PhotosynthesisConstants {
+public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMove>, IHashablePosition, PhotosynthesisConstants {
     final int numPlayers;
 
     int currentPlayer;
@@ -29,6 +30,8 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
 
     final int scoringTokensRemaining[];
 
+    long zobristHash;
+
     public PhotosynthesisPosition(int numPlayers) {
         this.numPlayers = numPlayers;
 
@@ -43,6 +46,8 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
         playerRoundsRemaining = 18 * numPlayers;
 
         scoringTokensRemaining = Arrays.stream(SCORING_TOKENS).mapToInt(a -> a.length).toArray();
+
+        zobristHash = PhotosynthesisPositionHasher.computeHash(this);
     }
 
     private PhotosynthesisPosition(
@@ -53,7 +58,8 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             PlayerBoard[] playerBoards,
             int setupPlayerRoundsRemaining,
             int playerRoundsRemaining,
-            int[] scoringTokensRemaining) {
+            int[] scoringTokensRemaining,
+            long zobristHash) {
         this.numPlayers = numPlayers;
         this.currentPlayer = currentPlayer;
         this.firstPlayer = firstPlayer;
@@ -62,6 +68,7 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
         this.setupPlayerRoundsRemaining = setupPlayerRoundsRemaining;
         this.playerRoundsRemaining = playerRoundsRemaining;
         this.scoringTokensRemaining = scoringTokensRemaining;
+        this.zobristHash = zobristHash;
     }
 
     /** Gets the final score for each player.
@@ -121,7 +128,8 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
                 Arrays.stream(playerBoards).map(b -> b.createCopy()).toArray(PlayerBoard[]::new),
                 setupPlayerRoundsRemaining,
                 playerRoundsRemaining,
-                scoringTokensRemaining.clone());
+                scoringTokensRemaining.clone(),
+                zobristHash);
     }
 
     @Override
@@ -198,6 +206,11 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
         move.unapplyMove(this);
     }
 
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -276,9 +289,15 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             this.coordinate = coordinate;
         }
 
+        private long affectedHash(PhotosynthesisPosition position, Tile tile) {
+            return PhotosynthesisPositionHasher.tileHash(coordinate, tile) ^ PhotosynthesisPositionHasher.turnHash(position)
+                    ^ PhotosynthesisPositionHasher.playerBoardsHash(position);
+        }
+
         @Override
         public void applyMove(PhotosynthesisPosition position) {
             final Tile tile = position.mainBoard.grid[coordinate.x][coordinate.y];
+            position.zobristHash ^= affectedHash(position, tile);
             tile.level = 1;
             tile.player = position.currentPlayer;
 
@@ -289,23 +308,27 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             if (position.setupPlayerRoundsRemaining == 0) {
                 position.doPhotosynthesis();
             }
+            position.zobristHash ^= affectedHash(position, tile);
         }
 
         @Override
         public void unapplyMove(PhotosynthesisPosition position) {
+            final Tile tile = position.mainBoard.grid[coordinate.x][coordinate.y];
+            position.zobristHash ^= affectedHash(position, tile);
+
             if (position.setupPlayerRoundsRemaining == 0) {
                 for (final PlayerBoard playerBoard : position.playerBoards) {
                     playerBoard.lightPoints = 0;
                 }
             }
 
-            final Tile tile = position.mainBoard.grid[coordinate.x][coordinate.y];
             tile.player = -1;
             tile.level = -1;
 
             position.currentPlayer = (position.currentPlayer + position.numPlayers - 1) % position.numPlayers;
             ++position.playerBoards[position.currentPlayer].available[1];
             position.setupPlayerRoundsRemaining++;
+            position.zobristHash ^= affectedHash(position, tile);
         }
 
         @Override
@@ -343,9 +366,16 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             this.coordinate = coordinate;
         }
 
+        private long affectedHash(PhotosynthesisPosition position, Tile tile) {
+            return PhotosynthesisPositionHasher.tileHash(coordinate, tile)
+                    ^ PhotosynthesisPositionHasher.playerBoardHash(position.currentPlayer, position.playerBoards[position.currentPlayer])
+                    ^ PhotosynthesisPositionHasher.scoringTokensHash(position.scoringTokensRemaining);
+        }
+
         @Override
         public void applyMove(PhotosynthesisPosition position) {
             final Tile tile = position.mainBoard.grid[coordinate.x][coordinate.y];
+            position.zobristHash ^= affectedHash(position, tile);
             previousLastTouchedPlayerRoundsRemaining = tile.lastTouchedPlayerRoundsRemaining;
 
             tile.lastTouchedPlayerRoundsRemaining = position.playerRoundsRemaining;
@@ -377,6 +407,7 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             } else {
                 playerBoard.available[tile.level]--;
             }
+            position.zobristHash ^= affectedHash(position, tile);
         }
 
         @Override
@@ -387,6 +418,7 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
         @Override
         public void unapplyMove(PhotosynthesisPosition position) {
             final Tile tile = position.mainBoard.grid[coordinate.x][coordinate.y];
+            position.zobristHash ^= affectedHash(position, tile);
 
             final PlayerBoard playerBoard = position.playerBoards[position.currentPlayer];
 
@@ -410,6 +442,7 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             if (returnedToPlayerBoard) {
                 playerBoard.buy[tile.level]--;
             }
+            position.zobristHash ^= affectedHash(position, tile);
         }
 
         @Override
@@ -446,16 +479,20 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
         @Override
         public void applyMove(PhotosynthesisPosition position) {
             final PlayerBoard playerBoard = position.playerBoards[position.currentPlayer];
+            position.zobristHash ^= PhotosynthesisPositionHasher.playerBoardHash(position.currentPlayer, playerBoard);
             playerBoard.available[buyColumn]++;
             int i = --playerBoard.buy[buyColumn];
             playerBoard.lightPoints -= PRICES[buyColumn][i];
+            position.zobristHash ^= PhotosynthesisPositionHasher.playerBoardHash(position.currentPlayer, playerBoard);
         }
 
         @Override
         public void unapplyMove(PhotosynthesisPosition position) {
             final PlayerBoard playerBoard = position.playerBoards[position.currentPlayer];
+            position.zobristHash ^= PhotosynthesisPositionHasher.playerBoardHash(position.currentPlayer, playerBoard);
             playerBoard.lightPoints += PRICES[buyColumn][playerBoard.buy[buyColumn]++];
             playerBoard.available[buyColumn]--;
+            position.zobristHash ^= PhotosynthesisPositionHasher.playerBoardHash(position.currentPlayer, playerBoard);
         }
 
         @Override
@@ -489,10 +526,16 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             this.dest = dest;
         }
 
+        private long affectedHash(PhotosynthesisPosition position, Tile sourceTile, Tile destTile) {
+            return PhotosynthesisPositionHasher.tileHash(source, sourceTile) ^ PhotosynthesisPositionHasher.tileHash(dest, destTile)
+                    ^ PhotosynthesisPositionHasher.playerBoardHash(position.currentPlayer, position.playerBoards[position.currentPlayer]);
+        }
+
         @Override
         public void applyMove(PhotosynthesisPosition position) {
             final Tile sourceTile = position.mainBoard.grid[source.x][source.y];
             final Tile destTile = position.mainBoard.grid[dest.x][dest.y];
+            position.zobristHash ^= affectedHash(position, sourceTile, destTile);
 
             sourceLastTouchedPlayerRoundsRemaining = sourceTile.lastTouchedPlayerRoundsRemaining;
             sourceTile.lastTouchedPlayerRoundsRemaining = position.playerRoundsRemaining;
@@ -502,12 +545,14 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
 
             position.playerBoards[position.currentPlayer].available[0]--;
             --position.playerBoards[position.currentPlayer].lightPoints;
+            position.zobristHash ^= affectedHash(position, sourceTile, destTile);
         }
 
         @Override
         public void unapplyMove(PhotosynthesisPosition position) {
             final Tile sourceTile = position.mainBoard.grid[source.x][source.y];
             final Tile destTile = position.mainBoard.grid[dest.x][dest.y];
+            position.zobristHash ^= affectedHash(position, sourceTile, destTile);
 
             ++position.playerBoards[position.currentPlayer].lightPoints;
             position.playerBoards[position.currentPlayer].available[0]++;
@@ -516,6 +561,7 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
 
             destTile.player = -1;
             destTile.level = -1;
+            position.zobristHash ^= affectedHash(position, sourceTile, destTile);
         }
 
         @Override
@@ -545,8 +591,13 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
     public static final class EndTurn implements IPhotosynthesisMove {
         int[] previousPlayerLightPoints;
 
+        private static long affectedHash(PhotosynthesisPosition position) {
+            return PhotosynthesisPositionHasher.turnHash(position) ^ PhotosynthesisPositionHasher.playerBoardsHash(position);
+        }
+
         @Override
         public void applyMove(PhotosynthesisPosition position) {
+            position.zobristHash ^= affectedHash(position);
             position.currentPlayer = (position.currentPlayer + 1) % position.numPlayers;
             position.playerRoundsRemaining--;
             if (position.currentPlayer == position.firstPlayer) {
@@ -556,10 +607,12 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
                 previousPlayerLightPoints = Arrays.stream(position.playerBoards).mapToInt(pb -> pb.lightPoints).toArray();
                 position.doPhotosynthesis();
             }
+            position.zobristHash ^= affectedHash(position);
         }
 
         @Override
         public void unapplyMove(PhotosynthesisPosition position) {
+            position.zobristHash ^= affectedHash(position);
             if (position.currentPlayer == position.firstPlayer) {
                 // Restore points before photosynthesis phase
                 for (int player = 0; player < previousPlayerLightPoints.length; player++) {
@@ -573,6 +626,7 @@ public final class PhotosynthesisPosition implements IPosition<IPhotosynthesisMo
             }
 
             position.playerRoundsRemaining++;
+            position.zobristHash ^= affectedHash(position);
         }
 
         @Override
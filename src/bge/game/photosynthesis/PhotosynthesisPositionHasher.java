@@ -0,0 +1,116 @@
+package bge.game.photosynthesis;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+import bge.game.photosynthesis.PhotosynthesisPosition.MainBoard;
+import bge.game.photosynthesis.PhotosynthesisPosition.PlayerBoard;
+import bge.game.photosynthesis.PhotosynthesisPosition.Tile;
+import bge.igame.Coordinate;
+
+public class PhotosynthesisPositionHasher implements PhotosynthesisConstants {
+    private static final int MAX_PLAYERS = 4;
+    private static final int NUM_LEVELS = 4;
+    private static final int NUM_TILES = MainBoard.AXIS_LENGTH * MainBoard.AXIS_LENGTH;
+    private static final int MAX_PLAYER_ROUNDS = 18 * MAX_PLAYERS;
+    private static final int MAX_SETUP_ROUNDS = 2 * MAX_PLAYERS;
+    // Counts are masked into power of two tables so boards edited outside of the rules can still be hashed
+    private static final int PIECE_MASK = 0xF;
+    private static final int LIGHT_POINT_MASK = 0x3F;
+    private static final int VICTORY_POINT_MASK = Integer.highestOneBit(Arrays.stream(SCORING_TOKENS).flatMapToInt(Arrays::stream).sum()) * 2 - 1;
+
+    public static final long[][][] TILE_HASHES = new long[NUM_TILES][MAX_PLAYERS][NUM_LEVELS];
+    public static final long[][] TOUCHED_HASHES = new long[NUM_TILES][MAX_PLAYER_ROUNDS + 1];
+    public static final long[][] LIGHT_POINT_HASHES = new long[MAX_PLAYERS][LIGHT_POINT_MASK + 1];
+    public static final long[][][] BUY_HASHES = new long[MAX_PLAYERS][NUM_LEVELS][PIECE_MASK + 1];
+    public static final long[][][] AVAILABLE_HASHES = new long[MAX_PLAYERS][NUM_LEVELS][PIECE_MASK + 1];
+    public static final long[][] VICTORY_POINT_HASHES = new long[MAX_PLAYERS][VICTORY_POINT_MASK + 1];
+    public static final long[][] SCORING_TOKEN_HASHES = new long[SCORING_TOKENS.length][];
+    public static final long[] CURRENT_PLAYER_HASHES = new long[MAX_PLAYERS];
+    public static final long[] FIRST_PLAYER_HASHES = new long[MAX_PLAYERS];
+    public static final long[] PLAYER_ROUNDS_HASHES = new long[MAX_PLAYER_ROUNDS + 1];
+    public static final long[] SETUP_ROUNDS_HASHES = new long[MAX_SETUP_ROUNDS + 1];
+
+    static {
+        Random random = new SecureRandom();
+
+        for (int tile = 0; tile < NUM_TILES; tile++) {
+            for (int player = 0; player < MAX_PLAYERS; player++) {
+                fill(random, TILE_HASHES[tile][player]);
+            }
+            fill(random, TOUCHED_HASHES[tile]);
+        }
+
+        for (int player = 0; player < MAX_PLAYERS; player++) {
+            fill(random, LIGHT_POINT_HASHES[player]);
+            for (int level = 0; level < NUM_LEVELS; level++) {
+                fill(random, BUY_HASHES[player][level]);
+                fill(random, AVAILABLE_HASHES[player][level]);
+            }
+            fill(random, VICTORY_POINT_HASHES[player]);
+        }
+
+        for (int column = 0; column < SCORING_TOKENS.length; column++) {
+            SCORING_TOKEN_HASHES[column] = new long[SCORING_TOKENS[column].length + 1];
+            fill(random, SCORING_TOKEN_HASHES[column]);
+        }
+
+        fill(random, CURRENT_PLAYER_HASHES);
+        fill(random, FIRST_PLAYER_HASHES);
+        fill(random, PLAYER_ROUNDS_HASHES);
+        fill(random, SETUP_ROUNDS_HASHES);
+    }
+
+    private static void fill(Random random, long[] hashes) {
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+        }
+    }
+
+    public static long tileHash(Coordinate coordinate, Tile tile) {
+        int tileIndex = coordinate.x * MainBoard.AXIS_LENGTH + coordinate.y;
+        long hash = tile.player == -1 ? 0 : TILE_HASHES[tileIndex][tile.player][tile.level];
+        if (tile.lastTouchedPlayerRoundsRemaining <= MAX_PLAYER_ROUNDS) {
+            hash ^= TOUCHED_HASHES[tileIndex][tile.lastTouchedPlayerRoundsRemaining];
+        }
+        return hash;
+    }
+
+    public static long playerBoardHash(int player, PlayerBoard playerBoard) {
+        long hash = LIGHT_POINT_HASHES[player][playerBoard.lightPoints & LIGHT_POINT_MASK] ^ VICTORY_POINT_HASHES[player][playerBoard.victoryPoints & VICTORY_POINT_MASK];
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            hash ^= BUY_HASHES[player][level][playerBoard.buy[level] & PIECE_MASK] ^ AVAILABLE_HASHES[player][level][playerBoard.available[level] & PIECE_MASK];
+        }
+        return hash;
+    }
+
+    public static long playerBoardsHash(PhotosynthesisPosition position) {
+        long hash = 0;
+        for (int player = 0; player < position.numPlayers; player++) {
+            hash ^= playerBoardHash(player, position.playerBoards[player]);
+        }
+        return hash;
+    }
+
+    public static long scoringTokensHash(int[] scoringTokensRemaining) {
+        long hash = 0;
+        for (int column = 0; column < scoringTokensRemaining.length; column++) {
+            hash ^= SCORING_TOKEN_HASHES[column][scoringTokensRemaining[column]];
+        }
+        return hash;
+    }
+
+    public static long turnHash(PhotosynthesisPosition position) {
+        return CURRENT_PLAYER_HASHES[position.currentPlayer] ^ FIRST_PLAYER_HASHES[position.firstPlayer]
+                ^ PLAYER_ROUNDS_HASHES[position.playerRoundsRemaining] ^ SETUP_ROUNDS_HASHES[position.setupPlayerRoundsRemaining];
+    }
+
+    public static long computeHash(PhotosynthesisPosition position) {
+        long hash = turnHash(position) ^ playerBoardsHash(position) ^ scoringTokensHash(position.scoringTokensRemaining);
+        for (Coordinate coordinate : ALL_COORDS) {
+            hash ^= tileHash(coordinate, position.mainBoard.grid[coordinate.x][coordinate.y]);
+        }
+        return hash;
+    }
+}
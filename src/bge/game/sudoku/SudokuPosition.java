@@ -1,15 +1,17 @@
 package bge.game.sudoku;
 
+import bge.igame.IHashablePosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 
-public class SudokuPosition implements IPosition<SudokuMove>, SudokuConstants {
+public class SudokuPosition implements IPosition<SudokuMove>, IHashablePosition, SudokuConstants {
     final SudokuCell[] cells;
     final int[] undecidedCells;
     int numUndecided;
     final int[] decidedCells;
     int numDecided;
     final int[] undecidedCellIndexes;
+    long zobristHash;
 
     public SudokuPosition() {
         this(SudokuConstants.newCells(), SudokuConstants.newUndecidedCells(), TOTAL_CELLS, new int[TOTAL_CELLS], 0, SudokuConstants.newUndecidedCells());
@@ -22,6 +24,7 @@ public class SudokuPosition implements IPosition<SudokuMove>, SudokuConstants {
         this.decidedCells = decidedCells;
         this.numDecided = numDecided;
         this.undecidedCellIndexes = undecidedCellIndexes;
+        zobristHash = SudokuPositionHasher.computeHash(cells);
         SudokuBox.initBox(new SudokuCell[] { cells[0], cells[1], cells[2], cells[9], cells[10], cells[11], cells[18], cells[19], cells[20] }, BOX);
         SudokuBox.initBox(new SudokuCell[] { cells[3], cells[4], cells[5], cells[12], cells[13], cells[14], cells[21], cells[22], cells[23] }, BOX);
         SudokuBox.initBox(new SudokuCell[] { cells[6], cells[7], cells[8], cells[15], cells[16], cells[17], cells[24], cells[25], cells[26] }, BOX);
@@ -78,6 +81,7 @@ public class SudokuPosition implements IPosition<SudokuMove>, SudokuConstants {
     public void makeMove(SudokuMove move) {
         // Set value
         cells[move.location].setDigit(move.digit);
+        zobristHash ^= SudokuPositionHasher.digitHash(move.location, move.digit);
         // Replace with last element of undecided
         int undecidedIndex = undecidedCellIndexes[move.location]; // find index of cell in undecided
         int lastUndecidedBoardIndex = undecidedCells[--numUndecided]; // find index of last undecided on board
@@ -93,9 +97,15 @@ public class SudokuPosition implements IPosition<SudokuMove>, SudokuConstants {
         int decidedIndex = decidedCells[--numDecided]; // find the index of the last decided cell
         undecidedCells[numUndecided] = decidedIndex;
         undecidedCellIndexes[decidedIndex] = numUndecided++;
+        zobristHash ^= SudokuPositionHasher.digitHash(decidedIndex, cells[decidedIndex].digit);
         cells[decidedIndex].unsetDigit();
     }
 
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
     @Override
     public SudokuPosition createCopy() {
         SudokuCell[] cellsCopy = new SudokuCell[TOTAL_CELLS];
@@ -0,0 +1,35 @@
+package bge.game.sudoku;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+public class SudokuPositionHasher implements SudokuConstants {
+    public static final long[][] DIGIT_HASHES = new long[TOTAL_CELLS][NUM_DIGITS];
+
+    static {
+        Random random = new SecureRandom();
+
+        for (int location = 0; location < TOTAL_CELLS; location++) {
+            for (int digit = 0; digit < NUM_DIGITS; digit++) {
+                DIGIT_HASHES[location][digit] = random.nextLong();
+            }
+        }
+    }
+
+    public static long digitHash(int location, int digit) {
+        return DIGIT_HASHES[location][Integer.numberOfTrailingZeros(digit)];
+    }
+
+    public static long computeHash(SudokuCell[] cells) {
+        long hash = 0;
+
+        for (int location = 0; location < TOTAL_CELLS; location++) {
+            int digit = cells[location].digit;
+            if (digit != NO_DIGIT) {
+                hash ^= digitHash(location, digit);
+            }
+        }
+
+        return hash;
+    }
+}
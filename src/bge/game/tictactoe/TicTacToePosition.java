@@ -1,23 +1,27 @@
 package bge.game.tictactoe;
 
 import bge.igame.Coordinate;
+import bge.igame.IHashablePosition;
+import bge.igame.IMoveKeyPosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.player.TwoPlayers;
 
-public class TicTacToePosition implements IPosition<Coordinate> {
+public class TicTacToePosition implements IPosition<Coordinate>, IHashablePosition, IMoveKeyPosition<Coordinate> {
     public static final int BOARD_WIDTH = 3;
 
     int board;
     int currentPlayer;
+    long zobristHash;
 
     public TicTacToePosition() {
-        this(0, TwoPlayers.PLAYER_1);
+        this(0, TwoPlayers.PLAYER_1, TicTacToePositionHasher.computeHash(0, TwoPlayers.PLAYER_1));
     }
 
-    private TicTacToePosition(int board, int currentPlayer) {
+    private TicTacToePosition(int board, int currentPlayer, long zobristHash) {
         this.board = board;
         this.currentPlayer = currentPlayer;
+        this.zobristHash = zobristHash;
     }
 
     @Override
@@ -61,22 +65,39 @@ public class TicTacToePosition implements IPosition<Coordinate> {
 
     @Override
     public void makeMove(Coordinate move) {
-        int shift = (move.y * BOARD_WIDTH + move.x) << 1;
-        board |= (currentPlayer << shift);
+        int square = move.y * BOARD_WIDTH + move.x;
+        board |= (currentPlayer << (square << 1));
+        zobristHash ^= TicTacToePositionHasher.SQUARE_HASHES[currentPlayer][square] ^ TicTacToePositionHasher.PLAYER_2_TURN_HASH;
         currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
     }
 
     @Override
     public void unmakeMove(Coordinate move) {
-        int shift = (move.y * BOARD_WIDTH + move.x) << 1;
-        int boardClear = ~(TwoPlayers.BOTH_PLAYERS << shift);
+        int square = move.y * BOARD_WIDTH + move.x;
+        int boardClear = ~(TwoPlayers.BOTH_PLAYERS << (square << 1));
         board &= boardClear;
         currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
+        zobristHash ^= TicTacToePositionHasher.SQUARE_HASHES[currentPlayer][square] ^ TicTacToePositionHasher.PLAYER_2_TURN_HASH;
     }
 
     @Override
     public TicTacToePosition createCopy() {
-        return new TicTacToePosition(board, currentPlayer);
+        return new TicTacToePosition(board, currentPlayer, zobristHash);
+    }
+
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    @Override
+    public int getMoveKey(Coordinate move) {
+        return move.y * 3 + move.x;
+    }
+
+    @Override
+    public int getNumMoveKeys() {
+        return 9;
     }
 
     @Override
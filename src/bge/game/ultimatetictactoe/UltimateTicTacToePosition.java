@@ -1,15 +1,19 @@
 package bge.game.ultimatetictactoe;
 
 import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 import bge.game.tictactoe.TicTacToeUtilities;
 import bge.igame.Coordinate;
+import bge.igame.IHashablePosition;
+import bge.igame.IMoveKeyPosition;
 import bge.igame.IPosition;
+import bge.igame.IRandomMovePosition;
 import bge.igame.MoveList;
 import bge.igame.player.TwoPlayers;
 
-public class UltimateTicTacToePosition implements IPosition<Coordinate> {
+public class UltimateTicTacToePosition implements IPosition<Coordinate>, IHashablePosition, IMoveKeyPosition<Coordinate>, IRandomMovePosition<Coordinate> {
     static final int BOARD_WIDTH = 9;
     static final int ANY_BOARD = -1;
     static final int MAX_MOVES = 81;
@@ -22,17 +26,24 @@ public class UltimateTicTacToePosition implements IPosition<Coordinate> {
     final int[] currentBoardHistory;
     int plyCount;
 
+    long zobristHash;
+
     public UltimateTicTacToePosition() {
         this(new int[BOARD_WIDTH], 0, ANY_BOARD, TwoPlayers.PLAYER_1, new int[MAX_MOVES], 0);
     }
 
     public UltimateTicTacToePosition(int[] boards, int wonBoards, int currentBoard, int currentPlayer, int[] currentBoardHistory, int plyCount) {
+        this(boards, wonBoards, currentBoard, currentPlayer, currentBoardHistory, plyCount, UltimateTicTacToePositionHasher.computeHash(boards, currentBoard, currentPlayer));
+    }
+
+    private UltimateTicTacToePosition(int[] boards, int wonBoards, int currentBoard, int currentPlayer, int[] currentBoardHistory, int plyCount, long zobristHash) {
         this.boards = boards;
         this.wonBoards = wonBoards;
         this.currentBoard = currentBoard;
         this.currentPlayer = currentPlayer;
         this.currentBoardHistory = currentBoardHistory;
         this.plyCount = plyCount;
+        this.zobristHash = zobristHash;
     }
 
     @Override
@@ -68,6 +79,52 @@ public class UltimateTicTacToePosition implements IPosition<Coordinate> {
         }
     }
 
+    @Override
+    public Coordinate getRandomMove(SplittableRandom random) {
+        if (UltimateTicTacToeUtilities.winExists(wonBoards, TwoPlayers.otherPlayer(currentPlayer))) {
+            return null;
+        }
+        if (currentBoard != ANY_BOARD) {
+            return Coordinate.valueOf(currentBoard, emptySquare(boards[currentBoard], random.nextInt(countEmptySquares(boards[currentBoard]))));
+        }
+        int numMoves = 0;
+        int n = 0;
+        while (n < BOARD_WIDTH) {
+            if ((wonBoards & (TwoPlayers.BOTH_PLAYERS << (n << 1))) == TwoPlayers.UNPLAYED) {
+                numMoves += countEmptySquares(boards[n]);
+            }
+            ++n;
+        }
+        if (numMoves == 0) {
+            return null;
+        }
+        int moveIndex = random.nextInt(numMoves);
+        n = 0;
+        while (true) {
+            if ((wonBoards & (TwoPlayers.BOTH_PLAYERS << (n << 1))) == TwoPlayers.UNPLAYED) {
+                int numEmpty = countEmptySquares(boards[n]);
+                if (moveIndex < numEmpty) {
+                    return Coordinate.valueOf(n, emptySquare(boards[n], moveIndex));
+                }
+                moveIndex -= numEmpty;
+            }
+            ++n;
+        }
+    }
+
+    private static int countEmptySquares(int board) {
+        return BOARD_WIDTH - Integer.bitCount(((board << 1) | board) & TicTacToeUtilities.PLAYER_2_ALL_POS);
+    }
+
+    /** The square of the index-th empty square of the board, found from the player 2 bit of each empty square */
+    private static int emptySquare(int board, int index) {
+        int emptySquares = ~((board << 1) | board) & TicTacToeUtilities.PLAYER_2_ALL_POS;
+        while (--index >= 0) {
+            emptySquares &= emptySquares - 1;
+        }
+        return Integer.numberOfTrailingZeros(emptySquares) >> 1;
+    }
+
     @Override
     public int getCurrentPlayer() {
         return currentPlayer;
@@ -80,6 +137,7 @@ public class UltimateTicTacToePosition implements IPosition<Coordinate> {
         int boardNum = move.x << 1;
         int position = move.y << 1;
         int oldBoard = boards[move.x] |= currentPlayer << position;
+        zobristHash ^= UltimateTicTacToePositionHasher.SQUARE_HASHES[currentPlayer][move.x][move.y] ^ UltimateTicTacToePositionHasher.currentBoardHash(currentBoard);
 
         if (UltimateTicTacToeUtilities.winExists(oldBoard, currentPlayer)) {
             wonBoards |= currentPlayer << boardNum;
@@ -96,6 +154,7 @@ public class UltimateTicTacToePosition implements IPosition<Coordinate> {
             currentBoard = ANY_BOARD;
         }
 
+        zobristHash ^= UltimateTicTacToePositionHasher.currentBoardHash(currentBoard) ^ UltimateTicTacToePositionHasher.PLAYER_2_TURN_HASH;
         currentPlayer = TwoPlayers.otherPlayer(currentPlayer);
     }
 
@@ -108,7 +167,10 @@ public class UltimateTicTacToePosition implements IPosition<Coordinate> {
         wonBoards &= undoWonBoard;
         boards[boardNum] ^= currentPlayer << (move.y << 1);
 
+        zobristHash ^= UltimateTicTacToePositionHasher.currentBoardHash(currentBoard);
         currentBoard = currentBoardHistory[--plyCount];
+        zobristHash ^= UltimateTicTacToePositionHasher.SQUARE_HASHES[currentPlayer][boardNum][move.y] ^ UltimateTicTacToePositionHasher.currentBoardHash(currentBoard)
+                ^ UltimateTicTacToePositionHasher.PLAYER_2_TURN_HASH;
     }
 
     @Override
@@ -117,7 +179,22 @@ public class UltimateTicTacToePosition implements IPosition<Coordinate> {
         System.arraycopy(boards, 0, cellsCopy, 0, BOARD_WIDTH);
         int[] currentBoardHistoryCopy = new int[MAX_MOVES];
         System.arraycopy(currentBoardHistory, 0, currentBoardHistoryCopy, 0, MAX_MOVES);
-        return new UltimateTicTacToePosition(cellsCopy, wonBoards, currentBoard, currentPlayer, currentBoardHistoryCopy, plyCount);
+        return new UltimateTicTacToePosition(cellsCopy, wonBoards, currentBoard, currentPlayer, currentBoardHistoryCopy, plyCount, zobristHash);
+    }
+
+    @Override
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    @Override
+    public int getMoveKey(Coordinate move) {
+        return move.x * 9 + move.y;
+    }
+
+    @Override
+    public int getNumMoveKeys() {
+        return 81;
     }
 
     @Override
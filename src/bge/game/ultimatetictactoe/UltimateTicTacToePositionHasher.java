@@ -0,0 +1,53 @@
+package bge.game.ultimatetictactoe;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import bge.igame.player.TwoPlayers;
+
+public class UltimateTicTacToePositionHasher {
+    public static final long[][][] SQUARE_HASHES = new long[TwoPlayers.NUMBER_OF_PLAYERS + 1][UltimateTicTacToePosition.BOARD_WIDTH][UltimateTicTacToePosition.BOARD_WIDTH];
+    public static final long[] CURRENT_BOARD_HASHES = new long[UltimateTicTacToePosition.BOARD_WIDTH + 1]; // offset by one for ANY_BOARD
+    public static final long PLAYER_2_TURN_HASH;
+
+    static {
+        Random random = new SecureRandom();
+
+        for (int player = TwoPlayers.PLAYER_1; player <= TwoPlayers.PLAYER_2; player++) {
+            for (int board = 0; board < UltimateTicTacToePosition.BOARD_WIDTH; board++) {
+                for (int square = 0; square < UltimateTicTacToePosition.BOARD_WIDTH; square++) {
+                    SQUARE_HASHES[player][board][square] = random.nextLong();
+                }
+            }
+        }
+
+        for (int i = 0; i < CURRENT_BOARD_HASHES.length; i++) {
+            CURRENT_BOARD_HASHES[i] = random.nextLong();
+        }
+
+        PLAYER_2_TURN_HASH = random.nextLong();
+    }
+
+    public static long currentBoardHash(int currentBoard) {
+        return CURRENT_BOARD_HASHES[currentBoard + 1];
+    }
+
+    public static long computeHash(int[] boards, int currentBoard, int currentPlayer) {
+        long hash = currentBoardHash(currentBoard);
+
+        for (int board = 0; board < boards.length; board++) {
+            for (int square = 0; square < UltimateTicTacToePosition.BOARD_WIDTH; square++) {
+                int player = (boards[board] >> (square << 1)) & TwoPlayers.BOTH_PLAYERS;
+                if (player != TwoPlayers.UNPLAYED) {
+                    hash ^= SQUARE_HASHES[player][board][square];
+                }
+            }
+        }
+
+        if (currentPlayer == TwoPlayers.PLAYER_2) {
+            hash ^= PLAYER_2_TURN_HASH;
+        }
+
+        return hash;
+    }
+}
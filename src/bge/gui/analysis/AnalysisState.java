@@ -1,8 +1,11 @@
 package bge.gui.analysis;
 
 import java.awt.Color;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
+import bge.analysis.SearchStatistics;
 import bge.analysis.StrategyResult;
 import bge.gui.gamestate.PlayerOptionsPanel;
 import bge.igame.IPosition;
@@ -38,6 +41,9 @@ public class AnalysisState implements GameState, Sized {
 
     public static final int TITLE_HEIGHT = 30;
 
+    private static final Set<String> ANALYSIS_EXCLUDED_OPTIONS = new HashSet<>(
+            Arrays.asList(PlayerInfo.KEY_MS_PER_MOVE, PlayerInfo.KEY_CLOCK_S, PlayerInfo.KEY_INCREMENT_MS));
+
     private String gameName;
     private final IMouseTracker mouseTracker;
     private final IGameImageDrawer imageDrawer;
@@ -106,15 +112,21 @@ public class AnalysisState implements GameState, Sized {
         optionsPanelLocation = cl.createGluedLocation(GlueSide.TOP, 5, TITLE_HEIGHT + 5, -5, TITLE_HEIGHT + 120);
         playerOptions = GameRegistry.getPlayerOptions(gameName, ComputerPlayer.NAME);
         playerInfo = PlayerInfo.fromSetting("bge." + gameName + ".analysisplayerinfo");
+        setAnalysisOptions(playerInfo);
+        setAnalysisPanel();
+    }
+
+    /** Analysis searches until it is stopped, so it has no time per move or clock */
+    private static void setAnalysisOptions(PlayerInfo playerInfo) {
         playerInfo.setOption(PlayerInfo.KEY_MS_PER_MOVE, Integer.valueOf(Integer.MAX_VALUE));
+        playerInfo.setOption(PlayerInfo.KEY_CLOCK_S, Integer.valueOf(0));
         playerInfo.setOption(PlayerInfo.KEY_ESCAPE_EARLY, PlayerInfo.VALUE_DO_NOT_ESCAPE_EARLY);
-        setAnalysisPanel();
     }
 
     private void setAnalysisPanel() {
         PlayerInfo analysisPlayerInfo = analysisPlayer == null ? playerInfo : analysisPlayer.getPlayerInfo().createUniqueCopy();
         playerOptionsPanel = new PlayerOptionsPanel(optionsPanelLocation, mouseTracker, imageDrawer, playerOptions, analysisPlayerInfo,
-                Collections.singleton(PlayerInfo.KEY_MS_PER_MOVE), "bge." + gameName + ".analysisplayerinfo");
+                ANALYSIS_EXCLUDED_OPTIONS, "bge." + gameName + ".analysisplayerinfo");
     }
 
     private void createNewAnalysisPlayer() {
@@ -122,8 +134,7 @@ public class AnalysisState implements GameState, Sized {
             analysisPlayer.notifyGameEnded();
         }
         playerInfo = playerOptionsPanel.getPlayerInfo().createUniqueCopy();
-        playerInfo.setOption(PlayerInfo.KEY_MS_PER_MOVE, Integer.valueOf(Integer.MAX_VALUE));
-        playerInfo.setOption(PlayerInfo.KEY_ESCAPE_EARLY, PlayerInfo.VALUE_DO_NOT_ESCAPE_EARLY);
+        setAnalysisOptions(playerInfo);
         analysisPlayer = new ComputerPlayer(gameName, playerInfo);
     }
 
@@ -169,8 +180,7 @@ public class AnalysisState implements GameState, Sized {
     public void gamePaused(boolean back) {
         if (mode == AnalysisMode.OBSERVING) {
             playerInfo = analysisPlayer.getPlayerInfo().createUniqueCopy();
-            playerInfo.setOption(PlayerInfo.KEY_MS_PER_MOVE, Integer.valueOf(Integer.MAX_VALUE));
-            playerInfo.setOption(PlayerInfo.KEY_ESCAPE_EARLY, PlayerInfo.VALUE_DO_NOT_ESCAPE_EARLY);
+            setAnalysisOptions(playerInfo);
             analyzePauseButton.setSelected(false);
             mode = AnalysisMode.STOPPED;
         }
@@ -191,7 +201,8 @@ public class AnalysisState implements GameState, Sized {
         if (analysisRefreshTimer.getPercentComplete() >= 1 && (mode == AnalysisMode.ANALYZING || mode == AnalysisMode.OBSERVING)) {
             if (analysisPlayer != null) {
                 StrategyResult currentResult = analysisPlayer.getCurrentResult();
-                analysisMsg = "depth = " + currentResult.depth;
+                SearchStatistics statistics = analysisPlayer.getSearchStatistics();
+                analysisMsg = "depth = " + currentResult.depth + (statistics == null ? "" : ", " + statistics);
                 view.setAnalyzedMoves(currentResult.moves);
                 scrollPane.setSize(spLoc.getWidth(), spLoc.getHeight());
             }
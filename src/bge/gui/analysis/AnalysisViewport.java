@@ -47,7 +47,8 @@ public class AnalysisViewport implements EViewport {
             g.setColor(moveWithScore.isPartial ? ComponentCreator.foregroundColor() : ComponentCreator.foregroundColor().darker());
             double y = i * ITEM_HEIGHT - window.getTruncatedY0(ITEM_HEIGHT);
             g.drawCenteredYString((i + 1) + ". " + getScoreString(moveWithScore.score), 5, y + ITEM_HEIGHT / 2);
-            g.drawCenteredYString(moveWithScore.moveString, 100, y + ITEM_HEIGHT / 2);
+            String line = moveWithScore.principalVariation == null ? moveWithScore.moveString : moveWithScore.principalVariation;
+            g.drawCenteredYString(line, 100, y + ITEM_HEIGHT / 2);
         }
     }
 
@@ -80,13 +80,19 @@ public class GameRunner<M> {
                 while (!stopRequested && possibleMovesCopy.size() > 0) {
                     M move = currentPlayer.getMove(positionCopy);
                     if (!stopRequested) {
+                        List<IPlayer> playersToNotify;
                         synchronized (this) {
                             position.makeMove(move);
                             currentPlayer.notifyTurnEnded();
+                            playersToNotify = players;
                             currentPlayer = players.get(position.getCurrentPlayer() - game.getPlayerIndexOffset());
                             setPositionCopy(move, playerToMove, currentPlayer, true); // now previous player
                             playerToMove = positionCopy.getCurrentPlayer();
                         }
+                        // Outside of the lock, as a player may start to ponder. A pause meanwhile ends the game for every player in notifyGameEnded
+                        for (IPlayer player : playersToNotify) {
+                            player.notifyMoveMade(move);
+                        }
                     }
                 }
             } finally {
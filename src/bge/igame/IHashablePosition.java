@@ -0,0 +1,5 @@
+package bge.igame;
+
+public interface IHashablePosition {
+    long getZobristHash();
+}
@@ -0,0 +1,9 @@
+package bge.igame;
+
+/** A position whose moves map to small integer keys, for tables such as the history heuristic */
+public interface IMoveKeyPosition<M> {
+    /** A key in [0, getNumMoveKeys()) */
+    int getMoveKey(M move);
+
+    int getNumMoveKeys();
+}
@@ -0,0 +1,14 @@
+package bge.igame;
+
+/** A position in which the current player may pass, for null move pruning */
+public interface INullMovePosition {
+    /** Whether passing is legal, e.g. the current player is not in check */
+    boolean canPass();
+
+    /** Whether passing may be better than every move, in which case a null move search is unsound */
+    boolean isZugzwangLikely();
+
+    void makeNullMove();
+
+    void unmakeNullMove();
+}
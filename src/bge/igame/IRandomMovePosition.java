@@ -0,0 +1,9 @@
+package bge.igame;
+
+import java.util.SplittableRandom;
+
+/** A position that can choose a random legal move without generating every move, for random playouts */
+public interface IRandomMovePosition<M> {
+    /** A move chosen uniformly from the moves getPossibleMoves would generate, or null if there are none */
+    M getRandomMove(SplittableRandom random);
+}
@@ -20,4 +20,14 @@ public interface MoveList<M> {
     public MoveList<M> subList(int beginIndex);
 
     public void clear();
+
+    /** The index of the move in the order it was added, for lists that reorder their moves */
+    public default int getGeneratedIndex(int index) {
+        return index;
+    }
+
+    /** The inverse of {@link #getGeneratedIndex(int)} */
+    public default int getIndex(int generatedIndex) {
+        return generatedIndex;
+    }
 }
@@ -16,6 +16,10 @@ public class MoveListFactory<M> {
         this.analysisMoveListClass = analysisMoveListClass;
     }
 
+    public int getMaxMoves() {
+        return maxMoves;
+    }
+
     public MoveList<M> newArrayMoveList() {
         return new ArrayMoveList<>(maxMoves);
     }
@@ -32,4 +36,8 @@ public class MoveListFactory<M> {
     public MoveListProvider<M> newAnalysisMoveListProvider() {
         return new MoveListProvider<>(this);
     }
+
+    public MoveListProvider<M> newOrderingMoveListProvider() {
+        return new OrderingMoveListProvider<>(this);
+    }
 }
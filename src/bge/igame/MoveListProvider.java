@@ -20,4 +20,8 @@ public class MoveListProvider<M> {
         moveList.clear();
         return moveList;
     }
+
+    /** Called when a quiet move at the given depth causes a beta cutoff with the given plies remaining */
+    public void recordCutoff(int depth, IPosition<M> position, M move, int plies) {
+    }
 }
@@ -0,0 +1,136 @@
+package bge.igame;
+
+/** Wraps a move list and orders its quiet moves by the killer and history tables of an {@link OrderingMoveListProvider} */
+public class OrderingMoveList<M> implements MoveList<M> {
+    private final MoveList<M> moveList;
+    private final OrderingMoveListProvider<M> provider;
+    private final int depth;
+
+    private final int[] order;
+    private final int[] scores;
+
+    private IMoveKeyPosition<M> position;
+    private boolean sorted = false;
+
+    public OrderingMoveList(MoveList<M> moveList, OrderingMoveListProvider<M> provider, int depth, int capacity) {
+        this.moveList = moveList;
+        this.provider = provider;
+        this.depth = depth;
+        order = new int[capacity];
+        scores = new int[capacity];
+    }
+
+    @Override
+    public void addDynamicMove(M move, IPosition<M> position) {
+        moveList.addDynamicMove(move, position);
+        sorted = false;
+    }
+
+    @Override
+    public void addAllDynamicMoves(M[] moves, IPosition<M> position) {
+        moveList.addAllDynamicMoves(moves, position);
+        sorted = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void addQuietMove(M move, IPosition<M> position) {
+        moveList.addQuietMove(move, position);
+        this.position = (IMoveKeyPosition<M>) position;
+        sorted = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void addAllQuietMoves(M[] moves, IPosition<M> position) {
+        moveList.addAllQuietMoves(moves, position);
+        this.position = (IMoveKeyPosition<M>) position;
+        sorted = false;
+    }
+
+    @Override
+    public M get(int index) {
+        return moveList.get(getGeneratedIndex(index));
+    }
+
+    @Override
+    public int getGeneratedIndex(int index) {
+        int numDynamicMoves = moveList.numDynamicMoves();
+        if (index < numDynamicMoves) {
+            return index;
+        }
+        sort();
+        return numDynamicMoves + order[index - numDynamicMoves];
+    }
+
+    @Override
+    public int getIndex(int generatedIndex) {
+        int numDynamicMoves = moveList.numDynamicMoves();
+        if (generatedIndex < numDynamicMoves) {
+            return generatedIndex;
+        }
+        sort();
+        int quietIndex = generatedIndex - numDynamicMoves;
+        int i = 0;
+        while (order[i] != quietIndex) {
+            ++i;
+        }
+        return numDynamicMoves + i;
+    }
+
+    private void sort() {
+        if (sorted) {
+            return;
+        }
+        int numDynamicMoves = moveList.numDynamicMoves();
+        int numQuietMoves = moveList.size() - numDynamicMoves;
+        for (int i = 0; i < numQuietMoves; ++i) { // insertion sort, stable so that equal scores keep the generated order
+            int score = provider.getScore(depth, position.getMoveKey(moveList.get(numDynamicMoves + i)));
+            int j = i;
+            while (j > 0 && scores[j - 1] < score) {
+                scores[j] = scores[j - 1];
+                order[j] = order[j - 1];
+                --j;
+            }
+            scores[j] = score;
+            order[j] = i;
+        }
+        sorted = true;
+    }
+
+    @Override
+    public boolean contains(M move) {
+        return moveList.contains(move);
+    }
+
+    @Override
+    public int size() {
+        return moveList.size();
+    }
+
+    @Override
+    public int numDynamicMoves() {
+        return moveList.numDynamicMoves();
+    }
+
+    @Override
+    public MoveList<M> subList(int beginIndex) {
+        int numDynamicMoves = moveList.numDynamicMoves();
+        int size = moveList.size();
+        ArrayMoveList<M> sublist = new ArrayMoveList<>(Math.max(0, numDynamicMoves - beginIndex), size - Math.max(beginIndex, numDynamicMoves));
+        for (int i = beginIndex; i < size; ++i) {
+            if (i < numDynamicMoves) {
+                sublist.addDynamicMove(get(i), null);
+            } else {
+                sublist.addQuietMove(get(i), null);
+            }
+        }
+        return sublist;
+    }
+
+    @Override
+    public void clear() {
+        moveList.clear();
+        sorted = false;
+    }
+}
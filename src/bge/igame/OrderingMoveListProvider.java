@@ -0,0 +1,61 @@
+package bge.igame;
+
+/** Hands out move lists that search killer moves and then quiet moves with the highest history scores first */
+public class OrderingMoveListProvider<M> extends MoveListProvider<M> {
+    private static final int NUM_KILLERS = 2;
+    private static final int MAX_HISTORY = 1 << 24;
+
+    @SuppressWarnings("unchecked")
+    private final OrderingMoveList<M>[] moveLists = new OrderingMoveList[MAX_DEPTH];
+
+    private final int[] killers = new int[MAX_DEPTH * NUM_KILLERS]; // move key + 1, or 0 for none
+    private int[] history = new int[0];
+
+    public OrderingMoveListProvider(MoveListFactory<M> moveListFactory) {
+        super(moveListFactory);
+    }
+
+    @Override
+    public MoveList<M> getMoveList(int depth) {
+        OrderingMoveList<M> moveList = moveLists[depth];
+        if (moveList == null) {
+            moveList = new OrderingMoveList<>(moveListFactory.newAnalysisMoveList(), this, depth, moveListFactory.maxMoves);
+            moveLists[depth] = moveList;
+        }
+        moveList.clear();
+        return moveList;
+    }
+
+    @Override
+    public void recordCutoff(int depth, IPosition<M> position, M move, int plies) {
+        @SuppressWarnings("unchecked")
+        IMoveKeyPosition<M> keyPosition = (IMoveKeyPosition<M>) position;
+        int key = keyPosition.getMoveKey(move);
+
+        int killerIndex = depth * NUM_KILLERS;
+        if (killers[killerIndex] != key + 1) {
+            killers[killerIndex + 1] = killers[killerIndex];
+            killers[killerIndex] = key + 1;
+        }
+
+        if (history.length < keyPosition.getNumMoveKeys()) {
+            history = new int[keyPosition.getNumMoveKeys()];
+        }
+        history[key] += plies * plies;
+        if (history[key] > MAX_HISTORY) { // age the table so that recent cutoffs count for more
+            for (int i = 0; i < history.length; ++i) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    int getScore(int depth, int key) {
+        int killerIndex = depth * NUM_KILLERS;
+        if (killers[killerIndex] == key + 1) {
+            return Integer.MAX_VALUE;
+        } else if (killers[killerIndex + 1] == key + 1) {
+            return Integer.MAX_VALUE - 1;
+        }
+        return key < history.length ? history[key] : 0;
+    }
+}
@@ -0,0 +1,24 @@
+package bge.igame;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/** Ordering move list providers that outlive a single search, so that their killer and history tables carry over to later searches */
+public class OrderingMoveListProviderPool<M> {
+    private final MoveListFactory<M> moveListFactory;
+    private final Queue<MoveListProvider<M>> providers = new ConcurrentLinkedQueue<>();
+
+    public OrderingMoveListProviderPool(MoveListFactory<M> moveListFactory) {
+        this.moveListFactory = moveListFactory;
+    }
+
+    /** A provider that no other thread is using, until it is released */
+    public MoveListProvider<M> take() {
+        MoveListProvider<M> provider = providers.poll();
+        return provider == null ? moveListFactory.newOrderingMoveListProvider() : provider;
+    }
+
+    public void release(MoveListProvider<M> provider) {
+        providers.offer(provider);
+    }
+}
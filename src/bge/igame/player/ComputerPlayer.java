@@ -3,6 +3,7 @@ package bge.igame.player;
 import java.util.Collections;
 
 import bge.analysis.AnalysisResult;
+import bge.analysis.SearchStatistics;
 import bge.analysis.StrategyResult;
 import bge.igame.IPosition;
 import bge.strategy.IStrategy;
@@ -59,4 +60,11 @@ public class ComputerPlayer implements IPlayer {
         }
         return new StrategyResult(new AnalysisResult<>(0), Collections.emptyList(), 0); // TODO (re)consider this
     }
+
+    public SearchStatistics getSearchStatistics() {
+        if (strategy instanceof ObservableStrategy) {
+            return ((ObservableStrategy) strategy).getSearchStatistics();
+        }
+        return null;
+    }
 }
@@ -13,9 +13,13 @@ import bge.strategy.IStrategy;
 import bge.strategy.RandomMoveStrategy;
 import bge.strategy.ts.ITreeSearcher;
 import bge.strategy.ts.TreeSearchStrategy;
+import bge.strategy.ts.forkjoin.ForkJoinPoolTreeSearcher;
 import bge.strategy.ts.forkjoin.ForkJoinTreeSearcher;
 import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory;
 import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.LazySmpTreeSearcher;
+import bge.strategy.ts.forkjoin.RootSplittingTreeSearcher;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
 import bge.strategy.ts.montecarlo.MonteCarloTreeSearcher;
 import bge.strategy.ts.montecarlo.RandomMonteCarloChildren;
 import bge.strategy.ts.montecarlo.WeightedMonteCarloChildren;
@@ -31,40 +35,102 @@ public class PlayerInfo {
     //     - PE: { PE1, ... }
     //     - threads: [1 ... ]
     //     - msPerMove [50 ...]
+    //     - clock s: [0 ...]
+    //     - increment ms: [0 ...]
+    //     - ponder: { Off, On }
+    //     - scheduler: { Workers, Work Stealing, Root Splitting }
     //   * FJS: AlphaBeta
     //     ...
+    //     - hashMb [0 ...]
+    //     - splitting: { All Branches, Young Brothers Wait }
+    //     - lines: [0 ...]
     //   * FJS: AlphaBetaQ
     //     ...
+    //     - hashMb [0 ...]
+    //     - splitting: { All Branches, Young Brothers Wait }
     // * Strategy: MonteCarlo
     //   * MCS: Not Weighted
     //     - PE: { PE1, ... }
     //     - simulations: [1 ... ]
     //     - msPerMove [50 ...]
+    //     - clock s: [0 ...]
+    //     - increment ms: [0 ...]
+    //     - threads: [1 ... ]
+    //     - parallelism: { Tree, Root }
+    //     - nodesK: [0 ...]
     //   * MCS: Weighted
     //     ...
+    // * Strategy: Lazy SMP
+    //   * FJS: AlphaBeta
+    //     - PE: { PE1, ... }
+    //     - threads: [1 ... ]
+    //     - msPerMove [50 ...]
+    //     - clock s: [0 ...]
+    //     - increment ms: [0 ...]
+    //     - hashMb [1 ...]
+    //   * FJS: AlphaBetaQ
+    //     ...
     public static final String KEY_ISTRATEGY = "KeyIStrategy";
     // Single-Core Minmax
     public static final String TS_RANDOM = "Random";
     public static final String TS_FORK_JOIN = "Fork Join";
     public static final String TS_MONTE_CARLO = "Monte Carlo";
-    public static final String[] ALL_TREE_SEARCHERS = { TS_RANDOM, TS_FORK_JOIN, TS_MONTE_CARLO };
+    public static final String TS_LAZY_SMP = "Lazy SMP";
+    public static final String[] ALL_TREE_SEARCHERS = { TS_RANDOM, TS_FORK_JOIN, TS_MONTE_CARLO, TS_LAZY_SMP };
 
     public static final String KEY_FJ_STRATEGY = "KeyFJStrategy";
     public static final String FJ_MINMAX = "MinMax";
     public static final String FJ_ALPHA_BETA = "AlphaBeta";
     public static final String FJ_ALPHA_BETA_Q = "AlphaBetaQ";
     public static final String[] ALL_FJ_STRATEGIES = { FJ_MINMAX, FJ_ALPHA_BETA, FJ_ALPHA_BETA_Q };
+    public static final String[] ALL_LAZY_SMP_STRATEGIES = { FJ_ALPHA_BETA, FJ_ALPHA_BETA_Q };
+
+    public static final String KEY_FJ_SCHEDULER = "KeyFJScheduler";
+    public static final String FJ_SCHEDULER_WORKERS = "Workers";
+    public static final String FJ_SCHEDULER_WORK_STEALING = "Work Stealing";
+    public static final String FJ_SCHEDULER_ROOT_SPLITTING = "Root Splitting";
+    public static final String[] ALL_FJ_SCHEDULERS = { FJ_SCHEDULER_WORKERS, FJ_SCHEDULER_WORK_STEALING, FJ_SCHEDULER_ROOT_SPLITTING };
+
+    public static final String KEY_FJ_SPLITTING = "KeyFJSplitting";
+    public static final String FJ_SPLIT_ALL_BRANCHES = "All Branches";
+    public static final String FJ_SPLIT_YOUNG_BROTHERS_WAIT = "Young Brothers Wait";
+    public static final String[] ALL_FJ_SPLITTINGS = { FJ_SPLIT_ALL_BRANCHES, FJ_SPLIT_YOUNG_BROTHERS_WAIT };
+
+    public static final String KEY_FJ_PRUNING = "KeyFJPruning";
+    public static final String FJ_PRUNING_NONE = "None";
+    public static final String FJ_PRUNING_NULL_MOVE = "Null Move";
+    public static final String FJ_PRUNING_LATE_MOVE_REDUCTIONS = "Late Move Reductions";
+    public static final String FJ_PRUNING_ALL = "Null Move and LMR";
+    public static final String[] ALL_FJ_PRUNINGS = { FJ_PRUNING_NONE, FJ_PRUNING_NULL_MOVE, FJ_PRUNING_LATE_MOVE_REDUCTIONS, FJ_PRUNING_ALL };
+
+    public static final String KEY_MULTI_PV = "KeyMultiPv";
 
     public static final String KEY_MC_STRATEGY = "KeyMCStrategy";
     public static final String MC_RANDOM = "Random";
     public static final String MC_WEIGHTED = "Weighted";
     public static final String[] ALL_MC_STRATEGIES = { MC_RANDOM, MC_WEIGHTED };
 
+    public static final String KEY_MC_PARALLELISM = "KeyMCParallelism";
+    public static final String MC_PARALLEL_TREE = "Tree";
+    public static final String MC_PARALLEL_ROOT = "Root";
+    public static final String[] ALL_MC_PARALLELISMS = { MC_PARALLEL_TREE, MC_PARALLEL_ROOT };
+
+    public static final String KEY_MC_NODE_BUDGET_K = "KeyMCNodeBudgetK"; // thousands of nodes, 0 for no budget
+    public static final int DEFAULT_ANALYSIS_NODE_BUDGET_K = 250; // for a search without a time limit, when no budget is given
+
+    public static final String KEY_PONDER = "KeyPonder";
+    public static final String PONDER_OFF = "Off";
+    public static final String PONDER_ON = "On";
+    public static final String[] ALL_PONDERS = { PONDER_OFF, PONDER_ON };
+
     public static final String KEY_ESCAPE_EARLY = "KeyEscapeEarly";
     public static final String KEY_EVALUATOR = "KeyEvaluator";
     public static final String KEY_NUM_THREADS = "KeyNumThreads";
     public static final String KEY_NUM_SIMULATIONS = "KeyNumSimulations";
     public static final String KEY_MS_PER_MOVE = "KeyMsPerMove";
+    public static final String KEY_CLOCK_S = "KeyClockS"; // the time on the clock at the start of the game, or 0 to use msPerMove
+    public static final String KEY_INCREMENT_MS = "KeyIncrementMs"; // added to the clock after each move
+    public static final String KEY_TT_SIZE_MB = "KeyTTSizeMb";
 
     public static final String VALUE_DO_NOT_ESCAPE_EARLY = "false";
 
@@ -98,38 +164,93 @@ public class PlayerInfo {
 
         ITreeSearcher<M, IPosition<M>> treeSearcher;
         if (TS_FORK_JOIN.equals(iStrategy)) {
-            String fjStrategy = optionsMap.get(KEY_FJ_STRATEGY);
             int numThreads = getOptionInt(KEY_NUM_THREADS).intValue();
-            ForkableType forkableType;
-            if (FJ_MINMAX.equals(fjStrategy)) {
-                forkableType = ForkableType.MINIMAX;
-            } else if (FJ_ALPHA_BETA.equals(fjStrategy)) {
-                forkableType = ForkableType.ALPHA_BETA;
-            } else if (FJ_ALPHA_BETA_Q.equals(fjStrategy)) {
-                forkableType = ForkableType.ALPHA_BETA_Q;
+            ForkableTreeSearchFactory<M, IPosition<M>> forkableFactory = newForkableFactory(gameName, positionEvaluator, moveListFactory);
+            if (FJ_SCHEDULER_WORK_STEALING.equals(optionsMap.get(KEY_FJ_SCHEDULER))) {
+                treeSearcher = new ForkJoinPoolTreeSearcher<>(forkableFactory, moveListFactory, numThreads);
+            } else if (FJ_SCHEDULER_ROOT_SPLITTING.equals(optionsMap.get(KEY_FJ_SCHEDULER))) {
+                treeSearcher = new RootSplittingTreeSearcher<>(forkableFactory, moveListFactory, numThreads);
             } else {
-                throw new IllegalStateException("Unknown fork join strategy: " + iStrategy);
+                treeSearcher = new ForkJoinTreeSearcher<>(forkableFactory, moveListFactory, numThreads);
             }
-            treeSearcher = new ForkJoinTreeSearcher<>(new ForkableTreeSearchFactory<>(forkableType, positionEvaluator, moveListFactory),
-                    moveListFactory, numThreads);
+        } else if (TS_LAZY_SMP.equals(iStrategy)) {
+            int numThreads = getOptionInt(KEY_NUM_THREADS).intValue();
+            treeSearcher = new LazySmpTreeSearcher<>(newForkableFactory(gameName, positionEvaluator, moveListFactory), moveListFactory, numThreads);
         } else if (TS_MONTE_CARLO.equals(iStrategy)) {
             int numSimulations = getOptionInt(KEY_NUM_SIMULATIONS).intValue();
             String mcStrategy = optionsMap.get(KEY_MC_STRATEGY);
             int maxDepth = 500; // TODO this is defined for each game
+            MonteCarloTreeSearcher<M, IPosition<M>> monteCarloSearcher;
             if (MC_RANDOM.equals(mcStrategy)) {
-                treeSearcher = new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0), positionEvaluator, moveListFactory, numSimulations, maxDepth);
+                monteCarloSearcher = new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0), positionEvaluator, moveListFactory, numSimulations,
+                        maxDepth);
             } else if (MC_WEIGHTED.equals(mcStrategy)) {
-                treeSearcher = new MonteCarloTreeSearcher<>(new WeightedMonteCarloChildren<>(0), positionEvaluator, moveListFactory, numSimulations, maxDepth);
+                monteCarloSearcher = new MonteCarloTreeSearcher<>(new WeightedMonteCarloChildren<>(0), positionEvaluator, moveListFactory, numSimulations,
+                        maxDepth);
             } else {
                 throw new IllegalStateException("Unknown monte carlo strategy " + mcStrategy);
             }
+            Integer numThreads = getOptionInt(KEY_NUM_THREADS);
+            if (numThreads != null && MC_PARALLEL_ROOT.equals(optionsMap.get(KEY_MC_PARALLELISM))) {
+                monteCarloSearcher.setNumTrees(numThreads.intValue());
+            } else if (numThreads != null) {
+                monteCarloSearcher.setNumThreads(numThreads.intValue());
+            }
+            Integer nodeBudgetK = getOptionInt(KEY_MC_NODE_BUDGET_K);
+            if (nodeBudgetK == null && Long.parseLong(optionsMap.get(KEY_MS_PER_MOVE)) == Integer.MAX_VALUE) {
+                nodeBudgetK = Integer.valueOf(DEFAULT_ANALYSIS_NODE_BUDGET_K);
+            }
+            if (nodeBudgetK != null && nodeBudgetK.intValue() > 0) {
+                monteCarloSearcher.setNodeBudget(nodeBudgetK.intValue() * 1000);
+            }
+            treeSearcher = monteCarloSearcher;
         } else {
             throw new IllegalStateException("Unknown tree searcher: " + iStrategy);
         }
         long msPerMove = Long.parseLong(optionsMap.get(KEY_MS_PER_MOVE));
         String escapeEarlyStr = optionsMap.get(KEY_ESCAPE_EARLY);
         boolean escapeEarly = escapeEarlyStr == null ? true : Boolean.parseBoolean(escapeEarlyStr);
-        return new TreeSearchStrategy<>(treeSearcher, msPerMove, escapeEarly);
+        TreeSearchStrategy<M> strategy = new TreeSearchStrategy<M>(treeSearcher, msPerMove, escapeEarly)
+                .setPonder(PONDER_ON.equals(optionsMap.get(KEY_PONDER)));
+        Integer clockS = getOptionInt(KEY_CLOCK_S);
+        if (clockS != null && clockS.intValue() > 0) {
+            Integer incrementMs = getOptionInt(KEY_INCREMENT_MS);
+            strategy.setClock(clockS.intValue() * 1000L, incrementMs == null ? 0 : incrementMs.intValue());
+        }
+        return strategy;
+    }
+
+    private <M> ForkableTreeSearchFactory<M, IPosition<M>> newForkableFactory(String gameName, IPositionEvaluator<M, IPosition<M>> positionEvaluator,
+            MoveListFactory<M> moveListFactory) {
+        String fjStrategy = optionsMap.get(KEY_FJ_STRATEGY);
+        ForkableType forkableType;
+        if (FJ_MINMAX.equals(fjStrategy)) {
+            forkableType = ForkableType.MINIMAX;
+        } else if (FJ_ALPHA_BETA.equals(fjStrategy)) {
+            forkableType = ForkableType.ALPHA_BETA;
+        } else if (FJ_ALPHA_BETA_Q.equals(fjStrategy)) {
+            forkableType = ForkableType.ALPHA_BETA_Q;
+        } else {
+            throw new IllegalStateException("Unknown fork join strategy: " + fjStrategy);
+        }
+        ForkableTreeSearchFactory<M, IPosition<M>> forkableFactory = new ForkableTreeSearchFactory<>(forkableType, positionEvaluator, moveListFactory);
+        Integer ttSizeMb = getOptionInt(KEY_TT_SIZE_MB);
+        if (forkableType != ForkableType.MINIMAX && ttSizeMb != null && ttSizeMb.intValue() > 0 && GameRegistry.isHashable(gameName)) {
+            forkableFactory.setTranspositionTable(new TranspositionTable(ttSizeMb.intValue()));
+        }
+        if (forkableType != ForkableType.MINIMAX && FJ_SPLIT_YOUNG_BROTHERS_WAIT.equals(optionsMap.get(KEY_FJ_SPLITTING))) {
+            forkableFactory.setYoungBrothersWait(true);
+        }
+        Integer multiPv = getOptionInt(KEY_MULTI_PV);
+        if (forkableType != ForkableType.MINIMAX && multiPv != null) {
+            forkableFactory.setMultiPv(multiPv.intValue());
+        }
+        if (forkableType == ForkableType.ALPHA_BETA_Q) {
+            String pruning = optionsMap.get(KEY_FJ_PRUNING);
+            forkableFactory.setNullMovePruning(FJ_PRUNING_NULL_MOVE.equals(pruning) || FJ_PRUNING_ALL.equals(pruning));
+            forkableFactory.setLateMoveReductions(FJ_PRUNING_LATE_MOVE_REDUCTIONS.equals(pruning) || FJ_PRUNING_ALL.equals(pruning));
+        }
+        return forkableFactory;
     }
 
     public PlayerInfo createUniqueCopy() {
@@ -144,8 +265,16 @@ public class PlayerInfo {
         }
         if (TS_FORK_JOIN.equals(iStrategy)) {
             playerInfo.optionsMap.remove(KEY_NUM_SIMULATIONS);
+        } else if (TS_LAZY_SMP.equals(iStrategy)) {
+            playerInfo.optionsMap.remove(KEY_NUM_SIMULATIONS);
+            playerInfo.optionsMap.remove(KEY_FJ_SCHEDULER);
+            playerInfo.optionsMap.remove(KEY_FJ_SPLITTING);
         } else if (TS_MONTE_CARLO.equals(iStrategy)) {
-            playerInfo.optionsMap.remove(KEY_NUM_THREADS);
+            playerInfo.optionsMap.remove(KEY_TT_SIZE_MB);
+            playerInfo.optionsMap.remove(KEY_FJ_SCHEDULER);
+            playerInfo.optionsMap.remove(KEY_FJ_SPLITTING);
+            playerInfo.optionsMap.remove(KEY_FJ_PRUNING);
+            playerInfo.optionsMap.remove(KEY_MULTI_PV);
         }
         return playerInfo;
     }
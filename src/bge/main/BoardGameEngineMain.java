@@ -43,7 +43,19 @@ public class BoardGameEngineMain {
 
     public static PlayerOptions createComputerPlayerOptions(IGame<?, ?> game, int minMs, int maxMs, int maxThreads, int maxSimulations) {
         PlayerOptions msPerMoveOption = new PlayerOptions("time", new CPOptionIntRange(PlayerInfo.KEY_MS_PER_MOVE, minMs, maxMs));
+        PlayerOptions clockOption = new PlayerOptions("clock s", new CPOptionIntRange(PlayerInfo.KEY_CLOCK_S, 0, 3600));
+        PlayerOptions incrementOption = new PlayerOptions("increment ms", new CPOptionIntRange(PlayerInfo.KEY_INCREMENT_MS, 0, 60000));
+        PlayerOptions ponderOption = new PlayerOptions("Ponder", new CPOptionStringArray(PlayerInfo.KEY_PONDER, PlayerInfo.ALL_PONDERS));
         PlayerOptions threadOption = new PlayerOptions("threads", new CPOptionIntRange(PlayerInfo.KEY_NUM_THREADS, 1, maxThreads));
+        PlayerOptions hashOption = new PlayerOptions("hash MB", new CPOptionIntRange(PlayerInfo.KEY_TT_SIZE_MB, 0, 1024));
+        PlayerOptions schedulerOption = new PlayerOptions("Scheduler", new CPOptionStringArray(PlayerInfo.KEY_FJ_SCHEDULER, PlayerInfo.ALL_FJ_SCHEDULERS));
+        PlayerOptions splittingOption = new PlayerOptions("Splitting", new CPOptionStringArray(PlayerInfo.KEY_FJ_SPLITTING, PlayerInfo.ALL_FJ_SPLITTINGS));
+        PlayerOptions pruningOption = new PlayerOptions("Pruning", new CPOptionStringArray(PlayerInfo.KEY_FJ_PRUNING, PlayerInfo.ALL_FJ_PRUNINGS));
+        PlayerOptions multiPvOption = new PlayerOptions("lines", new CPOptionIntRange(PlayerInfo.KEY_MULTI_PV, 0, 10));
+        PlayerOptions lazySmpHashOption = new PlayerOptions("hash MB", new CPOptionIntRange(PlayerInfo.KEY_TT_SIZE_MB, 1, 1024));
+        PlayerOptions parallelismOption = new PlayerOptions("Parallelism",
+                new CPOptionStringArray(PlayerInfo.KEY_MC_PARALLELISM, PlayerInfo.ALL_MC_PARALLELISMS));
+        PlayerOptions nodeBudgetOption = new PlayerOptions("nodes K", new CPOptionIntRange(PlayerInfo.KEY_MC_NODE_BUDGET_K, 0, 10000));
         PlayerOptions simulationsOption = new PlayerOptions("sims", new CPOptionIntRange(PlayerInfo.KEY_NUM_SIMULATIONS, 1, maxSimulations));
         PlayerOptions evaluatorOption = new PlayerOptions("Evaluator", new CPOptionStringArray(PlayerInfo.KEY_EVALUATOR,
                 GameRegistry.getPositionEvaluatorNames(game.getName())));
@@ -53,7 +65,19 @@ public class BoardGameEngineMain {
         for (String fjStrategy : PlayerInfo.ALL_FJ_STRATEGIES) {
             fjStrategyOptions.addSubOption(fjStrategy, evaluatorOption);
             fjStrategyOptions.addSubOption(fjStrategy, msPerMoveOption);
+            fjStrategyOptions.addSubOption(fjStrategy, clockOption);
+            fjStrategyOptions.addSubOption(fjStrategy, incrementOption);
+            fjStrategyOptions.addSubOption(fjStrategy, ponderOption);
             fjStrategyOptions.addSubOption(fjStrategy, threadOption);
+            fjStrategyOptions.addSubOption(fjStrategy, schedulerOption);
+            if (!PlayerInfo.FJ_MINMAX.equals(fjStrategy)) {
+                fjStrategyOptions.addSubOption(fjStrategy, hashOption);
+                fjStrategyOptions.addSubOption(fjStrategy, splittingOption);
+                fjStrategyOptions.addSubOption(fjStrategy, multiPvOption);
+            }
+            if (PlayerInfo.FJ_ALPHA_BETA_Q.equals(fjStrategy)) {
+                fjStrategyOptions.addSubOption(fjStrategy, pruningOption);
+            }
         }
 
         PlayerOptions mcStrategyOptions = new PlayerOptions("Strategy",
@@ -61,13 +85,36 @@ public class BoardGameEngineMain {
         for (String mcStrategy : PlayerInfo.ALL_MC_STRATEGIES) {
             mcStrategyOptions.addSubOption(mcStrategy, evaluatorOption);
             mcStrategyOptions.addSubOption(mcStrategy, msPerMoveOption);
+            mcStrategyOptions.addSubOption(mcStrategy, clockOption);
+            mcStrategyOptions.addSubOption(mcStrategy, incrementOption);
+            mcStrategyOptions.addSubOption(mcStrategy, ponderOption);
+            mcStrategyOptions.addSubOption(mcStrategy, threadOption);
+            mcStrategyOptions.addSubOption(mcStrategy, parallelismOption);
+            mcStrategyOptions.addSubOption(mcStrategy, nodeBudgetOption);
             mcStrategyOptions.addSubOption(mcStrategy, simulationsOption);
         }
 
+        PlayerOptions lazySmpStrategyOptions = new PlayerOptions("Strategy",
+                new CPOptionStringArray(PlayerInfo.KEY_FJ_STRATEGY, PlayerInfo.ALL_LAZY_SMP_STRATEGIES));
+        for (String lazySmpStrategy : PlayerInfo.ALL_LAZY_SMP_STRATEGIES) {
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, evaluatorOption);
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, msPerMoveOption);
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, clockOption);
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, incrementOption);
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, ponderOption);
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, threadOption);
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, lazySmpHashOption);
+            lazySmpStrategyOptions.addSubOption(lazySmpStrategy, multiPvOption);
+            if (PlayerInfo.FJ_ALPHA_BETA_Q.equals(lazySmpStrategy)) {
+                lazySmpStrategyOptions.addSubOption(lazySmpStrategy, pruningOption);
+            }
+        }
+
         return new PlayerOptions("Search Type",
                 new CPOptionStringArray(PlayerInfo.KEY_ISTRATEGY, PlayerInfo.ALL_TREE_SEARCHERS))
                         .addSubOption(PlayerInfo.TS_FORK_JOIN, fjStrategyOptions)
-                        .addSubOption(PlayerInfo.TS_MONTE_CARLO, mcStrategyOptions);
+                        .addSubOption(PlayerInfo.TS_MONTE_CARLO, mcStrategyOptions)
+                        .addSubOption(PlayerInfo.TS_LAZY_SMP, lazySmpStrategyOptions);
     }
 
     private static <M, P extends IPosition<M>> void registerGame(IGame<M, P> game,
@@ -11,6 +11,7 @@ import bge.analysis.IPositionEvaluator;
 import bge.gui.gamestate.IGameRenderer;
 import bge.igame.ArrayMoveList;
 import bge.igame.IGame;
+import bge.igame.IHashablePosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
@@ -53,6 +54,10 @@ public class GameRegistry {
         return (MoveListFactory<M>) gameMap.get(gameName).moveListFactory;
     }
 
+    public static boolean isHashable(String gameName) {
+        return gameMap.get(gameName).hashable;
+    }
+
     public static String[] getPlayerNames(String gameName) {
         return gameMap.get(gameName).playerNames.toArray(new String[0]);
     }
@@ -73,6 +78,7 @@ public class GameRegistry {
     public static class GameRegistryItem<M, P extends IPosition<M>> {
         final IGame<M, P> game;
         final MoveListFactory<M> moveListFactory;
+        final boolean hashable;
         final List<String> playerNames = new ArrayList<>();
         final Map<String, PlayerOptions> playerOptions = new HashMap<>();
         final Map<String, IPositionEvaluator<M, P>> positionEvaluators = new LinkedHashMap<>();
@@ -81,6 +87,7 @@ public class GameRegistry {
         public GameRegistryItem(IGame<M, P> game, Class<? extends MoveList> analysisMoveListClass) {
             this.game = game;
             moveListFactory = new MoveListFactory<>(game.getMaxMoves(), analysisMoveListClass);
+            hashable = game.newInitialPosition() instanceof IHashablePosition;
             playerNames.add(GuiPlayer.NAME);
         }
 
@@ -1,7 +1,11 @@
 package bge.strategy;
 
+import bge.analysis.SearchStatistics;
 import bge.analysis.StrategyResult;
 
 public interface ObservableStrategy {
     StrategyResult getCurrentResult();
+
+    /** The counters of the current or last search, or null if the strategy does not keep them */
+    SearchStatistics getSearchStatistics();
 }
@@ -0,0 +1,34 @@
+package bge.strategy.ts;
+
+/**
+ * A flag shared by the parts of a search that stop together. A child token is also canceled when any of its ancestors is, so a search is stopped by a
+ * single write to its root token however many evaluators and forks it has.
+ */
+public class CancellationToken {
+    /** The number of nodes a search may visit between checks of its token */
+    public static final int POLL_INTERVAL = 64;
+
+    private final CancellationToken parent;
+    private volatile boolean canceled = false;
+
+    public CancellationToken() {
+        this(null);
+    }
+
+    private CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /** A token that may be canceled on its own, and that is canceled with this one */
+    public CancellationToken newChild() {
+        return new CancellationToken(this);
+    }
+
+    public void cancel() {
+        canceled = true;
+    }
+
+    public boolean isCanceled() {
+        return canceled || parent != null && parent.isCanceled();
+    }
+}
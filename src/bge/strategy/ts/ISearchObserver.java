@@ -0,0 +1,14 @@
+package bge.strategy.ts;
+
+import bge.analysis.AnalysisResult;
+
+public interface ISearchObserver<M> {
+    /** Called by iterative deepening searchers each time a ply has been searched to completion */
+    void plyCompleted(AnalysisResult<M> result, int plies);
+
+    /** Called at regular intervals by searchers that do not search ply by ply */
+    void searchProgressed(AnalysisResult<M> result);
+
+    /** Called when a search ends, whether or not it was stopped */
+    void searchCompleted();
+}
@@ -1,6 +1,7 @@
 package bge.strategy.ts;
 
 import bge.analysis.AnalysisResult;
+import bge.analysis.SearchStatistics;
 import bge.igame.IPosition;
 
 public interface ITreeSearcher<M, P extends IPosition<M>> {
@@ -11,4 +12,15 @@ public interface ITreeSearcher<M, P extends IPosition<M>> {
     void stopSearch(boolean gameOver);
 
     AnalysisResult<M> getResult();
+
+    /** The counters of the current or last search */
+    SearchStatistics getSearchStatistics();
+
+    void setSearchObserver(ISearchObserver<M> searchObserver);
+
+    /** Called with every move made in the game, so that a searcher may keep what it knows about the resulting position */
+    void moveMade(M move);
+
+    /** The reply expected after the given move from the position last searched, or null if there is none */
+    M getPredictedReply(M move);
 }
@@ -0,0 +1,148 @@
+package bge.strategy.ts;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+
+/** Decides when the search for a move should stop, from the progress of the search and the time per move or left on the clock */
+public class TimeManager<M> implements ISearchObserver<M> {
+    private static final int MOVES_TO_GO = 30; // the number of moves the remaining time on the clock is divided between
+    private static final double HARD_LIMIT_FACTOR = 4; // an unstable search may run on to this multiple of its soft limit
+    private static final long CLOCK_RESERVE_MS = 50; // never plan to use the last of the clock
+    private static final double INSTABILITY_PER_CHANGE = 0.5; // the soft limit grows by half each time the best move changes or the score drops
+    private static final double MAX_INSTABILITY = 2;
+    private static final double INSTABILITY_DECAY = 0.75;
+    private static final double MAX_BRANCHING_FACTOR = 16;
+    private static final double FIXED_SOFT_LIMIT_FRACTION = 0.75; // a stable search stops at this fraction of a fixed time per move
+
+    private final long msPerMove;
+    private long remainingMs = -1; // the time left on the clock, or negative to use msPerMove
+    private long incrementMs = 0;
+
+    private boolean moveInProgress = false;
+    private boolean stopped = false;
+    private long startTime;
+    private long softLimit;
+    private long hardLimit;
+
+    private long lastPlyTime;
+    private long lastPlyDuration;
+    private M bestMove;
+    private double bestScore;
+    private double instability;
+
+    public TimeManager(long msPerMove) {
+        this.msPerMove = msPerMove;
+    }
+
+    /** Plays on a clock with the given time remaining, to which the increment is added after each move */
+    public synchronized TimeManager<M> setClock(long remainingMs, long incrementMs) {
+        this.remainingMs = remainingMs;
+        this.incrementMs = incrementMs;
+        return this;
+    }
+
+    public synchronized long getRemainingMs() {
+        return remainingMs;
+    }
+
+    public synchronized void startMove() {
+        startTime = System.currentTimeMillis();
+        if (remainingMs < 0) {
+            softLimit = (long) (msPerMove * FIXED_SOFT_LIMIT_FRACTION); // an unstable search may use all of it
+            hardLimit = msPerMove;
+        } else {
+            hardLimit = Math.max(1, remainingMs - CLOCK_RESERVE_MS);
+            softLimit = Math.min(remainingMs / MOVES_TO_GO + incrementMs * 3 / 4, hardLimit);
+            hardLimit = Math.min((long) (softLimit * HARD_LIMIT_FACTOR), hardLimit);
+        }
+        lastPlyTime = startTime;
+        lastPlyDuration = 0;
+        bestMove = null;
+        instability = 0;
+        stopped = false;
+        moveInProgress = true;
+    }
+
+    /** Waits until the search is complete, stopped, or should be stopped */
+    public synchronized void awaitStop(ITreeSearcher<?, ?> treeSearcher) {
+        long remaining;
+        while (!stopped && treeSearcher.isSearching() && (remaining = startTime + hardLimit - System.currentTimeMillis()) > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public synchronized void endMove() {
+        if (moveInProgress && remainingMs >= 0) {
+            remainingMs = Math.max(0, remainingMs - (System.currentTimeMillis() - startTime)) + incrementMs;
+        }
+        moveInProgress = false;
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        notify();
+    }
+
+    @Override
+    public synchronized void plyCompleted(AnalysisResult<M> result, int plies) {
+        if (!moveInProgress) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long plyDuration = Math.max(1, now - lastPlyTime);
+        double branchingFactor = lastPlyDuration == 0 ? MAX_BRANCHING_FACTOR : Math.min(MAX_BRANCHING_FACTOR, Math.max(1, (double) plyDuration / lastPlyDuration));
+        lastPlyTime = now;
+        lastPlyDuration = plyDuration;
+        updateInstability(result);
+        long elapsed = now - startTime;
+        if (elapsed >= getSoftLimit() || elapsed + plyDuration * branchingFactor > hardLimit) { // the next ply would not finish in time
+            stop();
+        }
+    }
+
+    @Override
+    public synchronized void searchProgressed(AnalysisResult<M> result) {
+        if (!moveInProgress) {
+            return;
+        }
+        updateInstability(result);
+        if (System.currentTimeMillis() - startTime >= getSoftLimit()) {
+            stop();
+        }
+    }
+
+    @Override
+    public synchronized void searchCompleted() {
+        notify();
+    }
+
+    private void updateInstability(AnalysisResult<M> result) {
+        MoveWithScore<M> best = result == null ? null : result.getBestMove(result.getPlayer());
+        if (best == null || best.move == null) {
+            return;
+        }
+        if (bestMove != null && (!bestMove.equals(best.move) || AnalysisResult.isGreater(bestScore, best.score))) {
+            instability = Math.min(MAX_INSTABILITY, instability + INSTABILITY_PER_CHANGE);
+        } else {
+            instability *= INSTABILITY_DECAY;
+        }
+        bestMove = best.move;
+        bestScore = best.score;
+    }
+
+    synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    synchronized long getSoftLimit() {
+        return Math.min(hardLimit, (long) (softLimit * (1 + instability)));
+    }
+
+    synchronized long getHardLimit() {
+        return hardLimit;
+    }
+}
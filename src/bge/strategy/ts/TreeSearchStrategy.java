@@ -6,64 +6,141 @@ import java.util.Random;
 
 import bge.analysis.AnalysisResult;
 import bge.analysis.PartialResultObservable;
+import bge.analysis.SearchStatistics;
 import bge.analysis.StrategyResult;
 import bge.igame.IPosition;
 import bge.strategy.IStrategy;
 import bge.strategy.InterruptableStrategy;
 import bge.strategy.ObservableStrategy;
+import bge.strategy.UpdatableStrategy;
+import bge.strategy.ts.jfr.SearchEvents;
 
-public class TreeSearchStrategy<M> implements IStrategy<M>, InterruptableStrategy, ObservableStrategy {
+public class TreeSearchStrategy<M> implements IStrategy<M>, InterruptableStrategy, ObservableStrategy, UpdatableStrategy<M> {
     private final ITreeSearcher<?, ?> treeSearcher;
-    private final long msPerMove;
+    private final TimeManager<M> timeManager;
     private final boolean escapeEarly;
 
     private volatile boolean stopRequested = false;
 
+    private boolean ponder = false;
+    private IPosition<M> lastPosition;
+    private M lastMove;
+    private M predictedReply;
+    private boolean pondering = false;
+    private boolean ponderHit = false;
+
+    @SuppressWarnings("unchecked")
     public TreeSearchStrategy(ITreeSearcher<?, ?> treeSearcher, long msPerMove, boolean escapeEarly) {
         this.treeSearcher = treeSearcher;
-        this.msPerMove = msPerMove;
         this.escapeEarly = escapeEarly;
+        timeManager = new TimeManager<>(msPerMove);
+        ((ITreeSearcher<M, IPosition<M>>) treeSearcher).setSearchObserver(timeManager);
+        SearchEvents.initialize(); // so that they are not set up in the time of the first move
+    }
+
+    /** Plays on a clock of the given base time and increment instead of a fixed time per move */
+    public TreeSearchStrategy<M> setClock(long baseMs, long incrementMs) {
+        timeManager.setClock(baseMs, incrementMs);
+        return this;
+    }
+
+    /** Keeps searching on the opponent's time, after the predicted reply if there is one */
+    public TreeSearchStrategy<M> setPonder(boolean ponder) {
+        this.ponder = ponder;
+        return this;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public M getMove(IPosition<M> position) {
         stopRequested = false;
-        long start = System.currentTimeMillis();
-        ((ITreeSearcher<M, IPosition<M>>) treeSearcher).searchForever(position, escapeEarly);
-        synchronized (this) {
-            while (treeSearcher.isSearching() && msPerMove > System.currentTimeMillis() - start) {
-                try {
-                    wait(50);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        timeManager.startMove();
+        if (ponderHit) { // the ponder search is already searching this position
+            ponderHit = false;
+        } else {
+            stopPondering();
+            ((ITreeSearcher<M, IPosition<M>>) treeSearcher).searchForever(position, escapeEarly);
         }
+        timeManager.awaitStop(treeSearcher);
 
         if (!stopRequested) {
             treeSearcher.stopSearch(false);
         }
+        timeManager.endMove();
 
         AnalysisResult<M> result = (AnalysisResult<M>) treeSearcher.getResult();
 
         List<M> bestMoves = result == null ? Collections.emptyList() : result.getBestMoves();
 
-        return bestMoves.size() > 0 ? bestMoves.get(new Random().nextInt(bestMoves.size())) : null;
+        M move = bestMoves.size() > 0 ? bestMoves.get(new Random().nextInt(bestMoves.size())) : null;
+        lastPosition = position;
+        lastMove = move;
+        return move;
     }
 
     @Override
     public synchronized void pauseSearch() {
         stopRequested = true;
         treeSearcher.stopSearch(false);
-        notify();
+        timeManager.stop();
     }
 
     @Override
     public synchronized void stopSearch() {
         stopRequested = true;
         treeSearcher.stopSearch(true);
-        notify();
+        resetPonder();
+        timeManager.stop();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void moveMade(M move) {
+        ITreeSearcher<M, IPosition<M>> searcher = (ITreeSearcher<M, IPosition<M>>) treeSearcher;
+        if (pondering) { // the opponent has replied
+            pondering = false;
+            if (move.equals(predictedReply)) {
+                ponderHit = true; // keep searching; the reply has already been made in the ponder position
+            } else {
+                searcher.stopSearch(false);
+                searcher.moveMade(move);
+            }
+            predictedReply = null;
+        } else if (ponder && lastMove != null && move.equals(lastMove)) { // our own move
+            predictedReply = searcher.getPredictedReply(move);
+            searcher.moveMade(move);
+            IPosition<M> ponderPosition = lastPosition.createCopy();
+            ponderPosition.makeMove(move);
+            if (predictedReply != null) {
+                ponderPosition.makeMove(predictedReply);
+            }
+            lastPosition = null;
+            lastMove = null;
+            pondering = true;
+            searcher.searchForever(ponderPosition, escapeEarly);
+        } else {
+            searcher.moveMade(move);
+        }
+    }
+
+    /** The reply the ponder search expects, or null if it is searching the whole position */
+    public M getPredictedReply() {
+        return predictedReply;
+    }
+
+    private void stopPondering() {
+        if (pondering) {
+            treeSearcher.stopSearch(false);
+        }
+        resetPonder();
+    }
+
+    private void resetPonder() {
+        lastPosition = null;
+        lastMove = null;
+        predictedReply = null;
+        pondering = false;
+        ponderHit = false;
     }
 
     @SuppressWarnings("unchecked")
@@ -75,4 +152,9 @@ public class TreeSearchStrategy<M> implements IStrategy<M>, InterruptableStrateg
             return new StrategyResult((AnalysisResult<Object>) treeSearcher.getResult(), Collections.emptyList(), 0);
         }
     }
+
+    @Override
+    public SearchStatistics getSearchStatistics() {
+        return treeSearcher.getSearchStatistics();
+    }
 }
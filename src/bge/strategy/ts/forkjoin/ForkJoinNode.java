@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import bge.analysis.AnalysisResult;
+import bge.strategy.ts.jfr.ForkEvent;
 import gt.util.Pair;
 
 public class ForkJoinNode<M> {
@@ -70,10 +71,17 @@ public class ForkJoinNode<M> {
             return Collections.emptyList();
         }
 
-        stopSearch();
+        ForkEvent forkEvent = new ForkEvent();
+        forkEvent.begin();
+        boolean started = searchStarted;
+        if (started) { // A forkable that has not started is not stopped, so it may still search before it forks
+            stopSearch();
+        }
 
-        if (searchStarted) {
-            synchronized (this) {
+        synchronized (this) { // search holds this lock until it has a result
+            if (searchStarted) {
+                started = true;
+                stopSearch();
                 while (result == null) {
                     try {
                         wait();
@@ -84,12 +92,22 @@ public class ForkJoinNode<M> {
             }
         }
 
+        List<ForkJoinNode<M>> forks;
         if (forkable.getRemainingBranches() == 0) {
             join(false, result);
-            return Collections.emptyList();
+            forks = Collections.emptyList();
+        } else {
+            forks = forkable.fork(join, move, result);
         }
 
-        return forkable.fork(join, move, result);
+        forkEvent.end();
+        if (forkEvent.shouldCommit()) {
+            forkEvent.plies = forkable.getPlies();
+            forkEvent.branches = forks.size();
+            forkEvent.searchStarted = started;
+            forkEvent.commit();
+        }
+        return forks;
     }
 
     public void join(boolean searchCanceled, AnalysisResult<M> result) {
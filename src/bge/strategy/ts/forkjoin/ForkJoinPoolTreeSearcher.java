@@ -0,0 +1,97 @@
+package bge.strategy.ts.forkjoin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import bge.analysis.AnalysisResult;
+import bge.igame.IPosition;
+import bge.igame.MoveListFactory;
+
+public class ForkJoinPoolTreeSearcher<M, P extends IPosition<M>> extends IterativeDeepeningTreeSearcher<M, P> {
+    private static final int MAX_SURPLUS_TASKS = 3; // Fork only while idle workers could steal the work
+    private static final int MIN_FORK_PLIES = 3; // Shallower subtrees cost less to search than to fork
+
+    private final ForkJoinPool pool;
+
+    private final Set<ForkJoinNode<M>> treeSearchesInProgress = ConcurrentHashMap.newKeySet();
+
+    public ForkJoinPoolTreeSearcher(ForkableTreeSearchFactory<M, P> forkableFactory, MoveListFactory<M> moveListFactory, int numWorkers) {
+        super(forkableFactory, moveListFactory);
+        pool = new ForkJoinPool(numWorkers);
+    }
+
+    @Override
+    protected void joinWorkers() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected void stopWorkers() {
+        searchStopped = true;
+        for (ForkJoinNode<M> treeSearch : treeSearchesInProgress) {
+            treeSearch.stopSearch();
+        }
+    }
+
+    @Override
+    protected AnalysisResult<M> search(P position, int plies, double alpha, double beta) {
+        ResultTransfer<M> resultTransfer = new ResultTransfer<>();
+
+        List<ForkJoinNode<M>> branches = new ArrayList<>(newTreeSearchRoot(position, plies, alpha, beta, resultTransfer).getBranches());
+
+        if (searchStopped) {
+            return new AnalysisResult<>(position.getCurrentPlayer());
+        }
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(newTasks(branches))));
+
+        return resultTransfer.awaitResult();
+    }
+
+    private List<ForkJoinNodeTask> newTasks(List<ForkJoinNode<M>> treeSearches) {
+        List<ForkJoinNodeTask> tasks = new ArrayList<>(treeSearches.size());
+        for (ForkJoinNode<M> treeSearch : treeSearches) {
+            tasks.add(new ForkJoinNodeTask(treeSearch));
+        }
+        return tasks;
+    }
+
+    private class ForkJoinNodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ForkJoinNode<M> treeSearch;
+
+        public ForkJoinNodeTask(ForkJoinNode<M> treeSearch) {
+            this.treeSearch = treeSearch;
+        }
+
+        @Override
+        protected void compute() {
+            boolean fork = !searchStopped && treeSearch.getPlies() >= MIN_FORK_PLIES && treeSearch.isForkable()
+                    && getSurplusQueuedTaskCount() < MAX_SURPLUS_TASKS;
+            treeSearchesInProgress.add(treeSearch); // a fork may search its eldest branch first
+            if (searchStopped) { // stopWorkers may have missed this search
+                treeSearch.stopSearch();
+            }
+            if (fork) {
+                List<ForkJoinNode<M>> forks = treeSearch.fork();
+                treeSearchesInProgress.remove(treeSearch);
+                invokeAll(newTasks(forks));
+            } else {
+                treeSearch.search();
+                treeSearchesInProgress.remove(treeSearch);
+            }
+        }
+    }
+}
@@ -6,12 +6,12 @@ import java.util.Iterator;
 import java.util.List;
 
 import bge.analysis.AnalysisResult;
-import bge.analysis.MoveWithScore;
 
 public class ForkJoinRoot<M> {
     private final List<ForkJoinNode<M>> branches;
 
     private final AnalysisResult<M> partialResult;
+    private int numCompletedMovesTaken = 0;
 
     public ForkJoinRoot() {
         branches = Collections.emptyList();
@@ -33,26 +33,38 @@ public class ForkJoinRoot<M> {
         return branches;
     }
 
-    public AnalysisResult<M> getPartialResult() {
+    public synchronized AnalysisResult<M> getPartialResult() {
         updatePartialResult();
-        AnalysisResult<M> partialResultCopy = new AnalysisResult<>(partialResult.getPlayer());
-        for (MoveWithScore<M> moveWithScore : partialResult.getMovesWithScore()) {
-            partialResultCopy.addMoveWithScore(moveWithScore);
+        AnalysisResult<M> partialResultCopy = new AnalysisResult<>(partialResult.getPlayer(), partialResult.getNumMoves());
+        for (int i = 0; i < partialResult.getNumMoves(); ++i) {
+            partialResultCopy.addMoveWithScore(partialResult.getMove(i), partialResult.getScore(i));
         }
         return partialResultCopy;
     }
 
+    /** The next root move whose branch has completed with an undecided score, in the order they completed, or null if there is none */
+    public synchronized M takeCompletedMove() {
+        updatePartialResult();
+        while (numCompletedMovesTaken < partialResult.getNumMoves()) {
+            int i = numCompletedMovesTaken++;
+            M move = partialResult.getMove(i);
+            if (move != null && !AnalysisResult.isGameOver(partialResult.getScore(i))) {
+                return move;
+            }
+        }
+        return null;
+    }
+
     private synchronized void updatePartialResult() {
         Iterator<ForkJoinNode<M>> branchIterator = branches.iterator();
         while (branchIterator.hasNext()) {
             ForkJoinNode<M> branch = branchIterator.next();
             AnalysisResult<M> branchResult = branch.getResult();
             if (branchResult != null && branchResult.isSearchComplete()) {
-                MoveWithScore<M> bestMove = branchResult.getBestMove(partialResult.getPlayer());
-                if (bestMove == null) {
+                if (branchResult.getNumMoves() == 0) {
                     continue;
                 }
-                partialResult.addMoveWithScore(new MoveWithScore<>(branch.getParentMove(), bestMove.score));
+                partialResult.addMoveWithScore(branch.getParentMove(), AnalysisResult.fromChild(branchResult.getBestScore(partialResult.getPlayer())));
                 branchIterator.remove();
             }
         }
@@ -1,240 +1,295 @@
 package bge.strategy.ts.forkjoin;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import bge.analysis.AnalysisResult;
-import bge.analysis.MoveWithScore;
-import bge.analysis.PartialResultObservable;
-import bge.analysis.StrategyResult;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
-import bge.strategy.ts.ITreeSearcher;
-import gt.async.ThreadNumber;
+import bge.strategy.ts.jfr.WorkerIdleEvent;
 import gt.async.ThreadWorker;
 
-public class ForkJoinTreeSearcher<M, P extends IPosition<M>> implements ITreeSearcher<M, P>, PartialResultObservable {
-    private Thread treeSearchThread;
-
-    private final ForkableTreeSearchFactory<M, P> forkableFactory;
-    private final MoveListFactory<M> moveListFactory;
-
+public class ForkJoinTreeSearcher<M, P extends IPosition<M>> extends IterativeDeepeningTreeSearcher<M, P> {
     private final int numWorkers;
 
     private final List<ForkJoinNode<M>> nodesToAnalyze = new ArrayList<>();
 
     private final List<ThreadWorker> availableWorkers = new ArrayList<>();
     private final Map<ThreadWorker, ForkJoinNode<M>> treeSearchesInProgress = new HashMap<>();
+    private final Map<ThreadWorker, Long> idleSince = new HashMap<>(); // workers that ran out of work during the current search
+    private final Map<ThreadWorker, WorkerIdleEvent> idleEvents = new HashMap<>(); // only while recording
 
-    private final Object searchStartedLock = new Object();
-    private volatile boolean searchStopped = true;
-    private volatile boolean searchComplete = false;
-
-    private int plies = 0;
-    private volatile AnalysisResult<M> result;
-    private ForkJoinRoot<M> treeSearchRoot = new ForkJoinRoot<>();
+    // Pipelined deepening: workers that run out of work in one ply search the root moves it has completed one ply deeper
+    private boolean pipelinedDeepening = false;
+    private final Set<ForkJoinNode<M>> nodesAhead = new HashSet<>(); // searches of the next ply and their forks
+    private P pipelinePosition;
+    private PipelinedPly<M> currentPly; // root moves of the ply being searched that were searched during the previous ply
+    private PipelinedPly<M> nextPly;
+    private ForkJoinRoot<M> pipelineRoot;
 
     public ForkJoinTreeSearcher(ForkableTreeSearchFactory<M, P> forkableFactory, MoveListFactory<M> moveListFactory, int numWorkers) {
-        this.forkableFactory = forkableFactory;
-        this.moveListFactory = moveListFactory;
+        super(forkableFactory, moveListFactory);
         this.numWorkers = numWorkers;
         for (int i = 0; i < numWorkers; i++) {
             availableWorkers.add(new ThreadWorker(finishedWorker -> workerComplete(finishedWorker)));
         }
     }
 
+    /** Workers that run out of work near the end of a ply start the next ply on the root moves already searched, instead of waiting for the ply to end */
+    public ForkJoinTreeSearcher<M, P> setPipelinedDeepening(boolean pipelinedDeepening) {
+        this.pipelinedDeepening = pipelinedDeepening;
+        return this;
+    }
+
     @Override
-    public void searchForever(P position, boolean escapeEarly) {
-        searchForever(position, Integer.MAX_VALUE, escapeEarly);
+    protected void joinWorkers() {
+        for (ThreadWorker worker : availableWorkers) {
+            worker.joinThread();
+        }
     }
 
-    @SuppressWarnings("unchecked")
-    public void searchForever(P position, int maxPlies, boolean escapeEarly) {
+    @Override
+    protected synchronized void stopWorkers() { // Stopping a worker will eventually remove it from treeSearchesInProgress
         searchStopped = true;
-        searchComplete = false;
-        treeSearchThread = new Thread(() -> startSearch((P) position.createCopy(), maxPlies, escapeEarly),
-                "Tree_Search_Thread_" + ThreadNumber.getThreadNum(getClass()));
-        treeSearchThread.start();
-        synchronized (searchStartedLock) {
-            while (searchStopped && !searchComplete) {
-                try {
-                    searchStartedLock.wait();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        for (Entry<ThreadWorker, ForkJoinNode<M>> searchInProgress : treeSearchesInProgress.entrySet()) {
+            searchInProgress.getKey().waitForStart();
+            searchInProgress.getValue().stopSearch();
         }
     }
 
-    public AnalysisResult<M> startSearch(P position, int maxPlies, boolean escapeEarly) {
-        synchronized (searchStartedLock) {
-            searchStopped = false;
-            searchStartedLock.notify();
+    @Override
+    protected AnalysisResult<M> search(P position, int plies, double alpha, double beta) {
+        ResultTransfer<M> resultTransfer = new ResultTransfer<>();
+
+        PipelinedPly<M> searchedAhead = pipelinedDeepening ? startPipelinedPly(position, plies) : null;
+        MoveList<M> searchMoveList = buildMoveList(position);
+        if (searchedAhead != null && searchedAhead.moves.size() > 0) {
+            searchMoveList = removeMoves(position, searchMoveList, searchedAhead.moves);
         }
 
-        result = null;
-        plies = 0;
-        do {
-            ++plies;
-            AnalysisResult<M> search = search(position, plies);
-            if (searchStopped && result != null) { // merge only when the search is stopped
-                result = result.mergeWith(search);
-            } else {
-                // add back decided moves
-                if (result != null) {
-                    for (MoveWithScore<M> moveWithScore : result.getDecidedMoves()) {
-                        search.addMoveWithScore(moveWithScore);
+        AnalysisResult<M> result;
+        if (searchMoveList.size() == 0 && searchedAhead != null && searchedAhead.moves.size() > 0) { // every root move was searched ahead
+            result = new AnalysisResult<>(position.getCurrentPlayer());
+            result.searchCompleted();
+        } else {
+            ForkJoinRoot<M> root = newTreeSearchRoot(position, searchMoveList, plies, alpha, beta, resultTransfer);
+
+            synchronized (this) { // Workers searching ahead may complete while we assign work
+                nodesToAnalyze.addAll(root.getBranches());
+
+                int removeIndex = 0;
+                while (availableWorkers.size() > nodesToAnalyze.size() && removeIndex < nodesToAnalyze.size() && !searchStopped) {
+                    ForkJoinNode<M> treeSearch = nodesToAnalyze.get(removeIndex);
+                    if (treeSearch.isForkable()) {
+                        nodesToAnalyze.addAll(nodesToAnalyze.remove(removeIndex).fork());
+                        removeIndex = 0;
+                    } else {
+                        ++removeIndex;
                     }
                 }
-                // return the previous result if the current is a loss for longevity
-                if (escapeEarly && result != null && search.isLoss()) {
-                    break;
+
+                if (searchStopped) {
+                    return new AnalysisResult<>(position.getCurrentPlayer());
+                }
+
+                while (availableWorkers.size() > 0 && nodesToAnalyze.size() > 0) {
+                    startWork(availableWorkers.remove(0), nodesToAnalyze.remove(0));
+                }
+                if (searchedAhead != null) {
+                    pipelineRoot = root;
                 }
-                result = search;
-            }
-            if (escapeEarly && (result.isWin() || result.onlyOneMove()) || result.isDecided()) {
-                break; // when escaping early, break if the game is won, or there is only one move; or if all moves are decided
             }
-        } while (!searchStopped && plies < maxPlies);
 
-        synchronized (searchStartedLock) {
-            searchStopped = true;
-            searchComplete = true; // if we reset searchStopped we need to make sure the lock does not wait forever
-            searchStartedLock.notify();
+            result = resultTransfer.awaitResult();
         }
-        return result;
-    }
 
-    @Override
-    public boolean isSearching() {
-        return !searchStopped;
+        if (searchedAhead != null) {
+            addSearchedAhead(result, searchedAhead);
+        }
+        waitForAvailableWorkers(); // All workers must become available, or be searching the next ply, before we return
+        return result;
     }
 
-    @Override
-    public void stopSearch(boolean joinWorkerThreads) {
-        stopWorkers();
-        try {
-            if (treeSearchThread != null) {
-                treeSearchThread.join();
+    private MoveList<M> removeMoves(P position, MoveList<M> moveList, Set<M> movesToRemove) {
+        MoveList<M> remainingMoves = moveListFactory.newAnalysisMoveList();
+        for (int i = 0; i < moveList.size(); ++i) {
+            M move = moveList.get(i);
+            if (movesToRemove.contains(move)) {
+                continue;
             }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-        if (joinWorkerThreads) {
-            for (ThreadWorker worker : availableWorkers) {
-                worker.joinThread();
+            if (i < moveList.numDynamicMoves()) {
+                remainingMoves.addDynamicMove(move, position);
+            } else {
+                remainingMoves.addQuietMove(move, position);
             }
         }
+        return remainingMoves;
     }
 
-    @Override
-    public AnalysisResult<M> getResult() {
-        return result;
+    /** Promotes the ply searched ahead if it is the one requested, otherwise discards the searches ahead */
+    private synchronized PipelinedPly<M> startPipelinedPly(P position, int plies) {
+        if (position == pipelinePosition && nextPly != null && nextPly.plies == plies) {
+            nodesAhead.clear(); // the searches ahead are now part of the current ply
+            currentPly = nextPly;
+            nextPly = new PipelinedPly<>(plies + 1);
+        } else if (position != pipelinePosition || currentPly == null || currentPly.plies != plies) {
+            stopSearchingAhead();
+            pipelinePosition = position;
+            currentPly = new PipelinedPly<>(plies);
+            nextPly = new PipelinedPly<>(plies + 1);
+        } // else the ply is searched again with a wider window, and the searches ahead continue
+        pipelineRoot = null;
+        return currentPly;
     }
 
-    private synchronized void stopWorkers() { // Stopping a worker will eventually remove it from treeSearchesInProgress
-        searchStopped = true;
-        for (Entry<ThreadWorker, ForkJoinNode<M>> searchInProgress : treeSearchesInProgress.entrySet()) {
-            searchInProgress.getKey().waitForStart();
-            searchInProgress.getValue().stopSearch();
+    private void stopSearchingAhead() {
+        for (ForkJoinNode<M> node : nodesAhead) {
+            node.stopSearch();
         }
+        nodesAhead.clear();
+        pipelinePosition = null;
+        currentPly = null;
+        nextPly = null;
+        pipelineRoot = null;
     }
 
-    public int getPlies() {
-        return plies;
+    /**
+     * Waits for the root moves searched ahead and adds their scores to the result of the rest of the ply. They were searched with the full window before the
+     * aspiration window and the multi-PV bound of the ply were known, so their scores are exact: a score above the window fails the ply high, as the rest of
+     * the moves would have, and the aspiration search is repeated with the full window; a score below it ranks no higher than a move that failed low.
+     */
+    private void addSearchedAhead(AnalysisResult<M> result, PipelinedPly<M> searchedAhead) {
+        synchronized (searchedAhead) {
+            while (!searchStopped && searchedAhead.results.size() < searchedAhead.moves.size()) {
+                try {
+                    searchedAhead.wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        for (M move : searchedAhead.moves) {
+            AnalysisResult<M> moveResult = searchedAhead.results.get(move);
+            if (moveResult != null && moveResult.isSearchComplete() && moveResult.getNumMoves() > 0) {
+                result.addMoveWithScore(move, AnalysisResult.fromChild(moveResult.getBestScore(result.getPlayer())));
+            }
+        }
     }
 
     @Override
-    public StrategyResult getPartialResult() {
-        return new StrategyResult(result, treeSearchRoot.getPartialResult().getMovesWithScore(), plies);
-    }
-
-    private AnalysisResult<M> search(P position, int plies) {
-        ResultTransfer<M> resultTransfer = new ResultTransfer<>();
-
-        MoveList<M> searchMoveList = buildMoveList(position);
-
-        IForkable<M> forkableSearch = forkableFactory.createNew(position, searchMoveList, moveListFactory, plies);
-        ForkJoinNode<M> rootTreeSearch = new ForkJoinNode<>(null, forkableSearch,
-                (canceled, moveWithResult) -> resultTransfer.putResult(moveWithResult.getSecond()));
-
-        treeSearchRoot = new ForkJoinRoot<>(rootTreeSearch, position.getCurrentPlayer());
-        nodesToAnalyze.addAll(treeSearchRoot.getBranches());
-
-        int removeIndex = 0;
-        while (availableWorkers.size() > nodesToAnalyze.size() && removeIndex < nodesToAnalyze.size() && !searchStopped) {
-            ForkJoinNode<M> treeSearch = nodesToAnalyze.get(removeIndex);
-            if (treeSearch.isForkable()) {
-                nodesToAnalyze.addAll(nodesToAnalyze.remove(removeIndex).fork());
-                removeIndex = 0;
-            } else {
-                ++removeIndex;
+    protected void iterationsComplete() {
+        if (pipelinedDeepening) {
+            synchronized (this) {
+                stopSearchingAhead();
             }
+            waitForAvailableWorkers();
         }
+    }
 
-        if (searchStopped) {
-            return new AnalysisResult<>(position.getCurrentPlayer());
+    /** Starts the worker on a searched root move of the ply in progress, one ply deeper with the full window, as the next window is not known yet */
+    @SuppressWarnings("unchecked")
+    private boolean searchAhead(ThreadWorker worker) {
+        if (pipelineRoot == null || nextPly == null) {
+            return false;
         }
-
-        synchronized (this) { // To prevent workers from completing before we have finished assigning work
-            while (availableWorkers.size() > 0 && nodesToAnalyze.size() > 0) {
-                startWork(availableWorkers.remove(0), nodesToAnalyze.remove(0));
+        M move;
+        do {
+            move = currentPly.completedMoves.poll();
+            if (move == null) {
+                move = pipelineRoot.takeCompletedMove();
             }
+        } while (move != null && nextPly.moves.contains(move));
+        if (move == null) {
+            return false;
         }
-
-        AnalysisResult<M> result = resultTransfer.awaitResult();
-        waitForAvailableWorkers(); // All workers must become available before we return
-        return result;
+        P position = (P) pipelinePosition.createCopy();
+        position.makeMove(move);
+        MoveList<M> possibleMoves = moveListFactory.newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        PipelinedPly<M> ply = nextPly;
+        IForkable<M> forkable = forkableFactory.createNew(position, possibleMoves, moveListFactory, ply.plies - 1);
+        ForkJoinNode<M> node = new ForkJoinNode<>(move, forkable, (canceled, moveWithResult) -> ply.searched(moveWithResult.getFirst(), moveWithResult.getSecond()));
+        ply.moves.add(move);
+        nodesAhead.add(node);
+        startWork(worker, node);
+        return true;
     }
 
-    private MoveList<M> buildMoveList(IPosition<M> position) {
-        MoveList<M> searchMoveList;
-        if (result == null) {
-            searchMoveList = moveListFactory.newAnalysisMoveList();
-            position.getPossibleMoves(searchMoveList);
-        } else {
-            List<MoveWithScore<M>> undecidedMoves = new ArrayList<>();
-            for (MoveWithScore<M> moveWithScore : result.getMovesWithScore()) {
-                if (!AnalysisResult.isGameOver(moveWithScore.score)) {
-                    undecidedMoves.add(moveWithScore);
-                }
-            }
-            Collections.sort(undecidedMoves, (m1, m2) -> Double.compare(m2.score, m1.score));
-            searchMoveList = moveListFactory.newAnalysisMoveList();
-            for (MoveWithScore<M> entry : undecidedMoves) {
-                searchMoveList.addQuietMove(entry.move, position);
+    private int numWorkersSearchingAhead() {
+        int numSearchingAhead = 0;
+        for (ForkJoinNode<M> node : treeSearchesInProgress.values()) {
+            if (nodesAhead.contains(node)) {
+                ++numSearchingAhead;
             }
         }
-        return searchMoveList;
+        return numSearchingAhead;
     }
 
     private synchronized void waitForAvailableWorkers() {
-        while (availableWorkers.size() < numWorkers) {
+        while (availableWorkers.size() + numWorkersSearchingAhead() < numWorkers) {
             try {
                 wait();
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
         }
+        long now = System.nanoTime();
+        for (ThreadWorker worker : availableWorkers) {
+            endIdle(worker, now);
+        }
+    }
+
+    private void startIdle(ThreadWorker worker) {
+        idleSince.put(worker, Long.valueOf(System.nanoTime()));
+        WorkerIdleEvent idleEvent = new WorkerIdleEvent();
+        if (idleEvent.isEnabled()) {
+            idleEvent.begin();
+            idleEvents.put(worker, idleEvent);
+        }
+    }
+
+    private void endIdle(ThreadWorker worker, long now) {
+        Long idleStart = idleSince.remove(worker);
+        if (idleStart != null) {
+            forkableFactory.getStatistics().addIdleWorkerTime(now - idleStart.longValue());
+        }
+        WorkerIdleEvent idleEvent = idleEvents.remove(worker);
+        if (idleEvent != null) {
+            idleEvent.end();
+            idleEvent.numWorkers = numWorkers;
+            idleEvent.commit();
+        }
     }
 
     private void startWork(ThreadWorker worker, ForkJoinNode<M> treeSearch) {
+        endIdle(worker, System.nanoTime());
         worker.workOn(treeSearch::search);
         treeSearchesInProgress.put(worker, treeSearch);
     }
 
     public synchronized void workerComplete(ThreadWorker finishedWorker) {
+        ForkJoinNode<M> finishedNode = treeSearchesInProgress.get(finishedWorker);
+        if (finishedNode != null) {
+            nodesAhead.remove(finishedNode);
+        }
+
         if (nodesToAnalyze.size() > 0) {
             ForkJoinNode<M> node = nodesToAnalyze.remove(0);
             startWork(finishedWorker, node);
             if (searchStopped) {
                 node.stopSearch();
             }
+            notify();
             return;
         }
 
@@ -248,10 +303,13 @@ public class ForkJoinTreeSearcher<M, P extends IPosition<M>> implements ITreeSea
             if (!treeSearch.isForkable()) {
                 continue;
             }
+            boolean searchingAhead = nodesAhead.contains(treeSearch); // the ply in progress is forked first
             if (treeSearchToFork == null
-                    || treeSearch.getPlies() > treeSearchToFork.getValue().getPlies()
-                    || (treeSearch.getPlies() == treeSearchToFork.getValue().getPlies()
-                            && treeSearch.getRemainingBranches() > treeSearchToFork.getValue().getRemainingBranches())) {
+                    || !searchingAhead && nodesAhead.contains(treeSearchToFork.getValue())
+                    || searchingAhead == nodesAhead.contains(treeSearchToFork.getValue())
+                            && (treeSearch.getPlies() > treeSearchToFork.getValue().getPlies()
+                                    || (treeSearch.getPlies() == treeSearchToFork.getValue().getPlies()
+                                            && treeSearch.getRemainingBranches() > treeSearchToFork.getValue().getRemainingBranches()))) {
                 treeSearchToFork = treeSearchInProgress;
             }
         }
@@ -260,13 +318,44 @@ public class ForkJoinTreeSearcher<M, P extends IPosition<M>> implements ITreeSea
             List<ForkJoinNode<M>> fork = treeSearchToFork.getValue().fork(); // Forking this worker will cause it to enqueue a call to workerComplete(this)
             treeSearchesInProgress.remove(treeSearchToFork.getKey()); // If we do not remove this from searches in progress, it can get reforked unnecessarily
             if (fork.size() > 0) {
+                if (nodesAhead.contains(treeSearchToFork.getValue())) {
+                    nodesAhead.addAll(fork);
+                }
                 nodesToAnalyze.addAll(fork);
                 startWork(finishedWorker, nodesToAnalyze.remove(0));
+                notify();
                 return;
             }
         }
 
+        if (pipelinedDeepening && !searchStopped && searchAhead(finishedWorker)) {
+            notify();
+            return;
+        }
+
         availableWorkers.add(finishedWorker);
+        startIdle(finishedWorker);
         notify();
     }
+
+    /** The root moves of one ply that were searched while the previous ply was in progress */
+    private static class PipelinedPly<M> {
+        final int plies;
+        final Set<M> moves = new LinkedHashSet<>(); // modified only while the previous ply is in progress
+        final Map<M, AnalysisResult<M>> results = new ConcurrentHashMap<>();
+        final Queue<M> completedMoves = new ConcurrentLinkedQueue<>(); // with undecided scores, to search another ply deeper
+
+        PipelinedPly(int plies) {
+            this.plies = plies;
+        }
+
+        // joins are not synchronized on the tree searcher, as workers join while it forks
+        synchronized void searched(M move, AnalysisResult<M> result) {
+            results.put(move, result);
+            if (result.isSearchComplete() && result.getNumMoves() > 0 && !AnalysisResult.isGameOver(result.getBestScore(result.getPlayer()))) {
+                completedMoves.add(move);
+            }
+            notifyAll();
+        }
+    }
 }
@@ -1,13 +1,18 @@
 package bge.strategy.ts.forkjoin;
 
+import bge.analysis.AnalysisResult;
 import bge.analysis.IPositionEvaluator;
+import bge.analysis.SearchStatistics;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
+import bge.igame.OrderingMoveListProviderPool;
+import bge.strategy.ts.CancellationToken;
 import bge.strategy.ts.forkjoin.alphabeta.AlphaBetaPositionEvaluator;
 import bge.strategy.ts.forkjoin.alphabeta.AlphaBetaQPositionEvaluator;
 import bge.strategy.ts.forkjoin.alphabeta.ForkableAlphaBeta;
 import bge.strategy.ts.forkjoin.alphabeta.IAlphaBetaPositionEvaluator;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
 import bge.strategy.ts.forkjoin.minmax.ForkableMinimax;
 import bge.strategy.ts.forkjoin.minmax.MinimaxPositionEvaluator;
 
@@ -19,35 +24,163 @@ public class ForkableTreeSearchFactory<M, P extends IPosition<M>> {
     private final ForkableType forkableType;
     protected final IPositionEvaluator<M, P> positionEvaluator;
     protected final MoveListFactory<M> moveListFactory;
+    private final OrderingMoveListProviderPool<M> orderingMoveListProviders; // killer and history tables kept from move to move
+    private final SearchStatistics statistics = new SearchStatistics();
+    private volatile CancellationToken cancellationToken = new CancellationToken();
+
+    private TranspositionTable transpositionTable = null;
+    private boolean youngBrothersWait = false;
+    private boolean principalVariationSearch = false;
+    private boolean moveOrdering = true;
+    private boolean nullMovePruning = false;
+    private boolean lateMoveReductions = false;
+    private boolean packedScores = false;
+    private double aspirationWindow = 0;
+    private int multiPv = 0;
 
     public ForkableTreeSearchFactory(ForkableType forkableType, IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory) {
         this.forkableType = forkableType;
         this.positionEvaluator = positionEvaluator;
         this.moveListFactory = moveListFactory;
+        orderingMoveListProviders = new OrderingMoveListProviderPool<>(moveListFactory);
+    }
+
+    public ForkableTreeSearchFactory<M, P> setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+        return this;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /** Alpha beta searches the eldest branch of a node before forking the younger branches with its bound */
+    public ForkableTreeSearchFactory<M, P> setYoungBrothersWait(boolean youngBrothersWait) {
+        this.youngBrothersWait = youngBrothersWait;
+        return this;
+    }
+
+    public boolean isYoungBrothersWait() {
+        return youngBrothersWait;
+    }
+
+    public ForkableTreeSearchFactory<M, P> setPrincipalVariationSearch(boolean principalVariationSearch) {
+        this.principalVariationSearch = principalVariationSearch;
+        return this;
+    }
+
+    public ForkableTreeSearchFactory<M, P> setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+        return this;
+    }
+
+    /** Only AlphaBetaQ prunes with null moves */
+    public ForkableTreeSearchFactory<M, P> setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+        return this;
+    }
+
+    /** Only AlphaBetaQ reduces late moves */
+    public ForkableTreeSearchFactory<M, P> setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+        return this;
+    }
+
+    /** Only AlphaBetaQ searches with packed scores */
+    public ForkableTreeSearchFactory<M, P> setPackedScores(boolean packedScores) {
+        this.packedScores = packedScores;
+        return this;
+    }
+
+    /** Whether the evaluators store packed scores in the transposition table */
+    public boolean isPackedScores() {
+        return forkableType == ForkableType.ALPHA_BETA_Q && packedScores;
+    }
+
+    /** Iterative deepening searches the root within this distance of the previous best score, or with the full window if it is 0 */
+    public ForkableTreeSearchFactory<M, P> setAspirationWindow(double aspirationWindow) {
+        this.aspirationWindow = aspirationWindow;
+        return this;
+    }
+
+    public double getAspirationWindow() {
+        return aspirationWindow;
+    }
+
+    /** Alpha beta gives exact scores and principal variations to only the best multiPv root moves, or exact scores to all of them if it is 0 */
+    public ForkableTreeSearchFactory<M, P> setMultiPv(int multiPv) {
+        this.multiPv = multiPv;
+        return this;
+    }
+
+    public int getMultiPv() {
+        return forkableType == ForkableType.MINIMAX ? 0 : multiPv;
+    }
+
+    /** Shared by every evaluator and forkable the factory creates */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /** The parent of the token of every evaluator the factory creates, so canceling it stops them all */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /** Replaces a canceled token so that evaluators created for the next search can run */
+    public void resetCancellation() {
+        if (cancellationToken.isCanceled()) {
+            cancellationToken = new CancellationToken();
+        }
     }
 
     public IDepthBasedPositionEvaluator<M, P> newStrategy() {
+        return newStrategy(statistics, cancellationToken.newChild());
+    }
+
+    /** An evaluator counting into its own statistics and stopped by its own token, for a search outside of the searcher's */
+    public IDepthBasedPositionEvaluator<M, P> newStrategy(SearchStatistics statistics, CancellationToken cancellationToken) {
         switch (forkableType) {
         case MINIMAX:
-            return new MinimaxPositionEvaluator<>(positionEvaluator, moveListFactory);
+            return new MinimaxPositionEvaluator<>(positionEvaluator, moveListFactory).setStatistics(statistics)
+                    .setCancellationToken(cancellationToken);
         case ALPHA_BETA:
-            return new AlphaBetaPositionEvaluator<>(positionEvaluator, moveListFactory);
+            return new AlphaBetaPositionEvaluator<>(positionEvaluator, moveListFactory, transpositionTable)
+                    .setPrincipalVariationSearch(principalVariationSearch).setMoveOrdering(moveOrdering).setOrderingMoveListProviders(orderingMoveListProviders)
+                    .setStatistics(statistics).setCancellationToken(cancellationToken);
         case ALPHA_BETA_Q:
-            return new AlphaBetaQPositionEvaluator<>(positionEvaluator, moveListFactory);
+            return new AlphaBetaQPositionEvaluator<>(positionEvaluator, moveListFactory, transpositionTable)
+                    .setPrincipalVariationSearch(principalVariationSearch).setMoveOrdering(moveOrdering).setOrderingMoveListProviders(orderingMoveListProviders)
+                    .setNullMovePruning(nullMovePruning).setLateMoveReductions(lateMoveReductions).setPackedScores(packedScores).setStatistics(statistics)
+                    .setCancellationToken(cancellationToken);
         default:
             throw new IllegalStateException("Unknown ForkableType: " + forkableType);
         }
     }
 
     public IForkable<M> createNew(P position, MoveList<M> movesToSearch, MoveListFactory<M> moveListFactory, int plies) {
+        return createNew(position, movesToSearch, moveListFactory, plies, AnalysisResult.LOSS, AnalysisResult.WIN);
+    }
+
+    /** Minimax ignores the window */
+    public IForkable<M> createNew(P position, MoveList<M> movesToSearch, MoveListFactory<M> moveListFactory, int plies, double alpha, double beta) {
         switch (forkableType) {
         case MINIMAX:
             return new ForkableMinimax<>(position, movesToSearch, moveListFactory, plies, newStrategy(), this);
         case ALPHA_BETA:
         case ALPHA_BETA_Q:
-            return new ForkableAlphaBeta<>(position, movesToSearch, moveListFactory, plies, (IAlphaBetaPositionEvaluator<M, P>) newStrategy(), this);
+            return new ForkableAlphaBeta<>(position, movesToSearch, moveListFactory, plies, (IAlphaBetaPositionEvaluator<M, P>) newStrategy(), this, alpha,
+                    beta);
         default:
             throw new IllegalStateException("Unknown ForkableType: " + forkableType);
         }
     }
+
+    public IForkable<M> createRoot(P position, MoveList<M> movesToSearch, MoveListFactory<M> moveListFactory, int plies, double alpha, double beta) {
+        if (getMultiPv() == 0) {
+            return createNew(position, movesToSearch, moveListFactory, plies, alpha, beta);
+        }
+        return new ForkableAlphaBeta<>(position, movesToSearch, moveListFactory, plies, (IAlphaBetaPositionEvaluator<M, P>) newStrategy(), this, alpha, beta,
+                multiPv);
+    }
 }
@@ -0,0 +1,358 @@
+package bge.strategy.ts.forkjoin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+import bge.analysis.PartialResultObservable;
+import bge.analysis.SearchStatistics;
+import bge.analysis.StrategyResult;
+import bge.igame.IHashablePosition;
+import bge.igame.IPosition;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.CancellationToken;
+import bge.strategy.ts.ISearchObserver;
+import bge.strategy.ts.ITreeSearcher;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable.TranspositionEntry;
+import bge.strategy.ts.jfr.SearchIterationEvent;
+import gt.async.ThreadNumber;
+
+public abstract class IterativeDeepeningTreeSearcher<M, P extends IPosition<M>> implements ITreeSearcher<M, P>, PartialResultObservable {
+    private static final int PREDICTION_PLIES = 2;
+
+    private Thread treeSearchThread;
+
+    protected final ForkableTreeSearchFactory<M, P> forkableFactory;
+    protected final MoveListFactory<M> moveListFactory;
+
+    private final Object searchStartedLock = new Object();
+    protected volatile boolean searchStopped = true;
+    private volatile boolean searchComplete = false;
+
+    private volatile P searchPosition;
+    private int plies = 0;
+    private volatile AnalysisResult<M> result;
+    private volatile List<List<M>> principalVariations = Collections.emptyList();
+    private volatile ForkJoinRoot<M> treeSearchRoot = new ForkJoinRoot<>();
+    private volatile ISearchObserver<M> searchObserver;
+
+    private final TranspositionEntry transpositionEntry = new TranspositionEntry();
+
+    public IterativeDeepeningTreeSearcher(ForkableTreeSearchFactory<M, P> forkableFactory, MoveListFactory<M> moveListFactory) {
+        this.forkableFactory = forkableFactory;
+        this.moveListFactory = moveListFactory;
+    }
+
+    /** Searches the root to the given depth within the window, returning once every branch has joined or the search has been stopped */
+    protected abstract AnalysisResult<M> search(P position, int plies, double alpha, double beta);
+
+    /** Stops all searches in progress; called after searchStopped has been set */
+    protected abstract void stopWorkers();
+
+    protected abstract void joinWorkers();
+
+    /** Called when iterative deepening stops, before the search is marked complete */
+    protected void iterationsComplete() {
+    }
+
+    @Override
+    public void searchForever(P position, boolean escapeEarly) {
+        searchForever(position, Integer.MAX_VALUE, escapeEarly);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void searchForever(P position, int maxPlies, boolean escapeEarly) {
+        searchStopped = true;
+        searchComplete = false;
+        treeSearchThread = new Thread(() -> startSearch((P) position.createCopy(), maxPlies, escapeEarly),
+                "Tree_Search_Thread_" + ThreadNumber.getThreadNum(getClass()));
+        treeSearchThread.start();
+        synchronized (searchStartedLock) {
+            while (searchStopped && !searchComplete) {
+                try {
+                    searchStartedLock.wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    public AnalysisResult<M> startSearch(P position, int maxPlies, boolean escapeEarly) {
+        synchronized (searchStartedLock) {
+            searchStopped = false;
+            searchStartedLock.notify();
+        }
+
+        forkableFactory.resetCancellation();
+        SearchStatistics statistics = forkableFactory.getStatistics();
+        statistics.start();
+        searchPosition = position;
+        result = null;
+        principalVariations = Collections.emptyList();
+        plies = 0;
+        do {
+            ++plies;
+            SearchIterationEvent iterationEvent = new SearchIterationEvent();
+            iterationEvent.begin();
+            long nodesBefore = statistics.getNodes();
+            AnalysisResult<M> search = aspirationSearch(position, plies);
+            iterationEvent.end();
+            if (iterationEvent.shouldCommit()) {
+                iterationEvent.depth = plies;
+                iterationEvent.nodes = statistics.getNodes() - nodesBefore;
+                iterationEvent.stopped = searchStopped;
+                iterationEvent.commit();
+            }
+            if (searchStopped && result != null) { // merge only when the search is stopped
+                result = result.mergeWith(search);
+            } else {
+                // add back decided moves
+                if (result != null) {
+                    for (MoveWithScore<M> moveWithScore : result.getDecidedMoves()) {
+                        search.addMoveWithScore(moveWithScore);
+                    }
+                }
+                // return the previous result if the current is a loss for longevity
+                if (escapeEarly && result != null && search.isLoss()) {
+                    break;
+                }
+                result = search;
+                statistics.plyCompleted();
+                if (forkableFactory.getMultiPv() > 0 && !searchStopped) {
+                    principalVariations = findPrincipalVariations(position, result, plies);
+                }
+                if (searchObserver != null) {
+                    searchObserver.plyCompleted(result, plies);
+                }
+            }
+            if (escapeEarly && (result.isWin() || result.onlyOneMove()) || result.isDecided()) {
+                break; // when escaping early, break if the game is won, or there is only one move; or if all moves are decided
+            }
+        } while (!searchStopped && plies < maxPlies);
+
+        iterationsComplete();
+        statistics.stop();
+        synchronized (searchStartedLock) {
+            searchStopped = true;
+            searchComplete = true; // if we reset searchStopped we need to make sure the lock does not wait forever
+            searchStartedLock.notify();
+        }
+        if (searchObserver != null) {
+            searchObserver.searchCompleted();
+        }
+        return result;
+    }
+
+    private AnalysisResult<M> aspirationSearch(P position, int plies) {
+        double aspirationWindow = forkableFactory.getAspirationWindow();
+        MoveWithScore<M> previousBest = result == null ? null : result.getBestMove(result.getPlayer());
+        if (aspirationWindow > 0 && previousBest != null && !AnalysisResult.isGameOver(previousBest.score)) {
+            double alpha = previousBest.score - aspirationWindow;
+            double beta = previousBest.score + aspirationWindow;
+            AnalysisResult<M> search = search(position, plies, alpha, beta);
+            MoveWithScore<M> bestMove = search.getBestMove(search.getPlayer());
+            if (searchStopped || bestMove != null && AnalysisResult.isGreater(bestMove.score, alpha) && AnalysisResult.isGreater(beta, bestMove.score)) {
+                return search;
+            }
+            // the best score is outside the window, so search again with the full window
+        }
+        return search(position, plies, AnalysisResult.LOSS, AnalysisResult.WIN);
+    }
+
+    private List<List<M>> findPrincipalVariations(P position, AnalysisResult<M> result, int plies) {
+        List<MoveWithScore<M>> movesWithScore = result.getMovesWithScore();
+        Collections.sort(movesWithScore, (m1, m2) -> AnalysisResult.isGreater(m1.score, m2.score) ? -1 : AnalysisResult.isGreater(m2.score, m1.score) ? 1 : 0);
+        List<List<M>> lines = new ArrayList<>();
+        int i = 0;
+        while (i < movesWithScore.size() && i < forkableFactory.getMultiPv()) {
+            lines.add(findPrincipalVariation(position, movesWithScore.get(i), plies));
+            ++i;
+        }
+        return lines;
+    }
+
+    /** Follows the best moves that the search, forked nodes included, stored in the transposition table, up to the end of the game if it is decided */
+    @SuppressWarnings("unchecked")
+    private List<M> findPrincipalVariation(P position, MoveWithScore<M> moveWithScore, int plies) {
+        List<M> line = new ArrayList<>();
+        line.add(moveWithScore.move);
+        TranspositionTable transpositionTable = forkableFactory.getTranspositionTable();
+        if (transpositionTable == null || !(position instanceof IHashablePosition)) {
+            return line;
+        }
+        P linePosition = (P) position.createCopy();
+        linePosition.makeMove(moveWithScore.move);
+        Set<Long> hashes = new HashSet<>();
+        while (line.size() < plies) {
+            long hash = ((IHashablePosition) linePosition).getZobristHash();
+            if (!hashes.add(Long.valueOf(hash)) || !transpositionTable.probe(hash, transpositionEntry)) {
+                break;
+            }
+            MoveList<M> possibleMoves = moveListFactory.newAnalysisMoveList();
+            linePosition.getPossibleMoves(possibleMoves);
+            int moveIndex = transpositionEntry.moveIndex;
+            if (moveIndex < 0 || moveIndex >= possibleMoves.size()) {
+                break;
+            }
+            M move = possibleMoves.get(moveIndex);
+            line.add(move);
+            linePosition.makeMove(move);
+        }
+        return line;
+    }
+
+    @Override
+    public boolean isSearching() {
+        return !searchStopped;
+    }
+
+    @Override
+    public void stopSearch(boolean joinWorkerThreads) {
+        boolean searching = isSearching();
+        long stopStart = System.nanoTime();
+        searchStopped = true; // before the cancellation, so that a ply cut short is not taken as complete
+        forkableFactory.getCancellationToken().cancel(); // every evaluator sees this before the workers are stopped one by one
+        stopWorkers();
+        try {
+            if (treeSearchThread != null) {
+                treeSearchThread.join();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        if (searching) {
+            forkableFactory.getStatistics().setStopLatency(System.nanoTime() - stopStart);
+        }
+        if (joinWorkerThreads) {
+            joinWorkers();
+        }
+    }
+
+    @Override
+    public AnalysisResult<M> getResult() {
+        return result;
+    }
+
+    @Override
+    public SearchStatistics getSearchStatistics() {
+        return forkableFactory.getStatistics();
+    }
+
+    @Override
+    public void setSearchObserver(ISearchObserver<M> searchObserver) {
+        this.searchObserver = searchObserver;
+    }
+
+    @Override
+    public void moveMade(M move) {
+        // the transposition table and move ordering tables live in the forkable factory, so they carry over to the next search
+    }
+
+    /** Predicts the reply from the transposition table or principal variations the last search left, or else by a brief search of its own */
+    @SuppressWarnings("unchecked")
+    @Override
+    public M getPredictedReply(M move) {
+        if (searchPosition == null || isSearching()) {
+            return null;
+        }
+        P position = (P) searchPosition.createCopy();
+        position.makeMove(move);
+        MoveList<M> possibleMoves = moveListFactory.newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        if (possibleMoves.size() == 0) {
+            return null;
+        }
+        TranspositionTable transpositionTable = forkableFactory.getTranspositionTable();
+        if (transpositionTable != null && position instanceof IHashablePosition
+                && transpositionTable.probe(((IHashablePosition) position).getZobristHash(), transpositionEntry)) {
+            int moveIndex = transpositionEntry.moveIndex;
+            if (moveIndex >= 0 && moveIndex < possibleMoves.size()) {
+                return possibleMoves.get(moveIndex);
+            }
+        }
+        for (List<M> line : principalVariations) {
+            if (line.size() > 1 && line.get(0).equals(move)) {
+                return line.get(1);
+            }
+        }
+        return searchReply(position, possibleMoves);
+    }
+
+    /** Searches each reply with an evaluator of its own, so that the searcher's result, statistics and observer are left as the last search left them */
+    private M searchReply(P position, MoveList<M> possibleMoves) {
+        IDepthBasedPositionEvaluator<M, P> strategy = forkableFactory.newStrategy(new SearchStatistics(), new CancellationToken());
+        int player = position.getCurrentPlayer();
+        M bestReply = null;
+        double bestScore = AnalysisResult.LOSS;
+        for (int i = 0; i < possibleMoves.size(); ++i) {
+            M reply = possibleMoves.get(i);
+            position.makeMove(reply);
+            double score = strategy.evaluate(position, PREDICTION_PLIES - 1);
+            if (position.getCurrentPlayer() != player) {
+                score = -score;
+            }
+            position.unmakeMove(reply);
+            if (bestReply == null || AnalysisResult.isGreater(score, bestScore)) {
+                bestReply = reply;
+                bestScore = score;
+            }
+        }
+        return bestReply;
+    }
+
+    /** The lines of the best root moves of the last completed ply, if the factory sets multiPv */
+    public List<List<M>> getPrincipalVariations() {
+        return principalVariations;
+    }
+
+    public int getPlies() {
+        return plies;
+    }
+
+    @Override
+    public StrategyResult getPartialResult() {
+        return new StrategyResult(result, treeSearchRoot.getPartialResult().getMovesWithScore(), plies, principalVariations);
+    }
+
+    protected ForkJoinRoot<M> newTreeSearchRoot(P position, int plies, double alpha, double beta, ResultTransfer<M> resultTransfer) {
+        return newTreeSearchRoot(position, buildMoveList(position), plies, alpha, beta, resultTransfer);
+    }
+
+    protected ForkJoinRoot<M> newTreeSearchRoot(P position, MoveList<M> searchMoveList, int plies, double alpha, double beta,
+            ResultTransfer<M> resultTransfer) {
+        IForkable<M> forkableSearch = forkableFactory.createRoot(position, searchMoveList, moveListFactory, plies, alpha, beta);
+        ForkJoinNode<M> rootTreeSearch = new ForkJoinNode<>(null, forkableSearch,
+                (canceled, moveWithResult) -> resultTransfer.putResult(moveWithResult.getSecond()));
+
+        treeSearchRoot = new ForkJoinRoot<>(rootTreeSearch, position.getCurrentPlayer());
+        return treeSearchRoot;
+    }
+
+    protected MoveList<M> buildMoveList(IPosition<M> position) {
+        MoveList<M> searchMoveList;
+        if (result == null) {
+            searchMoveList = moveListFactory.newAnalysisMoveList();
+            position.getPossibleMoves(searchMoveList);
+        } else {
+            List<MoveWithScore<M>> undecidedMoves = new ArrayList<>();
+            for (MoveWithScore<M> moveWithScore : result.getMovesWithScore()) {
+                if (!AnalysisResult.isGameOver(moveWithScore.score)) {
+                    undecidedMoves.add(moveWithScore);
+                }
+            }
+            Collections.sort(undecidedMoves, (m1, m2) -> Double.compare(m2.score, m1.score));
+            searchMoveList = moveListFactory.newAnalysisMoveList();
+            for (MoveWithScore<M> entry : undecidedMoves) {
+                searchMoveList.addQuietMove(entry.move, position);
+            }
+        }
+        return searchMoveList;
+    }
+}
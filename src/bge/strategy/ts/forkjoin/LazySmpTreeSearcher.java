@@ -0,0 +1,179 @@
+package bge.strategy.ts.forkjoin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+import bge.analysis.StrategyResult;
+import bge.igame.IPosition;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.alphabeta.IAlphaBetaPositionEvaluator;
+import bge.strategy.ts.forkjoin.alphabeta.SplitPoint;
+import gt.async.ThreadNumber;
+
+/**
+ * Searches the root with independent iterative deepening threads that share only the transposition table of the forkable factory. The helper threads
+ * search staggered depths in rotated move orders so that the table fills with entries the main search can use.
+ */
+public class LazySmpTreeSearcher<M, P extends IPosition<M>> extends IterativeDeepeningTreeSearcher<M, P> {
+    private final int numThreads;
+
+    private final List<Thread> helperThreads = new ArrayList<>();
+    private final List<IDepthBasedPositionEvaluator<M, P>> helperStrategies = new ArrayList<>();
+    private volatile boolean helpersStopped = true;
+
+    private volatile IDepthBasedPositionEvaluator<M, P> strategy;
+    private volatile AnalysisResult<M> partialResult;
+
+    public LazySmpTreeSearcher(ForkableTreeSearchFactory<M, P> forkableFactory, MoveListFactory<M> moveListFactory, int numThreads) {
+        super(forkableFactory, moveListFactory);
+        this.numThreads = numThreads;
+    }
+
+    @Override
+    public AnalysisResult<M> startSearch(P position, int maxPlies, boolean escapeEarly) {
+        forkableFactory.resetCancellation();
+        strategy = forkableFactory.newStrategy();
+        startHelpers(position, maxPlies);
+        try {
+            return super.startSearch(position, maxPlies, escapeEarly);
+        } finally {
+            stopHelpers();
+            joinHelpers();
+        }
+    }
+
+    @Override
+    protected AnalysisResult<M> search(P position, int plies, double alpha, double beta) {
+        int player = position.getCurrentPlayer();
+        AnalysisResult<M> result = new AnalysisResult<>(player);
+        partialResult = new AnalysisResult<>(player);
+        MoveList<M> moves = buildMoveList(position);
+        if (moves.size() == 0) {
+            result.addMoveWithScore(new MoveWithScore<>(null, strategy.evaluate(position, plies)));
+            result.searchCompleted();
+            return result;
+        }
+        SplitPoint multiPvSplitPoint = forkableFactory.getMultiPv() > 0 ? SplitPoint.newMultiPvRootSplitPoint(player, alpha, beta, forkableFactory.getMultiPv())
+                : null;
+        int i = 0;
+        do {
+            M move = moves.get(i);
+            double moveAlpha = multiPvSplitPoint == null ? alpha : multiPvSplitPoint.getAlpha();
+            double score = evaluateMove(strategy, position, move, plies, moveAlpha, beta);
+            if (searchStopped) { // we need to check search stopped after making the call to evaluate
+                return result;
+            }
+            if (multiPvSplitPoint != null) {
+                multiPvSplitPoint.raiseAlpha(score);
+            }
+            MoveWithScore<M> moveWithScore = new MoveWithScore<>(move, score);
+            result.addMoveWithScore(moveWithScore);
+            synchronized (partialResult) {
+                partialResult.addMoveWithScore(moveWithScore);
+            }
+            ++i;
+        } while (i < moves.size());
+        result.searchCompleted();
+        return result;
+    }
+
+    private double evaluateMove(IDepthBasedPositionEvaluator<M, P> strategy, P position, M move, int plies, double alpha, double beta) {
+        int player = position.getCurrentPlayer();
+        position.makeMove(move);
+        boolean samePlayer = player == position.getCurrentPlayer();
+        double score;
+        if (strategy instanceof IAlphaBetaPositionEvaluator) {
+            IAlphaBetaPositionEvaluator<M, P> alphaBetaStrategy = (IAlphaBetaPositionEvaluator<M, P>) strategy;
+            double childAlpha = AnalysisResult.toChild(alpha);
+            double childBeta = AnalysisResult.toChild(beta);
+            score = samePlayer ? alphaBetaStrategy.evaluate(position, plies - 1, childAlpha, childBeta)
+                    : -alphaBetaStrategy.evaluate(position, plies - 1, -childBeta, -childAlpha);
+        } else {
+            double evaluate = strategy.evaluate(position, plies - 1);
+            score = samePlayer ? evaluate : -evaluate;
+        }
+        position.unmakeMove(move);
+        return AnalysisResult.fromChild(score);
+    }
+
+    @Override
+    protected void stopWorkers() {
+        searchStopped = true;
+        IDepthBasedPositionEvaluator<M, P> currentStrategy = strategy;
+        if (currentStrategy != null) {
+            currentStrategy.stopSearch();
+        }
+        stopHelpers();
+    }
+
+    @Override
+    protected void joinWorkers() {
+        joinHelpers();
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void startHelpers(P position, int maxPlies) {
+        helpersStopped = false;
+        for (int i = 1; i < numThreads; ++i) {
+            int helperNum = i;
+            P helperPosition = (P) position.createCopy();
+            IDepthBasedPositionEvaluator<M, P> helperStrategy = forkableFactory.newStrategy();
+            Thread helperThread = new Thread(() -> helperSearch(helperPosition, helperStrategy, helperNum, maxPlies),
+                    "Lazy_SMP_Helper_Thread_" + ThreadNumber.getThreadNum(getClass()));
+            helperStrategies.add(helperStrategy);
+            helperThreads.add(helperThread);
+            helperThread.start();
+        }
+    }
+
+    private void helperSearch(P position, IDepthBasedPositionEvaluator<M, P> helperStrategy, int helperNum, int maxPlies) {
+        MoveList<M> moves = moveListFactory.newAnalysisMoveList();
+        position.getPossibleMoves(moves);
+        int numMoves = moves.size();
+        if (numMoves == 0) {
+            return;
+        }
+        int plies = 1 + helperNum % 2; // half of the helpers search one ply ahead
+        while (!helpersStopped && plies <= maxPlies) {
+            int i = 0;
+            do {
+                evaluateMove(helperStrategy, position, moves.get((i + helperNum) % numMoves), plies, AnalysisResult.LOSS, AnalysisResult.WIN);
+                ++i;
+            } while (!helpersStopped && i < numMoves);
+            ++plies;
+        }
+    }
+
+    private synchronized void stopHelpers() {
+        helpersStopped = true;
+        for (IDepthBasedPositionEvaluator<M, P> helperStrategy : helperStrategies) {
+            helperStrategy.stopSearch();
+        }
+    }
+
+    private synchronized void joinHelpers() {
+        for (Thread helperThread : helperThreads) {
+            try {
+                helperThread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        helperThreads.clear();
+        helperStrategies.clear();
+    }
+
+    @Override
+    public StrategyResult getPartialResult() {
+        AnalysisResult<M> currentPartial = partialResult;
+        if (currentPartial == null) {
+            return super.getPartialResult();
+        }
+        synchronized (currentPartial) {
+            return new StrategyResult(getResult(), currentPartial.getMovesWithScore(), getPlies(), getPrincipalVariations());
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package bge.strategy.ts.forkjoin;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.SearchStatistics;
+import bge.igame.IPosition;
+import bge.igame.MoveListFactory;
+import gt.async.ThreadWorker;
+
+/**
+ * Assigns the root moves to workers from a concurrent deque. A worker that finds the deque empty splits the largest search in progress, judged by the plies
+ * and remaining branches the other workers publish, and pushes the forks onto the front of the deque. A worker that finds nothing to split waits until forks
+ * are pushed or a search it could split starts. Those are signalled with an atomic version, and the lock that idle workers wait on is taken only while one is
+ * waiting, so busy workers share no lock.
+ */
+public class RootSplittingTreeSearcher<M, P extends IPosition<M>> extends IterativeDeepeningTreeSearcher<M, P> {
+    private final List<ThreadWorker> workers = new ArrayList<>();
+    private final AtomicReferenceArray<ForkJoinNode<M>> treeSearchesInProgress; // indexed by worker
+    private final Deque<ForkJoinNode<M>> nodesToAnalyze = new ConcurrentLinkedDeque<>();
+
+    private volatile boolean plyComplete = true;
+    private int numWorkersSearching = 0;
+
+    private final AtomicInteger workVersion = new AtomicInteger(); // advanced whenever an idle worker may find work
+    private final AtomicInteger numWorkersWaiting = new AtomicInteger();
+    private final Object workLock = new Object();
+
+    public RootSplittingTreeSearcher(ForkableTreeSearchFactory<M, P> forkableFactory, MoveListFactory<M> moveListFactory, int numWorkers) {
+        super(forkableFactory, moveListFactory);
+        treeSearchesInProgress = new AtomicReferenceArray<>(numWorkers);
+        for (int i = 0; i < numWorkers; i++) {
+            workers.add(new ThreadWorker(finishedWorker -> workerComplete()));
+        }
+    }
+
+    @Override
+    protected void joinWorkers() {
+        for (ThreadWorker worker : workers) {
+            worker.joinThread();
+        }
+    }
+
+    @Override
+    protected void stopWorkers() {
+        searchStopped = true;
+        for (int i = 0; i < treeSearchesInProgress.length(); ++i) {
+            ForkJoinNode<M> treeSearch = treeSearchesInProgress.get(i);
+            if (treeSearch != null) {
+                treeSearch.stopSearch();
+            }
+        }
+    }
+
+    @Override
+    protected AnalysisResult<M> search(P position, int plies, double alpha, double beta) {
+        ResultTransfer<M> resultTransfer = new ResultTransfer<>();
+
+        nodesToAnalyze.addAll(newTreeSearchRoot(position, plies, alpha, beta, resultTransfer).getBranches());
+
+        if (searchStopped) {
+            nodesToAnalyze.clear();
+            return new AnalysisResult<>(position.getCurrentPlayer());
+        }
+
+        plyComplete = false;
+        synchronized (this) {
+            numWorkersSearching = workers.size();
+        }
+        for (int i = 0; i < workers.size(); ++i) {
+            int workerIndex = i;
+            workers.get(i).workOn(() -> work(workerIndex));
+        }
+
+        AnalysisResult<M> result = resultTransfer.awaitResult();
+        plyComplete = true;
+        signalWork();
+        waitForWorkers(); // All workers must leave the ply before we return
+        nodesToAnalyze.clear(); // the root joins on its first stopped branch, which may leave forks of a stopped ply behind
+        return result;
+    }
+
+    private void work(int workerIndex) {
+        SearchStatistics statistics = forkableFactory.getStatistics();
+        long idleSince = 0;
+        while (!plyComplete) {
+            int version = workVersion.get(); // read before looking for work, so that no signal is missed
+            ForkJoinNode<M> treeSearch = nodesToAnalyze.pollFirst();
+            if (treeSearch == null && !searchStopped) {
+                treeSearch = splitLargestSearch(workerIndex);
+            }
+            if (treeSearch == null) {
+                if (idleSince == 0) {
+                    idleSince = System.nanoTime();
+                }
+                awaitWork(version);
+                continue;
+            }
+            if (idleSince != 0) {
+                statistics.addIdleWorkerTime(System.nanoTime() - idleSince);
+                idleSince = 0;
+            }
+            treeSearchesInProgress.set(workerIndex, treeSearch);
+            if (searchStopped) { // stopWorkers may have missed this search
+                treeSearch.stopSearch();
+            }
+            if (treeSearch.isForkable()) { // an idle worker may split it
+                signalWork();
+            }
+            treeSearch.search(); // returns early if another worker splits it
+            treeSearchesInProgress.compareAndSet(workerIndex, treeSearch, null);
+        }
+        if (idleSince != 0) {
+            statistics.addIdleWorkerTime(System.nanoTime() - idleSince);
+        }
+    }
+
+    /** Forks the search in progress with the most plies and then the most remaining branches, keeping the first fork and queuing the rest */
+    private ForkJoinNode<M> splitLargestSearch(int workerIndex) {
+        int splitIndex = -1;
+        ForkJoinNode<M> treeSearchToSplit = null;
+        for (int i = 0; i < treeSearchesInProgress.length(); ++i) {
+            ForkJoinNode<M> treeSearch = treeSearchesInProgress.get(i);
+            if (i == workerIndex || treeSearch == null || !treeSearch.isForkable()) {
+                continue;
+            }
+            if (treeSearchToSplit == null
+                    || treeSearch.getPlies() > treeSearchToSplit.getPlies()
+                    || (treeSearch.getPlies() == treeSearchToSplit.getPlies()
+                            && treeSearch.getRemainingBranches() > treeSearchToSplit.getRemainingBranches())) {
+                splitIndex = i;
+                treeSearchToSplit = treeSearch;
+            }
+        }
+        if (treeSearchToSplit == null || !treeSearchesInProgress.compareAndSet(splitIndex, treeSearchToSplit, null)) {
+            return null; // nothing to split, or another worker split it first
+        }
+        List<ForkJoinNode<M>> forks = treeSearchToSplit.fork();
+        if (forks.isEmpty()) {
+            return null;
+        }
+        for (int i = forks.size() - 1; i > 0; --i) {
+            nodesToAnalyze.offerFirst(forks.get(i));
+        }
+        if (forks.size() > 1) {
+            signalWork();
+        }
+        return forks.get(0);
+    }
+
+    /** A waiting worker counts itself before it checks the version, so either it sees the new version or it is counted here */
+    private void signalWork() {
+        workVersion.incrementAndGet();
+        if (numWorkersWaiting.get() > 0) {
+            synchronized (workLock) {
+                workLock.notifyAll();
+            }
+        }
+    }
+
+    private void awaitWork(int version) {
+        numWorkersWaiting.incrementAndGet();
+        synchronized (workLock) {
+            while (workVersion.get() == version && !plyComplete) {
+                try {
+                    workLock.wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        numWorkersWaiting.decrementAndGet();
+    }
+
+    int getNumQueuedSearches() {
+        return nodesToAnalyze.size();
+    }
+
+    private synchronized void workerComplete() {
+        --numWorkersSearching;
+        notify();
+    }
+
+    private synchronized void waitForWorkers() {
+        while (numWorkersSearching > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
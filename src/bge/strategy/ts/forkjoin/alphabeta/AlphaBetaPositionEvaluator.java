@@ -2,56 +2,170 @@ package bge.strategy.ts.forkjoin.alphabeta;
 
 import bge.analysis.AnalysisResult;
 import bge.analysis.IPositionEvaluator;
+import bge.analysis.SearchStatistics;
+import bge.igame.IHashablePosition;
+import bge.igame.IMoveKeyPosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
 import bge.igame.MoveListProvider;
+import bge.igame.OrderingMoveListProviderPool;
+import bge.strategy.ts.CancellationToken;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable.TranspositionEntry;
 
 public class AlphaBetaPositionEvaluator<M, P extends IPosition<M>> implements IAlphaBetaPositionEvaluator<M, P> {
     private final IPositionEvaluator<M, P> positionEvaluator;
     private final MoveListFactory<M> moveListFactory;
+    private final TranspositionTable transpositionTable;
+    private final TranspositionEntry transpositionEntry = new TranspositionEntry();
 
-    private volatile boolean searchCanceled = false;
+    private boolean principalVariationSearch = false;
+    private boolean moveOrdering = true;
+
+    private OrderingMoveListProviderPool<M> orderingMoveListProviders;
+    private SearchStatistics statistics;
+
+    private CancellationToken cancellationToken = new CancellationToken();
+    private boolean searchCanceled = false; // polled from the cancellation token
+    private int nodesUntilPoll = 0;
 
     public AlphaBetaPositionEvaluator(IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory) {
+        this(positionEvaluator, moveListFactory, null);
+    }
+
+    public AlphaBetaPositionEvaluator(IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory, TranspositionTable transpositionTable) {
         this.positionEvaluator = positionEvaluator;
         this.moveListFactory = moveListFactory;
+        this.transpositionTable = transpositionTable;
+    }
+
+    /** Searches the first move with the full window and the remaining moves with a null window, searching again if they fail high */
+    public AlphaBetaPositionEvaluator<M, P> setPrincipalVariationSearch(boolean principalVariationSearch) {
+        this.principalVariationSearch = principalVariationSearch;
+        return this;
+    }
+
+    /** Orders quiet moves by killer moves and history scores, which persist between searches, for games with move keys */
+    public AlphaBetaPositionEvaluator<M, P> setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+        return this;
+    }
+
+    /** Shares the killer and history tables with other evaluators and later searches */
+    public AlphaBetaPositionEvaluator<M, P> setOrderingMoveListProviders(OrderingMoveListProviderPool<M> orderingMoveListProviders) {
+        this.orderingMoveListProviders = orderingMoveListProviders;
+        return this;
+    }
+
+    /** Counts nodes, evaluations, transposition table hits and cutoffs into statistics shared with other evaluators */
+    public AlphaBetaPositionEvaluator<M, P> setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /** Stops the search when the token, or a token it was created from, is canceled */
+    public AlphaBetaPositionEvaluator<M, P> setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
     }
 
     @Override
     public double evaluate(P position, int plies, double alpha, double beta) {
-        return alphaBeta(moveListFactory.newAnalysisMoveListProvider(), position, plies, alpha, beta);
+        TranspositionTable table = position instanceof IHashablePosition ? transpositionTable : null;
+        if (!moveOrdering || !(position instanceof IMoveKeyPosition)) {
+            return alphaBeta(moveListFactory.newAnalysisMoveListProvider(), table, position, plies, alpha, beta);
+        }
+        if (orderingMoveListProviders == null) {
+            orderingMoveListProviders = new OrderingMoveListProviderPool<>(moveListFactory);
+        }
+        MoveListProvider<M> moveListProvider = orderingMoveListProviders.take();
+        try {
+            return alphaBeta(moveListProvider, table, position, plies, alpha, beta);
+        } finally {
+            orderingMoveListProviders.release(moveListProvider);
+        }
     }
 
-    private double alphaBeta(MoveListProvider<M> moveListProvider, P position, int depth, double alpha, double beta) {
-        if (searchCanceled) {
+    private double alphaBeta(MoveListProvider<M> moveListProvider, TranspositionTable table, P position, int depth, double alpha, double beta) {
+        if (pollCanceled()) {
             return 0;
         }
+        if (statistics != null) {
+            statistics.addNode();
+        }
 
         MoveList<M> possibleMoves = moveListProvider.getMoveList(depth);
         position.getPossibleMoves(possibleMoves);
         int numMoves = possibleMoves.size();
 
         if (numMoves == 0 || depth == 0) {
+            if (statistics != null) {
+                statistics.addEvaluation();
+            }
             return positionEvaluator.evaluate(position, possibleMoves);
         }
 
+        // Mate distance pruning: no move scores better than a win with it or worse than a loss after it
+        if (AnalysisResult.isGreater(beta, AnalysisResult.WIN_IN_ONE)) {
+            beta = AnalysisResult.WIN_IN_ONE;
+        }
+        if (AnalysisResult.isGreater(AnalysisResult.LOSS_IN_TWO, alpha)) {
+            alpha = AnalysisResult.LOSS_IN_TWO;
+        }
+        if (!AnalysisResult.isGreater(beta, alpha)) {
+            return alpha;
+        }
+
+        long hash = 0;
+        int firstMoveIndex = 0;
+        if (table != null) {
+            hash = ((IHashablePosition) position).getZobristHash();
+            if (table.probe(hash, transpositionEntry)) {
+                if (statistics != null) {
+                    statistics.addTranspositionHit();
+                }
+                if (transpositionEntry.depth >= depth && TranspositionTable.isCutoff(transpositionEntry, alpha, beta)) {
+                    return transpositionEntry.score;
+                }
+                if (transpositionEntry.moveIndex > 0 && transpositionEntry.moveIndex < numMoves) {
+                    firstMoveIndex = possibleMoves.getIndex(transpositionEntry.moveIndex);
+                }
+            }
+        }
+
         int parentPlayer = position.getCurrentPlayer();
+        double originalAlpha = alpha;
 
         boolean gameOver = true;
         double bestScore = AnalysisResult.LOSS;
+        int bestMoveIndex = firstMoveIndex;
         int i = 0;
         do {
-            M move = possibleMoves.get(i);
+            int moveIndex = i == 0 ? firstMoveIndex : i <= firstMoveIndex ? i - 1 : i; // search the transposition table move first
+            M move = possibleMoves.get(moveIndex);
             position.makeMove(move);
-            double score = parentPlayer == position.getCurrentPlayer() ? alphaBeta(moveListProvider, position, depth - 1, alpha, beta)
-                    : -alphaBeta(moveListProvider, position, depth - 1, -beta, -alpha);
+            double score;
+            if (principalVariationSearch && i > 0 && !AnalysisResult.isDraw(alpha)) {
+                score = search(moveListProvider, table, position, parentPlayer, depth, alpha, Math.nextUp(alpha));
+                if (AnalysisResult.isGreater(score, alpha) && AnalysisResult.isGreater(beta, score)) { // alpha < score < beta
+                    score = search(moveListProvider, table, position, parentPlayer, depth, alpha, beta);
+                }
+            } else {
+                score = search(moveListProvider, table, position, parentPlayer, depth, alpha, beta);
+            }
             position.unmakeMove(move);
 
             gameOver = gameOver && AnalysisResult.isGameOver(score);
             if (!AnalysisResult.isGreater(bestScore, score)) {
                 bestScore = score;
+                bestMoveIndex = moveIndex;
                 if (!AnalysisResult.isGreater(beta, bestScore)) { // alpha >= beta (fail-soft)
+                    if (statistics != null) {
+                        statistics.addBetaCutoff(i == 0);
+                    }
+                    if (moveIndex >= possibleMoves.numDynamicMoves()) {
+                        moveListProvider.recordCutoff(depth, position, move, depth);
+                    }
                     break;
                 }
                 if (AnalysisResult.isGreater(score, alpha)) {
@@ -62,14 +176,34 @@ public class AlphaBetaPositionEvaluator<M, P extends IPosition<M>> implements IA
         } while (i < numMoves);
 
         if (!gameOver && AnalysisResult.isDraw(bestScore)) {
-            return 0.0;
+            bestScore = 0.0;
+        }
+
+        if (table != null && !searchCanceled) {
+            table.store(hash, depth, TranspositionTable.getBound(bestScore, originalAlpha, beta), bestScore, possibleMoves.getGeneratedIndex(bestMoveIndex));
         }
 
         return bestScore;
     }
 
+    private double search(MoveListProvider<M> moveListProvider, TranspositionTable table, P position, int parentPlayer, int depth, double alpha, double beta) {
+        double childAlpha = AnalysisResult.toChild(alpha);
+        double childBeta = AnalysisResult.toChild(beta);
+        return AnalysisResult.fromChild(parentPlayer == position.getCurrentPlayer() ? alphaBeta(moveListProvider, table, position, depth - 1, childAlpha, childBeta)
+                : -alphaBeta(moveListProvider, table, position, depth - 1, -childBeta, -childAlpha));
+    }
+
+    /** Checks the token every {@link CancellationToken#POLL_INTERVAL} nodes; once canceled the search stays canceled */
+    private boolean pollCanceled() {
+        if (--nodesUntilPoll <= 0) {
+            nodesUntilPoll = CancellationToken.POLL_INTERVAL;
+            searchCanceled = cancellationToken.isCanceled();
+        }
+        return searchCanceled;
+    }
+
     @Override
     public void stopSearch() {
-        searchCanceled = true;
+        cancellationToken.cancel();
     }
 }
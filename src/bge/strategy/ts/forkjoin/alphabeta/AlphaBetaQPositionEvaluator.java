@@ -2,31 +2,144 @@ package bge.strategy.ts.forkjoin.alphabeta;
 
 import bge.analysis.AnalysisResult;
 import bge.analysis.IPositionEvaluator;
+import bge.analysis.PackedScore;
+import bge.analysis.SearchStatistics;
+import bge.igame.IHashablePosition;
+import bge.igame.IMoveKeyPosition;
+import bge.igame.INullMovePosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
 import bge.igame.MoveListProvider;
+import bge.igame.OrderingMoveListProviderPool;
+import bge.strategy.ts.CancellationToken;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable.TranspositionEntry;
 
 public class AlphaBetaQPositionEvaluator<M, P extends IPosition<M>> implements IAlphaBetaPositionEvaluator<M, P> {
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 3; // moves searched before quiet moves are reduced
+
     private final IPositionEvaluator<M, P> positionEvaluator;
     private final MoveListFactory<M> moveListFactory;
+    private final TranspositionTable transpositionTable;
+    private final TranspositionEntry transpositionEntry = new TranspositionEntry();
+
+    private boolean principalVariationSearch = false;
+    private boolean moveOrdering = true;
+    private boolean nullMovePruning = false;
+    private boolean lateMoveReductions = false;
+    private boolean packedScores = false;
 
-    private volatile boolean searchCanceled = false;
+    private OrderingMoveListProviderPool<M> orderingMoveListProviders;
+    private SearchStatistics statistics;
+
+    private CancellationToken cancellationToken = new CancellationToken();
+    private boolean searchCanceled = false; // polled from the cancellation token
+    private int nodesUntilPoll = 0;
 
     public AlphaBetaQPositionEvaluator(IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory) {
+        this(positionEvaluator, moveListFactory, null);
+    }
+
+    public AlphaBetaQPositionEvaluator(IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory, TranspositionTable transpositionTable) {
         this.positionEvaluator = positionEvaluator;
         this.moveListFactory = moveListFactory;
+        this.transpositionTable = transpositionTable;
+    }
+
+    /** Searches the first move with the full window and the remaining moves with a null window, searching again if they fail high */
+    public AlphaBetaQPositionEvaluator<M, P> setPrincipalVariationSearch(boolean principalVariationSearch) {
+        this.principalVariationSearch = principalVariationSearch;
+        return this;
+    }
+
+    /** Orders quiet moves by killer moves and history scores, which persist between searches, for games with move keys */
+    public AlphaBetaQPositionEvaluator<M, P> setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+        return this;
+    }
+
+    /** Fails high without searching a move if passing and searching to a reduced depth still fails high, for games in which passing is possible */
+    public AlphaBetaQPositionEvaluator<M, P> setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+        return this;
+    }
+
+    /** Searches quiet moves late in the list one ply shallower with a null window, searching again at full depth if they fail high */
+    public AlphaBetaQPositionEvaluator<M, P> setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+        return this;
+    }
+
+    /** Searches with scores packed into ints, which are converted from and to doubles only where the search enters and returns */
+    public AlphaBetaQPositionEvaluator<M, P> setPackedScores(boolean packedScores) {
+        this.packedScores = packedScores;
+        return this;
+    }
+
+    /** Shares the killer and history tables with other evaluators and later searches */
+    public AlphaBetaQPositionEvaluator<M, P> setOrderingMoveListProviders(OrderingMoveListProviderPool<M> orderingMoveListProviders) {
+        this.orderingMoveListProviders = orderingMoveListProviders;
+        return this;
+    }
+
+    /** Counts nodes, evaluations, transposition table hits and cutoffs into statistics shared with other evaluators */
+    public AlphaBetaQPositionEvaluator<M, P> setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /** Stops the search when the token, or a token it was created from, is canceled */
+    public AlphaBetaQPositionEvaluator<M, P> setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
     }
 
     @Override
     public double evaluate(P position, int plies, double alpha, double beta) {
-        return alphaBeta(moveListFactory.newAnalysisMoveListProvider(), position, 0, plies, alpha, beta, false);
+        TranspositionTable table = position instanceof IHashablePosition ? transpositionTable : null;
+        if (!moveOrdering || !(position instanceof IMoveKeyPosition)) {
+            return evaluate(moveListFactory.newAnalysisMoveListProvider(), table, position, plies, alpha, beta);
+        }
+        if (orderingMoveListProviders == null) {
+            orderingMoveListProviders = new OrderingMoveListProviderPool<>(moveListFactory);
+        }
+        MoveListProvider<M> moveListProvider = orderingMoveListProviders.take();
+        try {
+            return evaluate(moveListProvider, table, position, plies, alpha, beta);
+        } finally {
+            orderingMoveListProviders.release(moveListProvider);
+        }
     }
 
-    private double alphaBeta(MoveListProvider<M> moveListProvider, P position, int ply, int maxPly, double alpha, double beta, boolean quiescent) {
-        if (searchCanceled) {
+    private double evaluate(MoveListProvider<M> moveListProvider, TranspositionTable table, P position, int plies, double alpha, double beta) {
+        if (!packedScores) {
+            return alphaBeta(moveListProvider, table, position, 0, plies, alpha, beta, false, false);
+        }
+        int packedAlpha = PackedScore.boundOf(alpha);
+        int packedBeta = PackedScore.boundOf(beta);
+        int score = alphaBeta(moveListProvider, table, position, 0, plies, packedAlpha, packedBeta, false, false);
+        if (score >= packedBeta) { // the packed bound lies between two scores, so a score at or beyond it is returned as the bound itself
+            return beta;
+        } else if (score <= packedAlpha) {
+            return alpha;
+        }
+        return PackedScore.toDouble(score);
+    }
+
+    private double alphaBeta(MoveListProvider<M> moveListProvider, TranspositionTable table, P position, int ply, int maxPly, double alpha, double beta,
+            boolean quiescent, boolean afterNullMove) {
+        if (pollCanceled()) {
             return 0;
         }
+        if (statistics != null) {
+            if (quiescent) {
+                statistics.addQuiescenceNode();
+            } else {
+                statistics.addNode();
+            }
+        }
 
         MoveList<M> possibleMoves = moveListProvider.getMoveList(ply);
         position.getPossibleMoves(possibleMoves);
@@ -34,6 +147,9 @@ public class AlphaBetaQPositionEvaluator<M, P extends IPosition<M>> implements I
         int numMoves = quiescent ? numDynamicMoves : possibleMoves.size();
 
         if (numMoves == 0 || ply == maxPly || quiescent) {
+            if (statistics != null) {
+                statistics.addEvaluation();
+            }
             double score = positionEvaluator.evaluate(position, possibleMoves);
             if (numDynamicMoves == 0 || !AnalysisResult.isGreater(beta, score)) { // no moves or score >= beta
                 return score;
@@ -43,25 +159,87 @@ public class AlphaBetaQPositionEvaluator<M, P extends IPosition<M>> implements I
             numMoves = numDynamicMoves;
             quiescent = true;
             ++maxPly;
+        } else { // mate distance pruning: no move scores better than a win with it or worse than a loss after it
+            if (AnalysisResult.isGreater(beta, AnalysisResult.WIN_IN_ONE)) {
+                beta = AnalysisResult.WIN_IN_ONE;
+            }
+            if (AnalysisResult.isGreater(AnalysisResult.LOSS_IN_TWO, alpha)) {
+                alpha = AnalysisResult.LOSS_IN_TWO;
+            }
+            if (!AnalysisResult.isGreater(beta, alpha)) {
+                return alpha;
+            }
+        }
+
+        boolean useTable = table != null && !quiescent; // quiescent scores depend on the stand pat, so they are not stored
+        int depth = maxPly - ply;
+        long hash = 0;
+        int firstMoveIndex = 0;
+        if (useTable) {
+            hash = ((IHashablePosition) position).getZobristHash();
+            if (table.probe(hash, transpositionEntry)) {
+                if (statistics != null) {
+                    statistics.addTranspositionHit();
+                }
+                if (transpositionEntry.depth >= depth && TranspositionTable.isCutoff(transpositionEntry, alpha, beta)) {
+                    return transpositionEntry.score;
+                }
+                if (transpositionEntry.moveIndex > 0 && transpositionEntry.moveIndex < numMoves) {
+                    firstMoveIndex = possibleMoves.getIndex(transpositionEntry.moveIndex);
+                }
+            }
         }
 
         int parentPlayer = position.getCurrentPlayer();
 
+        if (nullMovePruning && !quiescent && !afterNullMove && depth > NULL_MOVE_REDUCTION && isNullMoveAllowed(position, beta)) {
+            INullMovePosition nullMovePosition = (INullMovePosition) position;
+            nullMovePosition.makeNullMove();
+            double score = search(moveListProvider, table, position, parentPlayer, ply, maxPly - NULL_MOVE_REDUCTION, Math.nextDown(beta), beta, false, true);
+            nullMovePosition.unmakeNullMove();
+            if (!AnalysisResult.isGreater(beta, score)) { // score >= beta
+                return beta;
+            }
+        }
+
+        double originalAlpha = alpha;
+
         boolean gameOver = numMoves == possibleMoves.size(); // only for quiescent searches that look at all moves
         double bestScore = AnalysisResult.LOSS;
+        int bestMoveIndex = firstMoveIndex;
         M move;
         int i = 0;
         do {
-            move = possibleMoves.get(i);
+            int moveIndex = i == 0 ? firstMoveIndex : i <= firstMoveIndex ? i - 1 : i; // search the transposition table move first
+            move = possibleMoves.get(moveIndex);
             position.makeMove(move);
-            double score = parentPlayer == position.getCurrentPlayer() ? alphaBeta(moveListProvider, position, ply + 1, maxPly, alpha, beta, quiescent)
-                    : -alphaBeta(moveListProvider, position, ply + 1, maxPly, -beta, -alpha, quiescent);
+            double score = 0;
+            boolean searched = false;
+            if (lateMoveReductions && !quiescent && i >= LMR_MIN_MOVES && depth >= LMR_MIN_DEPTH && moveIndex >= numDynamicMoves
+                    && !AnalysisResult.isDraw(alpha)) {
+                score = search(moveListProvider, table, position, parentPlayer, ply, maxPly - 1, alpha, Math.nextUp(alpha), false, false);
+                searched = !AnalysisResult.isGreater(score, alpha); // a reduced move that fails high is searched again at full depth
+            }
+            if (!searched && principalVariationSearch && i > 0 && !AnalysisResult.isDraw(alpha)) {
+                score = search(moveListProvider, table, position, parentPlayer, ply, maxPly, alpha, Math.nextUp(alpha), quiescent, false);
+                searched = !(AnalysisResult.isGreater(score, alpha) && AnalysisResult.isGreater(beta, score)); // alpha < score < beta
+            }
+            if (!searched) {
+                score = search(moveListProvider, table, position, parentPlayer, ply, maxPly, alpha, beta, quiescent, false);
+            }
             position.unmakeMove(move);
 
             gameOver = gameOver && AnalysisResult.isGameOver(score);
             if (!AnalysisResult.isGreater(bestScore, score)) {
                 bestScore = score;
+                bestMoveIndex = moveIndex;
                 if (!AnalysisResult.isGreater(beta, bestScore)) { // alpha >= beta
+                    if (statistics != null) {
+                        statistics.addBetaCutoff(i == 0);
+                    }
+                    if (!quiescent && moveIndex >= numDynamicMoves) {
+                        moveListProvider.recordCutoff(ply, position, move, depth);
+                    }
                     bestScore = beta;
                     break;
                 }
@@ -73,14 +251,194 @@ public class AlphaBetaQPositionEvaluator<M, P extends IPosition<M>> implements I
         } while (i < numMoves);
 
         if (!gameOver && AnalysisResult.isDraw(bestScore)) {
-            return 0.0;
+            bestScore = 0.0;
+        }
+
+        if (useTable && !searchCanceled) {
+            table.store(hash, depth, TranspositionTable.getBound(bestScore, originalAlpha, beta), bestScore, possibleMoves.getGeneratedIndex(bestMoveIndex));
+        }
+
+        return bestScore;
+    }
+
+    private double search(MoveListProvider<M> moveListProvider, TranspositionTable table, P position, int parentPlayer, int ply, int maxPly, double alpha,
+            double beta, boolean quiescent, boolean afterNullMove) {
+        double childAlpha = AnalysisResult.toChild(alpha);
+        double childBeta = AnalysisResult.toChild(beta);
+        return AnalysisResult.fromChild(parentPlayer == position.getCurrentPlayer()
+                ? alphaBeta(moveListProvider, table, position, ply + 1, maxPly, childAlpha, childBeta, quiescent, afterNullMove)
+                : -alphaBeta(moveListProvider, table, position, ply + 1, maxPly, -childBeta, -childAlpha, quiescent, afterNullMove));
+    }
+
+    private int alphaBeta(MoveListProvider<M> moveListProvider, TranspositionTable table, P position, int ply, int maxPly, int alpha, int beta,
+            boolean quiescent, boolean afterNullMove) {
+        if (pollCanceled()) {
+            return 0;
+        }
+        if (statistics != null) {
+            if (quiescent) {
+                statistics.addQuiescenceNode();
+            } else {
+                statistics.addNode();
+            }
+        }
+
+        MoveList<M> possibleMoves = moveListProvider.getMoveList(ply);
+        position.getPossibleMoves(possibleMoves);
+        int numDynamicMoves = possibleMoves.numDynamicMoves();
+        int numMoves = quiescent ? numDynamicMoves : possibleMoves.size();
+
+        if (numMoves == 0 || ply == maxPly || quiescent) {
+            if (statistics != null) {
+                statistics.addEvaluation();
+            }
+            int score = PackedScore.valueOf(positionEvaluator.evaluate(position, possibleMoves));
+            if (numDynamicMoves == 0 || score >= beta) {
+                return score;
+            } else if (score > alpha) {
+                alpha = score;
+            }
+            numMoves = numDynamicMoves;
+            quiescent = true;
+            ++maxPly;
+        } else {
+            beta = Math.min(beta, PackedScore.WIN_IN_ONE);
+            alpha = Math.max(alpha, PackedScore.LOSS_IN_TWO);
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+
+        boolean useTable = table != null && !quiescent;
+        int depth = maxPly - ply;
+        long hash = 0;
+        int firstMoveIndex = 0;
+        if (useTable) {
+            hash = ((IHashablePosition) position).getZobristHash();
+            if (table.probe(hash, transpositionEntry)) {
+                if (statistics != null) {
+                    statistics.addTranspositionHit();
+                }
+                if (transpositionEntry.depth >= depth && TranspositionTable.isCutoff(transpositionEntry, alpha, beta)) {
+                    return (int) transpositionEntry.score;
+                }
+                if (transpositionEntry.moveIndex > 0 && transpositionEntry.moveIndex < numMoves) {
+                    firstMoveIndex = possibleMoves.getIndex(transpositionEntry.moveIndex);
+                }
+            }
+        }
+
+        int parentPlayer = position.getCurrentPlayer();
+
+        if (nullMovePruning && !quiescent && !afterNullMove && depth > NULL_MOVE_REDUCTION && isNullMoveAllowed(position, beta)) {
+            INullMovePosition nullMovePosition = (INullMovePosition) position;
+            nullMovePosition.makeNullMove();
+            int score = search(moveListProvider, table, position, parentPlayer, ply, maxPly - NULL_MOVE_REDUCTION, PackedScore.nullWindowAlpha(beta), beta,
+                    false, true);
+            nullMovePosition.unmakeNullMove();
+            if (score >= beta) {
+                return beta;
+            }
+        }
+
+        int originalAlpha = alpha;
+
+        boolean gameOver = numMoves == possibleMoves.size();
+        int bestScore = PackedScore.LOSS;
+        int bestMoveIndex = firstMoveIndex;
+        M move;
+        int i = 0;
+        do {
+            int moveIndex = i == 0 ? firstMoveIndex : i <= firstMoveIndex ? i - 1 : i;
+            move = possibleMoves.get(moveIndex);
+            position.makeMove(move);
+            int score = 0;
+            boolean searched = false;
+            if (lateMoveReductions && !quiescent && i >= LMR_MIN_MOVES && depth >= LMR_MIN_DEPTH && moveIndex >= numDynamicMoves
+                    && alpha != PackedScore.DRAW) {
+                score = search(moveListProvider, table, position, parentPlayer, ply, maxPly - 1, alpha, PackedScore.nullWindowBeta(alpha), false, false);
+                searched = score <= alpha;
+            }
+            if (!searched && principalVariationSearch && i > 0 && alpha != PackedScore.DRAW) {
+                score = search(moveListProvider, table, position, parentPlayer, ply, maxPly, alpha, PackedScore.nullWindowBeta(alpha), quiescent, false);
+                searched = score <= alpha || score >= beta;
+            }
+            if (!searched) {
+                score = search(moveListProvider, table, position, parentPlayer, ply, maxPly, alpha, beta, quiescent, false);
+            }
+            position.unmakeMove(move);
+
+            gameOver = gameOver && PackedScore.isGameOver(score);
+            if (score >= bestScore) {
+                bestScore = score;
+                bestMoveIndex = moveIndex;
+                if (bestScore >= beta) {
+                    if (statistics != null) {
+                        statistics.addBetaCutoff(i == 0);
+                    }
+                    if (!quiescent && moveIndex >= numDynamicMoves) {
+                        moveListProvider.recordCutoff(ply, position, move, depth);
+                    }
+                    bestScore = beta;
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+            }
+            ++i;
+        } while (i < numMoves);
+
+        if (!gameOver && bestScore == PackedScore.DRAW) {
+            bestScore = 0;
+        }
+
+        if (useTable && !searchCanceled) {
+            table.store(hash, depth, TranspositionTable.getBound(bestScore, originalAlpha, beta), bestScore, possibleMoves.getGeneratedIndex(bestMoveIndex));
         }
 
         return bestScore;
     }
 
+    private int search(MoveListProvider<M> moveListProvider, TranspositionTable table, P position, int parentPlayer, int ply, int maxPly, int alpha, int beta,
+            boolean quiescent, boolean afterNullMove) {
+        int childAlpha = PackedScore.toChild(alpha);
+        int childBeta = PackedScore.toChild(beta);
+        if (parentPlayer == position.getCurrentPlayer()) {
+            return PackedScore.fromChild(alphaBeta(moveListProvider, table, position, ply + 1, maxPly, childAlpha, childBeta, quiescent, afterNullMove));
+        }
+        int score = alphaBeta(moveListProvider, table, position, ply + 1, maxPly, PackedScore.negate(childBeta), PackedScore.negate(childAlpha), quiescent,
+                afterNullMove);
+        return PackedScore.fromChild(PackedScore.negate(score));
+    }
+
+    private static boolean isNullMoveAllowed(IPosition<?> position, int beta) {
+        if (!(position instanceof INullMovePosition) || PackedScore.isGameOver(beta)) {
+            return false;
+        }
+        INullMovePosition nullMovePosition = (INullMovePosition) position;
+        return nullMovePosition.canPass() && !nullMovePosition.isZugzwangLikely();
+    }
+
+    private static boolean isNullMoveAllowed(IPosition<?> position, double beta) {
+        if (!(position instanceof INullMovePosition) || AnalysisResult.isGameOver(beta) || AnalysisResult.isDraw(beta)) {
+            return false;
+        }
+        INullMovePosition nullMovePosition = (INullMovePosition) position;
+        return nullMovePosition.canPass() && !nullMovePosition.isZugzwangLikely();
+    }
+
+    /** Checks the token every {@link CancellationToken#POLL_INTERVAL} nodes; once canceled the search stays canceled */
+    private boolean pollCanceled() {
+        if (--nodesUntilPoll <= 0) {
+            nodesUntilPoll = CancellationToken.POLL_INTERVAL;
+            searchCanceled = cancellationToken.isCanceled();
+        }
+        return searchCanceled;
+    }
+
     @Override
     public void stopSearch() {
-        searchCanceled = true;
+        cancellationToken.cancel();
     }
 }
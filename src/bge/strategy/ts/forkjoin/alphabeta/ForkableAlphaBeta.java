@@ -1,10 +1,14 @@
 package bge.strategy.ts.forkjoin.alphabeta;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import bge.analysis.AnalysisResult;
 import bge.analysis.MoveWithScore;
+import bge.analysis.PackedScore;
+import bge.igame.IHashablePosition;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
@@ -13,6 +17,8 @@ import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory;
 import bge.strategy.ts.forkjoin.IForkable;
 import bge.strategy.ts.forkjoin.IJoin;
 import bge.strategy.ts.forkjoin.minmax.MinimaxForker;
+import bge.strategy.ts.forkjoin.minmax.MinimaxForker.MinimaxJoin;
+import gt.util.Pair;
 
 public class ForkableAlphaBeta<M, P extends IPosition<M>> implements IForkable<M> {
     private final P position;
@@ -24,11 +30,35 @@ public class ForkableAlphaBeta<M, P extends IPosition<M>> implements IForkable<M
     private final IAlphaBetaPositionEvaluator<M, P> strategy;
     private final ForkableTreeSearchFactory<M, P> forkableFactory;
 
+    private final double alpha;
+    private final double beta;
+    private final SplitPoint splitPoint; // null unless the young brothers wait or the root has a window
+    private final int multiPv; // the number of root moves given exact scores, or 0 for all of them
+    private volatile SplitPoint childSplitPoint = null;
+
+    private volatile boolean searchStarted = false;
     private boolean searchCanceled = false;
 
-    @SuppressWarnings("unchecked")
     public ForkableAlphaBeta(P position, MoveList<M> movesToSearch, MoveListFactory<M> moveListFactory, int plies,
             IAlphaBetaPositionEvaluator<M, P> strategy, ForkableTreeSearchFactory<M, P> forkableFactory) {
+        this(position, movesToSearch, moveListFactory, plies, strategy, forkableFactory, AnalysisResult.LOSS, AnalysisResult.WIN);
+    }
+
+    public ForkableAlphaBeta(P position, MoveList<M> movesToSearch, MoveListFactory<M> moveListFactory, int plies,
+            IAlphaBetaPositionEvaluator<M, P> strategy, ForkableTreeSearchFactory<M, P> forkableFactory, double alpha, double beta) {
+        this(position, movesToSearch, moveListFactory, plies, strategy, forkableFactory, alpha, beta, null, 0);
+    }
+
+    /** A root that gives exact scores only to its best multiPv moves */
+    public ForkableAlphaBeta(P position, MoveList<M> movesToSearch, MoveListFactory<M> moveListFactory, int plies,
+            IAlphaBetaPositionEvaluator<M, P> strategy, ForkableTreeSearchFactory<M, P> forkableFactory, double alpha, double beta, int multiPv) {
+        this(position, movesToSearch, moveListFactory, plies, strategy, forkableFactory, alpha, beta, null, multiPv);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ForkableAlphaBeta(P position, MoveList<M> movesToSearch, MoveListFactory<M> moveListFactory, int plies,
+            IAlphaBetaPositionEvaluator<M, P> strategy, ForkableTreeSearchFactory<M, P> forkableFactory, double alpha, double beta, SplitPoint splitPoint,
+            int multiPv) {
         this.position = (P) position.createCopy();
         this.movesToSearch = movesToSearch;
         branchIndex = new AtomicInteger(0);
@@ -36,30 +66,61 @@ public class ForkableAlphaBeta<M, P extends IPosition<M>> implements IForkable<M
         this.plies = plies;
         this.strategy = strategy;
         this.forkableFactory = forkableFactory;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.splitPoint = splitPoint;
+        this.multiPv = multiPv;
+        if (splitPoint != null) {
+            splitPoint.addBrother(this);
+        }
     }
 
     @Override
     public AnalysisResult<M> search() {
-        if (!isForkable()) {
-            AnalysisResult<M> result = new AnalysisResult<>(position.getCurrentPlayer());
-            result.addMoveWithScore(new MoveWithScore<>(null, strategy.evaluate(position, plies)));
-            result.searchCompleted();
+        if (!IForkable.super.isForkable()) {
+            AnalysisResult<M> result = new AnalysisResult<>(position.getCurrentPlayer(), 1);
+            result.addMoveWithScore(null, strategy.evaluate(position, plies, alpha, beta));
+            if (!isSearchCanceled()) {
+                result.searchCompleted();
+            }
             return result;
         }
+        searchStarted = true;
+        AnalysisResult<M> result = searchBranches(new AnalysisResult<>(position.getCurrentPlayer(), movesToSearch.size()), movesToSearch.size());
+        if (!isSearchCanceled()) {
+            storeBestMove(result);
+        }
+        return result;
+    }
+
+    private AnalysisResult<M> searchBranches(AnalysisResult<M> analysisResult, int endIndex) {
         int parentPlayer = position.getCurrentPlayer();
-        double alpha = AnalysisResult.LOSS;
-        double beta = AnalysisResult.WIN;
-        AnalysisResult<M> analysisResult = new AnalysisResult<>(parentPlayer);
+        double alpha = this.alpha;
+        double beta = this.beta;
         do {
+            if (splitPoint != null) { // a brother may have narrowed the window since the last move
+                if (splitPoint.isCutoff()) {
+                    return cutoffResult();
+                }
+                double splitAlpha = splitPoint.getAlpha(parentPlayer);
+                if (AnalysisResult.isGreater(splitAlpha, alpha)) {
+                    alpha = splitAlpha;
+                }
+                beta = splitPoint.getBeta(parentPlayer);
+            }
             M move = movesToSearch.get(branchIndex.get());
             position.makeMove(move);
-            double score = parentPlayer == position.getCurrentPlayer() ? strategy.evaluate(position, plies - 1, alpha, beta)
-                    : -strategy.evaluate(position, plies - 1, -beta, -alpha);
+            double childAlpha = AnalysisResult.toChild(alpha);
+            double childBeta = AnalysisResult.toChild(beta);
+            double score = AnalysisResult.fromChild(parentPlayer == position.getCurrentPlayer() ? strategy.evaluate(position, plies - 1, childAlpha, childBeta)
+                    : -strategy.evaluate(position, plies - 1, -childBeta, -childAlpha));
             position.unmakeMove(move);
-            if (searchCanceled) { // we need to check search canceled after making the call to evaluate
+            if (isSearchCanceled()) { // we need to check search canceled after making the call to evaluate
                 break;
+            } else if (splitPoint != null && splitPoint.isCutoff()) { // the score may be from a stopped evaluation
+                return cutoffResult();
             } else {
-                analysisResult.addMoveWithScore(new MoveWithScore<>(move, score));
+                analysisResult.addMoveWithScore(move, score);
                 if (AnalysisResult.isGreater(score, alpha)) {
                     alpha = score;
                 }
@@ -68,7 +129,7 @@ public class ForkableAlphaBeta<M, P extends IPosition<M>> implements IForkable<M
                     break;
                 }
             }
-        } while (branchIndex.incrementAndGet() < movesToSearch.size());
+        } while (branchIndex.incrementAndGet() < endIndex);
 
         if (branchIndex.get() == movesToSearch.size()) {
             analysisResult.searchCompleted();
@@ -77,6 +138,62 @@ public class ForkableAlphaBeta<M, P extends IPosition<M>> implements IForkable<M
         return analysisResult;
     }
 
+    /** Stores the best move of a completed node in the transposition table, as the sequential search does, so that principal variations can follow it */
+    private void storeBestMove(AnalysisResult<M> result) {
+        TranspositionTable transpositionTable = forkableFactory.getTranspositionTable();
+        if (transpositionTable == null || !(position instanceof IHashablePosition) || !result.isSearchComplete() || result.getNumMoves() == 0
+                || splitPoint != null && splitPoint.isCutoff()) { // a cutoff may have left brothers without scores
+            return;
+        }
+        int player = position.getCurrentPlayer();
+        MoveWithScore<M> bestMove = result.getBestMove(player);
+        MoveList<M> possibleMoves = moveListFactory.newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        int moveIndex = 0;
+        while (moveIndex < possibleMoves.size() && !possibleMoves.get(moveIndex).equals(bestMove.move)) {
+            ++moveIndex;
+        }
+        if (moveIndex == possibleMoves.size()) {
+            return;
+        }
+        double alpha = this.alpha;
+        double beta = this.beta;
+        if (splitPoint != null) { // the narrowest window the brothers have searched with
+            double splitAlpha = splitPoint.getAlpha(player);
+            double splitBeta = splitPoint.getBeta(player);
+            alpha = AnalysisResult.isGreater(splitAlpha, alpha) ? splitAlpha : alpha;
+            beta = AnalysisResult.isGreater(beta, splitBeta) ? splitBeta : beta;
+        }
+        long hash = ((IHashablePosition) position).getZobristHash();
+        if (forkableFactory.isPackedScores()) {
+            int score = PackedScore.valueOf(bestMove.score);
+            transpositionTable.store(hash, plies, TranspositionTable.getBound(score, PackedScore.boundOf(alpha), PackedScore.boundOf(beta)), score, moveIndex);
+        } else {
+            transpositionTable.store(hash, plies, TranspositionTable.getBound(bestMove.score, alpha, beta), bestMove.score, moveIndex);
+        }
+    }
+
+    /** A brother refuted the parent, so this node does not contribute a score */
+    private AnalysisResult<M> cutoffResult() {
+        branchIndex.set(movesToSearch.size());
+        AnalysisResult<M> result = new AnalysisResult<>(position.getCurrentPlayer(), 1);
+        result.searchCompleted();
+        return result;
+    }
+
+    void cutoff() {
+        strategy.stopSearch();
+        SplitPoint split = childSplitPoint;
+        if (split != null) {
+            split.cutoff();
+        }
+    }
+
+    /** Canceled on its own when forked or stopped, or with every other search of the factory */
+    private boolean isSearchCanceled() {
+        return searchCanceled || forkableFactory.getCancellationToken().isCanceled();
+    }
+
     @Override
     public void stopSearch() {
         searchCanceled = true;
@@ -94,9 +211,78 @@ public class ForkableAlphaBeta<M, P extends IPosition<M>> implements IForkable<M
     }
 
     @Override
-    public List<ForkJoinNode<M>> fork(IJoin<M> parentJoin, M parentMove, AnalysisResult<M> currentPartial) {
+    public boolean isForkable() {
+        if (splitPoint == null || !forkableFactory.isYoungBrothersWait()) {
+            return IForkable.super.isForkable();
+        }
+        // Young brothers wait until the eldest brother has been searched, which fork will do first if the search has not started
+        return IForkable.super.isForkable() && (branchIndex.get() > 0 || !searchStarted);
+    }
+
+    @Override
+    public List<ForkJoinNode<M>> fork(IJoin<M> forkJoin, M parentMove, AnalysisResult<M> currentPartial) {
+        IJoin<M> parentJoin = (canceled, moveWithResult) -> {
+            if (!canceled && !forkableFactory.getCancellationToken().isCanceled()) { // the node itself was stopped when it was forked
+                storeBestMove(moveWithResult.getSecond());
+            }
+            forkJoin.join(canceled, moveWithResult);
+        };
         AnalysisResult<M> partialResult = currentPartial == null ? new AnalysisResult<>(position.getCurrentPlayer()) : currentPartial;
+        int player = position.getCurrentPlayer();
+        boolean fullWindow = alpha == AnalysisResult.LOSS && beta == AnalysisResult.WIN;
+        if (splitPoint == null && multiPv > 0) {
+            return forkYoungBrothers(SplitPoint.newMultiPvRootSplitPoint(player, alpha, beta, multiPv), parentJoin, parentMove, partialResult);
+        }
+        if (splitPoint == null && (forkableFactory.isYoungBrothersWait() || !fullWindow)) { // the root
+            return forkYoungBrothers(SplitPoint.newRootSplitPoint(player, alpha, beta), parentJoin, parentMove, partialResult);
+        }
+        if (!forkableFactory.isYoungBrothersWait()) {
+            MoveList<M> unanalyzedMoves = movesToSearch.subList(branchIndex.get());
+            return MinimaxForker.fork(forkableFactory, position, unanalyzedMoves, moveListFactory, plies, parentJoin, parentMove, partialResult);
+        }
+
+        if (!searchStarted) { // search the eldest brother before the young brothers
+            searchStarted = true;
+            partialResult = searchBranches(partialResult, 1);
+            if (isSearchCanceled() || getRemainingBranches() == 0) {
+                parentJoin.join(isSearchCanceled(), Pair.valueOf(parentMove, partialResult));
+                return Collections.emptyList();
+            }
+        }
+
+        double alpha = splitPoint.getAlpha(player);
+        if (partialResult.getNumMoves() > 0 && AnalysisResult.isGreater(partialResult.getBestScore(player), alpha)) {
+            alpha = partialResult.getBestScore(player);
+        }
+        childSplitPoint = new SplitPoint(splitPoint, player, alpha, splitPoint.getBeta(player));
+        return forkYoungBrothers(childSplitPoint, parentJoin, parentMove, partialResult);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ForkJoinNode<M>> forkYoungBrothers(SplitPoint split, IJoin<M> parentJoin, M parentMove, AnalysisResult<M> partialResult) {
         MoveList<M> unanalyzedMoves = movesToSearch.subList(branchIndex.get());
-        return MinimaxForker.fork(forkableFactory, position, unanalyzedMoves, moveListFactory, plies, parentJoin, parentMove, partialResult);
+        MinimaxJoin<M> minimaxJoin = new MinimaxJoin<>(parentJoin, parentMove, partialResult, unanalyzedMoves.size(), forkableFactory.getStatistics());
+        forkableFactory.getStatistics().addForks(unanalyzedMoves.size());
+        IJoin<M> join = (canceled, moveWithResult) -> {
+            AnalysisResult<M> result = moveWithResult.getSecond();
+            if (!canceled && result.getNumMoves() > 0 && result.isSearchComplete()) {
+                split.raiseAlpha(AnalysisResult.fromChild(result.getBestScore(partialResult.getPlayer())));
+            }
+            minimaxJoin.join(canceled, moveWithResult);
+        };
+        List<ForkJoinNode<M>> forks = new ArrayList<>();
+        int i = 0;
+        do {
+            M move = unanalyzedMoves.get(i);
+            position.makeMove(move);
+            MoveList<M> subMoves = moveListFactory.newAnalysisMoveList();
+            position.getPossibleMoves(subMoves);
+            IForkable<M> fork = new ForkableAlphaBeta<>(position, subMoves, moveListFactory, plies - 1,
+                    (IAlphaBetaPositionEvaluator<M, P>) forkableFactory.newStrategy(), forkableFactory, AnalysisResult.LOSS, AnalysisResult.WIN, split, 0);
+            forks.add(new ForkJoinNode<>(move, fork, join));
+            position.unmakeMove(move);
+            ++i;
+        } while (i < unanalyzedMoves.size());
+        return forks;
     }
 }
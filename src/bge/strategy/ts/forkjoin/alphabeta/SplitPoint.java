@@ -0,0 +1,116 @@
+package bge.strategy.ts.forkjoin.alphabeta;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import bge.analysis.AnalysisResult;
+
+/** The window shared by the younger brothers of a node that has been split after searching its eldest brother */
+public class SplitPoint {
+    private final SplitPoint parent;
+    private final int player;
+    private final AtomicLong alphaBits;
+    private final double beta;
+    private final boolean shared;
+    private final double[] bestScores; // the best scores joined at a multi-PV root, best first
+    private int numBestScores = 0;
+
+    private final Queue<ForkableAlphaBeta<?, ?>> brothers = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean cutoff = false;
+
+    public SplitPoint(SplitPoint parent, int player, double alpha, double beta) {
+        this(parent, player, alpha, beta, true, null);
+    }
+
+    private SplitPoint(SplitPoint parent, int player, double alpha, double beta, boolean shared, double[] bestScores) {
+        this.parent = parent;
+        this.player = player;
+        alphaBits = new AtomicLong(Double.doubleToRawLongBits(alpha));
+        this.beta = beta;
+        this.shared = shared;
+        this.bestScores = bestScores;
+    }
+
+    /** The root searches every move with its own window so that each root move within the window has an exact score */
+    public static SplitPoint newRootSplitPoint(int player, double alpha, double beta) {
+        return new SplitPoint(null, player, alpha, beta, false, null);
+    }
+
+    /** A root that raises alpha to the worst of its best multiPv scores, so that only those moves have exact scores */
+    public static SplitPoint newMultiPvRootSplitPoint(int player, double alpha, double beta, int multiPv) {
+        return new SplitPoint(null, player, alpha, beta, true, new double[multiPv]);
+    }
+
+    public double getAlpha() {
+        return Double.longBitsToDouble(alphaBits.get());
+    }
+
+    /** The alpha of a brother, whose current player is given, after the move from the split position */
+    public double getAlpha(int currentPlayer) {
+        return currentPlayer == player ? AnalysisResult.toChild(getAlpha()) : -AnalysisResult.toChild(beta);
+    }
+
+    public double getBeta(int currentPlayer) {
+        return currentPlayer == player ? AnalysisResult.toChild(beta) : -AnalysisResult.toChild(getAlpha());
+    }
+
+    public void addBrother(ForkableAlphaBeta<?, ?> brother) {
+        brothers.add(brother);
+        if (isCutoff()) { // the brother may have missed the cutoff
+            brother.cutoff();
+        }
+    }
+
+    /** Raises alpha with the score of a joined brother and stops the other brothers if it fails high */
+    public void raiseAlpha(double score) {
+        if (!shared) {
+            return;
+        }
+        if (bestScores != null) {
+            score = addBestScore(score);
+        }
+        long currentBits;
+        do {
+            currentBits = alphaBits.get();
+            if (!AnalysisResult.isGreater(score, Double.longBitsToDouble(currentBits))) {
+                return;
+            }
+        } while (!alphaBits.compareAndSet(currentBits, Double.doubleToRawLongBits(score)));
+
+        if (!AnalysisResult.isGreater(beta, score)) { // alpha >= beta
+            cutoff();
+        }
+    }
+
+    /** Returns the worst of the best scores once there are multiPv of them, or LOSS until then */
+    private double addBestScore(double score) {
+        synchronized (bestScores) {
+            int i = Math.min(numBestScores, bestScores.length - 1);
+            if (numBestScores == bestScores.length && !AnalysisResult.isGreater(score, bestScores[i])) {
+                return bestScores[i];
+            }
+            while (i > 0 && AnalysisResult.isGreater(score, bestScores[i - 1])) {
+                bestScores[i] = bestScores[i - 1];
+                --i;
+            }
+            bestScores[i] = score;
+            if (numBestScores < bestScores.length) {
+                ++numBestScores;
+            }
+            return numBestScores == bestScores.length ? bestScores[bestScores.length - 1] : AnalysisResult.LOSS;
+        }
+    }
+
+    public void cutoff() {
+        cutoff = true;
+        for (ForkableAlphaBeta<?, ?> brother : brothers) {
+            brother.cutoff();
+        }
+    }
+
+    public boolean isCutoff() {
+        return cutoff || parent != null && parent.isCutoff();
+    }
+}
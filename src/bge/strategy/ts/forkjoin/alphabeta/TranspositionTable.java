@@ -0,0 +1,128 @@
+package bge.strategy.ts.forkjoin.alphabeta;
+
+import java.util.Arrays;
+
+import bge.analysis.AnalysisResult;
+
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    public static final int NO_MOVE = -1;
+
+    private static final int LONGS_PER_ENTRY = 3; // key ^ score ^ data, score, data
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+
+    private static final int BOUND_BITS = 2;
+    private static final int DEPTH_BITS = 8;
+    private static final int MOVE_BITS = 16;
+
+    private static final int DEPTH_SHIFT = BOUND_BITS;
+    private static final int MOVE_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+
+    private static final long BOUND_MASK = (1L << BOUND_BITS) - 1;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    private static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+
+    public static final int MAX_DEPTH = (int) DEPTH_MASK;
+    public static final int MAX_MOVE_INDEX = (int) MOVE_MASK - 1;
+
+    private final long[] entries;
+    private final long indexMask;
+
+    public TranspositionTable(int sizeInMb) {
+        long maxEntries = Math.max(1, ((long) sizeInMb << 20) / BYTES_PER_ENTRY);
+        int numEntries = Integer.highestOneBit((int) Math.min(maxEntries, Integer.MAX_VALUE / LONGS_PER_ENTRY));
+        entries = new long[numEntries * LONGS_PER_ENTRY];
+        indexMask = numEntries - 1;
+    }
+
+    public int getNumEntries() {
+        return entries.length / LONGS_PER_ENTRY;
+    }
+
+    // Entries are written without locking; a torn entry fails the key check and is treated as a miss
+    public boolean probe(long hash, TranspositionEntry entry) {
+        int index = (int) (hash & indexMask) * LONGS_PER_ENTRY;
+        long key = entries[index];
+        long score = entries[index + 1];
+        long data = entries[index + 2];
+        if ((key ^ score ^ data) != hash || (data & BOUND_MASK) == 0) {
+            return false;
+        }
+        entry.score = Double.longBitsToDouble(score);
+        entry.bound = (int) (data & BOUND_MASK);
+        entry.depth = (int) ((data >>> DEPTH_SHIFT) & DEPTH_MASK);
+        entry.moveIndex = (int) ((data >>> MOVE_SHIFT) & MOVE_MASK) - 1;
+        return true;
+    }
+
+    public void store(long hash, int depth, int bound, double score, int moveIndex) {
+        if (depth > MAX_DEPTH || moveIndex > MAX_MOVE_INDEX) {
+            return;
+        }
+        int index = (int) (hash & indexMask) * LONGS_PER_ENTRY;
+        long scoreBits = Double.doubleToRawLongBits(score);
+        long data = bound | ((long) depth << DEPTH_SHIFT) | ((long) (moveIndex + 1) << MOVE_SHIFT);
+        entries[index] = hash ^ scoreBits ^ data;
+        entries[index + 1] = scoreBits;
+        entries[index + 2] = data;
+    }
+
+    public static boolean isCutoff(TranspositionEntry entry, double alpha, double beta) {
+        switch (entry.bound) {
+        case EXACT:
+            return true;
+        case LOWER_BOUND:
+            return !AnalysisResult.isGreater(beta, entry.score); // score >= beta
+        case UPPER_BOUND:
+            return !AnalysisResult.isGreater(entry.score, alpha); // score <= alpha
+        default:
+            return false;
+        }
+    }
+
+    public static int getBound(double score, double alpha, double beta) {
+        if (!AnalysisResult.isGreater(beta, score)) {
+            return LOWER_BOUND;
+        } else if (!AnalysisResult.isGreater(score, alpha)) {
+            return UPPER_BOUND;
+        }
+        return EXACT;
+    }
+
+    /** For searches with packed scores, which store their scores as doubles */
+    public static boolean isCutoff(TranspositionEntry entry, int alpha, int beta) {
+        switch (entry.bound) {
+        case EXACT:
+            return true;
+        case LOWER_BOUND:
+            return (int) entry.score >= beta;
+        case UPPER_BOUND:
+            return (int) entry.score <= alpha;
+        default:
+            return false;
+        }
+    }
+
+    public static int getBound(int score, int alpha, int beta) {
+        if (score >= beta) {
+            return LOWER_BOUND;
+        } else if (score <= alpha) {
+            return UPPER_BOUND;
+        }
+        return EXACT;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    public static class TranspositionEntry {
+        public double score;
+        public int bound;
+        public int depth;
+        public int moveIndex;
+    }
+}
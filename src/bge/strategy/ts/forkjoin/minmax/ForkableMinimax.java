@@ -4,7 +4,6 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import bge.analysis.AnalysisResult;
-import bge.analysis.MoveWithScore;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
@@ -41,23 +40,25 @@ public class ForkableMinimax<M, P extends IPosition<M>> implements IForkable<M>
     @Override
     public AnalysisResult<M> search() {
         if (!isForkable()) {
-            AnalysisResult<M> result = new AnalysisResult<>(position.getCurrentPlayer());
-            result.addMoveWithScore(new MoveWithScore<>(null, strategy.evaluate(position, plies)));
-            result.searchCompleted();
+            AnalysisResult<M> result = new AnalysisResult<>(position.getCurrentPlayer(), 1);
+            result.addMoveWithScore(null, strategy.evaluate(position, plies));
+            if (!isSearchCanceled()) {
+                result.searchCompleted();
+            }
             return result;
         }
         int parentPlayer = position.getCurrentPlayer();
-        AnalysisResult<M> analysisResult = new AnalysisResult<>(parentPlayer);
+        AnalysisResult<M> analysisResult = new AnalysisResult<>(parentPlayer, movesToSearch.size());
         do {
             M move = movesToSearch.get(branchIndex.get());
             position.makeMove(move);
             double evaluate = strategy.evaluate(position, plies - 1);
-            double score = searchCanceled ? 0 : parentPlayer == position.getCurrentPlayer() ? evaluate : -evaluate;
+            double score = isSearchCanceled() ? 0 : AnalysisResult.fromChild(parentPlayer == position.getCurrentPlayer() ? evaluate : -evaluate);
             position.unmakeMove(move);
-            if (searchCanceled) { // we need to check search canceled after making the call to evaluate
+            if (isSearchCanceled()) { // we need to check search canceled after making the call to evaluate
                 break;
             } else {
-                analysisResult.addMoveWithScore(new MoveWithScore<>(move, score));
+                analysisResult.addMoveWithScore(move, score);
             }
         } while (branchIndex.incrementAndGet() < movesToSearch.size());
 
@@ -68,6 +69,11 @@ public class ForkableMinimax<M, P extends IPosition<M>> implements IForkable<M>
         return analysisResult;
     }
 
+    /** Canceled on its own when forked or stopped, or with every other search of the factory */
+    private boolean isSearchCanceled() {
+        return searchCanceled || forkableFactory.getCancellationToken().isCanceled();
+    }
+
     @Override
     public void stopSearch() {
         searchCanceled = true;
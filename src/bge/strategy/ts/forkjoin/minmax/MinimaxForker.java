@@ -8,7 +8,7 @@ import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import bge.analysis.AnalysisResult;
-import bge.analysis.MoveWithScore;
+import bge.analysis.SearchStatistics;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
@@ -22,7 +22,8 @@ public class MinimaxForker {
     public static <M, P extends IPosition<M>> List<ForkJoinNode<M>> fork(ForkableTreeSearchFactory<M, P> forkableFactory, P position,
             MoveList<M> unanalyzedMoves, MoveListFactory<M> moveListFactory, int plies, IJoin<M> parentJoin, M parentMove, AnalysisResult<M> partialResult) {
         int expectedResults = unanalyzedMoves.size();
-        MinimaxJoin<M> join = new MinimaxJoin<>(parentJoin, parentMove, partialResult, expectedResults);
+        MinimaxJoin<M> join = new MinimaxJoin<>(parentJoin, parentMove, partialResult, expectedResults, forkableFactory.getStatistics());
+        forkableFactory.getStatistics().addForks(expectedResults);
         List<ForkJoinNode<M>> forks = new ArrayList<>();
         int i = 0;
         do {
@@ -42,29 +43,30 @@ public class MinimaxForker {
         for (Entry<M, AnalysisResult<M>> moveWithResult : movesWithResults.entrySet()) {
             M move = moveWithResult.getKey();
             AnalysisResult<M> result = moveWithResult.getValue();
-            MoveWithScore<M> moveWithScore = result.getBestMove(partialResult.getPlayer());
-            if (moveWithScore != null && result.isSearchComplete()) {
-                partialResult.addMoveWithScore(new MoveWithScore<>(move, moveWithScore.score));
+            if (result.getNumMoves() > 0 && result.isSearchComplete()) {
+                partialResult.addMoveWithScore(move, AnalysisResult.fromChild(result.getBestScore(partialResult.getPlayer())));
             }
         }
     }
 
-    private static class MinimaxJoin<M> implements IJoin<M> {
+    public static class MinimaxJoin<M> implements IJoin<M> {
         private final IJoin<M> parentJoin;
         private final M parentMove;
 
         private final AnalysisResult<M> partialResult;
         private final int expectedResults;
+        private final SearchStatistics statistics;
 
         private final Map<M, AnalysisResult<M>> movesWithResults;
 
         private final AtomicBoolean parentAwaitingJoin = new AtomicBoolean(true);
 
-        public MinimaxJoin(IJoin<M> parentJoin, M parentMove, AnalysisResult<M> partialResult, int expectedResults) {
+        public MinimaxJoin(IJoin<M> parentJoin, M parentMove, AnalysisResult<M> partialResult, int expectedResults, SearchStatistics statistics) {
             this.parentJoin = parentJoin;
             this.parentMove = parentMove;
             this.partialResult = partialResult;
             this.expectedResults = expectedResults;
+            this.statistics = statistics;
             movesWithResults = new LinkedHashMap<>();
         }
 
@@ -76,6 +78,7 @@ public class MinimaxForker {
         }
 
         private synchronized void joinSynchronized(boolean searchCanceled, Pair<M, AnalysisResult<M>> moveWithResult) {
+            statistics.addJoin();
             movesWithResults.put(moveWithResult.getFirst(), moveWithResult.getSecond());
 
             if (searchCanceled || !moveWithResult.getSecond().isSearchComplete()) {
@@ -2,38 +2,62 @@ package bge.strategy.ts.forkjoin.minmax;
 
 import bge.analysis.AnalysisResult;
 import bge.analysis.IPositionEvaluator;
+import bge.analysis.SearchStatistics;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
 import bge.igame.MoveListProvider;
+import bge.strategy.ts.CancellationToken;
 import bge.strategy.ts.forkjoin.IDepthBasedPositionEvaluator;
 
 public class MinimaxPositionEvaluator<M, P extends IPosition<M>> implements IDepthBasedPositionEvaluator<M, P> {
     private final IPositionEvaluator<M, P> positionEvaluator;
     private final MoveListFactory<M> moveListFactory;
 
-    private volatile boolean searchCanceled = false;
+    private SearchStatistics statistics;
+
+    private CancellationToken cancellationToken = new CancellationToken();
+    private boolean searchCanceled = false; // polled from the cancellation token
+    private int nodesUntilPoll = 0;
 
     public MinimaxPositionEvaluator(IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory) {
         this.positionEvaluator = positionEvaluator;
         this.moveListFactory = moveListFactory;
     }
 
+    /** Counts nodes and evaluations into statistics shared with other evaluators */
+    public MinimaxPositionEvaluator<M, P> setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /** Stops the search when the token, or a token it was created from, is canceled */
+    public MinimaxPositionEvaluator<M, P> setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
     @Override
     public double evaluate(P position, int plies) {
         return negamax(moveListFactory.newAnalysisMoveListProvider(), position, plies);
     }
 
     private double negamax(MoveListProvider<M> moveListProvider, P position, int depth) {
-        if (searchCanceled) {
+        if (pollCanceled()) {
             return 0;
         }
+        if (statistics != null) {
+            statistics.addNode();
+        }
 
         MoveList<M> possibleMoves = moveListProvider.getMoveList(depth);
         position.getPossibleMoves(possibleMoves);
         int numMoves = possibleMoves.size();
 
         if (numMoves == 0 || depth == 0) {
+            if (statistics != null) {
+                statistics.addEvaluation();
+            }
             return positionEvaluator.evaluate(position, possibleMoves);
         }
 
@@ -45,13 +69,16 @@ public class MinimaxPositionEvaluator<M, P extends IPosition<M>> implements IDep
         do {
             M move = possibleMoves.get(i);
             position.makeMove(move);
-            double score = parentPlayer == position.getCurrentPlayer() ? negamax(moveListProvider, position, depth - 1)
-                    : -negamax(moveListProvider, position, depth - 1);
+            double score = AnalysisResult.fromChild(parentPlayer == position.getCurrentPlayer() ? negamax(moveListProvider, position, depth - 1)
+                    : -negamax(moveListProvider, position, depth - 1));
             position.unmakeMove(move);
 
             gameOver = gameOver && AnalysisResult.isGameOver(score);
             if (AnalysisResult.isGreater(score, bestScore)) {
                 bestScore = score;
+                if (score == AnalysisResult.WIN_IN_ONE) { // no other move can win sooner
+                    break;
+                }
             }
             ++i;
         } while (i < numMoves);
@@ -63,8 +90,17 @@ public class MinimaxPositionEvaluator<M, P extends IPosition<M>> implements IDep
         return bestScore;
     }
 
+    /** Checks the token every {@link CancellationToken#POLL_INTERVAL} nodes; once canceled the search stays canceled */
+    private boolean pollCanceled() {
+        if (--nodesUntilPoll <= 0) {
+            nodesUntilPoll = CancellationToken.POLL_INTERVAL;
+            searchCanceled = cancellationToken.isCanceled();
+        }
+        return searchCanceled;
+    }
+
     @Override
     public void stopSearch() {
-        searchCanceled = true;
+        cancellationToken.cancel();
     }
 }
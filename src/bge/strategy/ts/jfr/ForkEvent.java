@@ -0,0 +1,23 @@
+package bge.strategy.ts.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("bge.Fork")
+@Label("Fork")
+@Category({ "Board Game Engine", "Search" })
+@Description("A node split into branches for other workers, including the wait for its search to stop")
+public class ForkEvent extends Event {
+    @Label("Plies")
+    public int plies;
+
+    @Label("Branches")
+    public int branches;
+
+    @Label("Search Started")
+    @Description("Whether the node had started searching and had to be stopped before forking")
+    public boolean searchStarted;
+}
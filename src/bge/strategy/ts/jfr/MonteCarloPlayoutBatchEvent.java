@@ -0,0 +1,19 @@
+package bge.strategy.ts.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("bge.MonteCarloPlayoutBatch")
+@Label("Monte Carlo Playout Batch")
+@Category({ "Board Game Engine", "Search" })
+@Description("The random playouts simulated from a newly expanded node")
+public class MonteCarloPlayoutBatchEvent extends Event {
+    @Label("Playouts")
+    public int playouts;
+
+    @Label("Max Depth")
+    public int maxDepth;
+}
@@ -0,0 +1,14 @@
+package bge.strategy.ts.jfr;
+
+public class SearchEvents {
+    private SearchEvents() {
+    }
+
+    /** Sets up the events, as the first event takes hundreds of milliseconds to create while JFR initializes */
+    public static void initialize() {
+        new SearchIterationEvent();
+        new ForkEvent();
+        new WorkerIdleEvent();
+        new MonteCarloPlayoutBatchEvent();
+    }
+}
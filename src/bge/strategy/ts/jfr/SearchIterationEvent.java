@@ -0,0 +1,23 @@
+package bge.strategy.ts.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("bge.SearchIteration")
+@Label("Search Iteration")
+@Category({ "Board Game Engine", "Search" })
+@Description("One ply of iterative deepening")
+public class SearchIterationEvent extends Event {
+    @Label("Depth")
+    public int depth;
+
+    @Label("Nodes")
+    public long nodes;
+
+    @Label("Stopped")
+    @Description("Whether the search was stopped before the ply completed")
+    public boolean stopped;
+}
@@ -0,0 +1,16 @@
+package bge.strategy.ts.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("bge.WorkerIdle")
+@Label("Worker Idle")
+@Category({ "Board Game Engine", "Search" })
+@Description("A worker without work while the rest of the search continues")
+public class WorkerIdleEvent extends Event {
+    @Label("Workers")
+    public int numWorkers;
+}
@@ -0,0 +1,420 @@
+package bge.strategy.ts.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.IPositionEvaluator;
+import bge.analysis.SearchStatistics;
+import bge.igame.IPosition;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.CancellationToken;
+
+/**
+ * A Monte Carlo search tree held in arrays indexed by node and allocated once for a memory budget, so that expanding a node allocates nothing. When a node is
+ * first expanded its children are given a block of consecutive nodes, each storing the index of its move in the moves of its parent, which are generated
+ * again on the way down. The children are expanded in a random order, and once the arena is full the leaves are simulated without being expanded. The
+ * arrays are written under a lock that is released for each playout, so that a result read from another thread sees the tree between iterations.
+ */
+public class ArenaMonteCarloTree<M, P extends IPosition<M>> {
+    /** The bytes of the arrays for each node */
+    public static final int BYTES_PER_NODE = 11 * Integer.BYTES + 1;
+
+    private static final int ROOT = 0;
+    private static final int NOT_EXPANDED = -1;
+
+    private final IPositionEvaluator<M, P> positionEvaluator;
+    private final MoveListFactory<M> moveListFactory;
+    private final int budgetMb;
+    private final MonteCarloPlayoutEngine<M, P> playoutEngine;
+
+    private final int[] parent;
+    private final int[] firstChild;
+    private final int[] numChildren; // NOT_EXPANDED until the children are given their block
+    private final int[] numExpanded;
+    private final int[] moveIndex;
+    private final int[] player;
+    private final int[] numUncertain;
+    private final int[] numCertain;
+    private final int[] numWon;
+    private final int[] numDrawn;
+    private final int[] numLost;
+    private final boolean[] decided;
+    private int numNodes = 0;
+
+    private final Object treeLock = new Object();
+
+    private P position;
+    private MoveList<M> rootMoves;
+    private final List<MoveList<M>> pathMoves = new ArrayList<>(); // the moves of each node of the path below the root
+    private int[] path = new int[64];
+
+    private boolean isSearching = false;
+    private volatile CancellationToken cancellationToken = new CancellationToken();
+
+    public ArenaMonteCarloTree(IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory, int numSimulations, int maxDepth, int budgetMb) {
+        this.positionEvaluator = positionEvaluator;
+        this.moveListFactory = moveListFactory;
+        this.budgetMb = budgetMb;
+        playoutEngine = new MonteCarloPlayoutEngine<>(positionEvaluator, moveListFactory, numSimulations, maxDepth, new SplittableRandom());
+        int capacity = capacityOf(budgetMb);
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        numChildren = new int[capacity];
+        numExpanded = new int[capacity];
+        moveIndex = new int[capacity];
+        player = new int[capacity];
+        numUncertain = new int[capacity];
+        numCertain = new int[capacity];
+        numWon = new int[capacity];
+        numDrawn = new int[capacity];
+        numLost = new int[capacity];
+        decided = new boolean[capacity];
+    }
+
+    /** The number of nodes an arena of budgetMb megabytes holds */
+    public static int capacityOf(int budgetMb) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, (long) budgetMb * 1024 * 1024 / BYTES_PER_NODE);
+    }
+
+    public int getBudgetMb() {
+        return budgetMb;
+    }
+
+    public int getCapacity() {
+        return parent.length;
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    P getPosition() {
+        return position;
+    }
+
+    /** Clears the tree so that the position is searched from scratch; the position is made and unmade as the tree is searched */
+    public void reset(P position) {
+        synchronized (treeLock) {
+            this.position = position;
+            rootMoves = moveListFactory.newAnalysisMoveList();
+            position.getPossibleMoves(rootMoves);
+            numNodes = 0;
+            newNode(NOT_EXPANDED, 0);
+            player[ROOT] = position.getCurrentPlayer();
+        }
+    }
+
+    /** Clears a previous stop so that the root can be searched again */
+    void resetStopRequested() {
+        if (cancellationToken.isCanceled()) {
+            cancellationToken = new CancellationToken();
+        }
+    }
+
+    private int newNode(int parentNode, int move) {
+        int node = numNodes++;
+        parent[node] = parentNode;
+        firstChild[node] = NOT_EXPANDED;
+        numChildren[node] = NOT_EXPANDED;
+        numExpanded[node] = 0;
+        moveIndex[node] = move;
+        numUncertain[node] = 0;
+        numCertain[node] = 0;
+        numWon[node] = 0;
+        numDrawn[node] = 0;
+        numLost[node] = 0;
+        decided[node] = false;
+        return node;
+    }
+
+    /** Searches until stopped or decided, running progress every progressIntervalMs and counting nodes and evaluations into searchStatistics */
+    public void searchRoot(boolean escapeEarly, SearchStatistics searchStatistics, long progressIntervalMs, Runnable progress) {
+        isSearching = true;
+        long nextProgress = System.currentTimeMillis() + progressIntervalMs;
+        if (rootMoves.size() == 0) {
+            searchStatistics.addEvaluation();
+            MonteCarloStatistics result = new MonteCarloStatistics(position.getCurrentPlayer(), positionEvaluator.evaluate(position, rootMoves));
+            synchronized (treeLock) {
+                setResult(ROOT, result);
+            }
+        } else {
+            do {
+                search(searchStatistics);
+                if (progress != null && System.currentTimeMillis() >= nextProgress) {
+                    progress.run();
+                    nextProgress = System.currentTimeMillis() + progressIntervalMs;
+                }
+                if (escapeEarly && decided[ROOT] && numWon[ROOT] > 0) {
+                    break;
+                } else if (decided[ROOT] && allChildrenDecided(ROOT)) {
+                    break;
+                }
+            } while (!cancellationToken.isCanceled());
+        }
+        synchronized (this) {
+            isSearching = false;
+            notifyAll();
+        }
+    }
+
+    private boolean allChildrenDecided(int node) {
+        for (int child = firstChild[node]; child < firstChild[node] + numExpanded[node]; ++child) {
+            if (!decided[child]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void search(SearchStatistics searchStatistics) {
+        int node = ROOT;
+        int depth = 0;
+        MoveList<M> moves = rootMoves;
+        path[0] = ROOT;
+        boolean simulate = false;
+        synchronized (treeLock) {
+            while (true) {
+                if (numChildren[node] == NOT_EXPANDED) {
+                    if (numNodes + moves.size() > parent.length) {
+                        simulate = true; // the arena is full, so the leaf is simulated in place
+                        break;
+                    }
+                    firstChild[node] = numNodes;
+                    numChildren[node] = moves.size();
+                    for (int i = 0; i < moves.size(); ++i) {
+                        newNode(node, i);
+                    }
+                }
+                int child;
+                boolean expand = numExpanded[node] < numChildren[node];
+                if (expand) {
+                    child = expand(node);
+                } else {
+                    child = select(node);
+                    if (child == NOT_EXPANDED) { // every child has been decided
+                        break;
+                    }
+                }
+                position.makeMove(moves.get(moveIndex[child]));
+                searchStatistics.addNode();
+                path = pushPath(path, ++depth, child);
+                moves = pathMoves(depth);
+                moves.clear();
+                position.getPossibleMoves(moves);
+                node = child;
+                if (expand) {
+                    player[child] = position.getCurrentPlayer();
+                    if (moves.size() == 0) {
+                        searchStatistics.addEvaluation();
+                        setResult(child, new MonteCarloStatistics(position.getCurrentPlayer(), positionEvaluator.evaluate(position, moves)));
+                        numChildren[child] = 0;
+                    } else {
+                        simulate = true;
+                    }
+                    break;
+                }
+            }
+        }
+        MonteCarloStatistics result = simulate ? playoutEngine.simulate(position, player[node], cancellationToken, searchStatistics) : null;
+        synchronized (treeLock) {
+            if (result != null) {
+                addResult(node, result);
+            }
+            backPropagate(depth);
+        }
+    }
+
+    private int expand(int node) {
+        int slot = firstChild[node] + numExpanded[node];
+        int swap = slot + playoutEngine.getRandom().nextInt(numChildren[node] - numExpanded[node]);
+        int move = moveIndex[swap];
+        moveIndex[swap] = moveIndex[slot];
+        moveIndex[slot] = move;
+        ++numExpanded[node];
+        return slot;
+    }
+
+    private int select(int node) {
+        int bestChild = NOT_EXPANDED;
+        double bestExpectedValue = MonteCarloStatistics.LOSS;
+        for (int child = firstChild[node]; child < firstChild[node] + numExpanded[node]; ++child) {
+            if (decided[child]) {
+                continue;
+            }
+            double meanValue = player[node] == player[child] ? getMeanValue(child) : -getMeanValue(child);
+            double childExpectedValue = meanValue + getUncertainty(child, numUncertain[node]);
+            if (bestChild == NOT_EXPANDED || childExpectedValue > bestExpectedValue) {
+                bestExpectedValue = childExpectedValue;
+                bestChild = child;
+            }
+        }
+        return bestChild;
+    }
+
+    private void backPropagate(int depth) {
+        if (numExpanded[path[depth]] > 0) {
+            updateStatistics(path[depth]);
+        }
+        for (int i = depth; i > 0; --i) {
+            int node = path[i];
+            position.unmakeMove((i == 1 ? rootMoves : pathMoves(i - 1)).get(moveIndex[node]));
+            updateStatistics(path[i - 1]);
+        }
+    }
+
+    private MoveList<M> pathMoves(int depth) {
+        while (pathMoves.size() <= depth) {
+            pathMoves.add(moveListFactory.newAnalysisMoveList());
+        }
+        return pathMoves.get(depth);
+    }
+
+    private static int[] pushPath(int[] path, int depth, int node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+        path[depth] = node;
+        return path;
+    }
+
+    private void updateStatistics(int node) {
+        int nodePlayer = player[node];
+        boolean allChildrenDecided = numExpanded[node] == numChildren[node];
+        boolean won = false;
+        int uncertain = 0;
+        int certain = 0;
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        for (int child = firstChild[node]; child < firstChild[node] + numExpanded[node]; ++child) {
+            uncertain += numUncertain[child];
+            certain += numCertain[child];
+            draws += numDrawn[child];
+            if (player[child] == nodePlayer) {
+                wins += numWon[child];
+                losses += numLost[child];
+            } else {
+                wins += numLost[child];
+                losses += numWon[child];
+            }
+            won = won || isWin(child, nodePlayer);
+            allChildrenDecided = allChildrenDecided && decided[child];
+        }
+        numUncertain[node] = uncertain;
+        numCertain[node] = certain;
+        numWon[node] = wins;
+        numDrawn[node] = draws;
+        numLost[node] = losses;
+        decided[node] = false;
+        if (allChildrenDecided || won) {
+            setDecided(node);
+        }
+    }
+
+    private boolean isWin(int node, int currentPlayer) {
+        return decided[node] && ((player[node] == currentPlayer && numWon[node] > 0) || (player[node] != currentPlayer && numLost[node] > 0));
+    }
+
+    private void setDecided(int node) {
+        decided[node] = true;
+        numCertain[node] += numUncertain[node];
+        numUncertain[node] = 0;
+        if (numWon[node] > 0) {
+            numWon[node] = numCertain[node];
+            numDrawn[node] = 0;
+            numLost[node] = 0;
+        } else if (numDrawn[node] > 0) {
+            numDrawn[node] = numCertain[node];
+            numLost[node] = 0;
+        } else {
+            numLost[node] = numCertain[node];
+        }
+    }
+
+    private void setResult(int node, MonteCarloStatistics result) {
+        numUncertain[node] = result.numUncertain;
+        numCertain[node] = result.numCertain;
+        numWon[node] = result.numWon;
+        numDrawn[node] = result.numDrawn;
+        numLost[node] = result.numLost;
+        decided[node] = result.isDecided;
+    }
+
+    private void addResult(int node, MonteCarloStatistics result) {
+        numUncertain[node] += result.numUncertain;
+        numCertain[node] += result.numCertain;
+        numDrawn[node] += result.numDrawn;
+        if (player[node] == result.player) {
+            numWon[node] += result.numWon;
+            numLost[node] += result.numLost;
+        } else {
+            numWon[node] += result.numLost;
+            numLost[node] += result.numWon;
+        }
+    }
+
+    private double getMeanValue(int node) {
+        int total = numCertain[node] + numUncertain[node];
+        if (decided[node]) {
+            return numWon[node] > 0 ? MonteCarloStatistics.WIN : numDrawn[node] > 0 ? MonteCarloStatistics.DRAW : MonteCarloStatistics.LOSS;
+        }
+        return total == 0 ? 0.0 : (double) (numWon[node] - numLost[node]) / total;
+    }
+
+    private double getUncertainty(int node, int parentNumUncertain) {
+        return decided[node] || parentNumUncertain == 0 ? 0.0 : Math.sqrt(2 * Math.log(parentNumUncertain) / numUncertain[node]);
+    }
+
+    private MonteCarloStatistics copyOf(int node) {
+        MonteCarloStatistics statistics = new MonteCarloStatistics(player[node]);
+        statistics.numUncertain = numUncertain[node];
+        statistics.numCertain = numCertain[node];
+        statistics.numWon = numWon[node];
+        statistics.numDrawn = numDrawn[node];
+        statistics.numLost = numLost[node];
+        statistics.isDecided = decided[node];
+        return statistics;
+    }
+
+    /** The scores of the moves of the root that have been expanded, or of the root itself if it has no moves */
+    public AnalysisResult<M> calculateResult() {
+        synchronized (treeLock) {
+            MonteCarloStatistics rootStatistics = copyOf(ROOT);
+            if (rootMoves.size() == 0 && rootStatistics.isDecided) {
+                AnalysisResult<M> result = new AnalysisResult<>(rootStatistics.player);
+                result.addMoveWithScore(null, MonteCarloTreeSearcher.convertScore(rootStatistics, true, rootStatistics.numUncertain));
+                return result;
+            } else if (numExpanded[ROOT] == 0) {
+                return null;
+            }
+            AnalysisResult<M> result = new AnalysisResult<>(rootStatistics.player, numExpanded[ROOT]);
+            for (int child = firstChild[ROOT]; child < firstChild[ROOT] + numExpanded[ROOT]; ++child) {
+                MonteCarloStatistics childStatistics = copyOf(child);
+                result.addMoveWithScore(rootMoves.get(moveIndex[child]),
+                        MonteCarloTreeSearcher.convertScore(childStatistics, rootStatistics.player == childStatistics.player, rootStatistics.numUncertain));
+            }
+            return result;
+        }
+    }
+
+    public int getTotalNodesEvaluated() {
+        synchronized (treeLock) {
+            return numCertain[ROOT] + numUncertain[ROOT];
+        }
+    }
+
+    public synchronized void stopSearch() {
+        cancellationToken.cancel();
+        while (isSearching) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -5,7 +5,7 @@ import bge.igame.IPosition;
 public interface IMonteCarloChildren<M> {
     IMonteCarloChildren<M> createNewWith(int numUnexpanded);
 
-    <P extends IPosition<M>> boolean initUnexpanded(MonteCarloGameNode<M, P> parentNode);
+    <P extends IPosition<M>> boolean initUnexpanded(MonteCarloGameNode<M, P> parentNode, P position);
 
     int getNumUnexpanded();
 
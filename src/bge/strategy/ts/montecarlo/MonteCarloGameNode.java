@@ -2,21 +2,30 @@ package bge.strategy.ts.montecarlo;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import bge.analysis.AnalysisResult;
 import bge.analysis.IPositionEvaluator;
+import bge.analysis.SearchStatistics;
 import bge.igame.IPosition;
 import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
-
+import bge.strategy.ts.CancellationToken;
+import gt.async.ThreadNumber;
+
+/**
+ * A node of the Monte Carlo search tree. The tree may be searched by several threads at once: each thread makes and unmakes moves on its own copy of the
+ * position, selection, expansion and the update of a node's statistics are guarded by the node's lock, and a child counts as lost to its parent while a
+ * thread is searching below it, so that the other threads are steered to other children.
+ */
 public class MonteCarloGameNode<M, P extends IPosition<M>> {
-    private static final Random RANDOM = new Random();
-
-    private final MonteCarloGameNode<M, P> parentNode;
+    private MonteCarloGameNode<M, P> parentNode;
 
-    final M parentMove;
-    final P position;
+    M parentMove;
+    P position; // the position of the root, which a promoted child takes from its parent
     final IPositionEvaluator<M, P> positionEvaluator;
     final MoveListFactory<M> moveListFactory;
     final int maxDepth;
@@ -24,13 +33,17 @@ public class MonteCarloGameNode<M, P extends IPosition<M>> {
 
     final MoveList<M> moveList;
 
-    final IMonteCarloChildren<M> unexpandedChildren;
+    IMonteCarloChildren<M> unexpandedChildren;
     List<MonteCarloGameNode<M, P>> expandedChildren;
 
     final MonteCarloStatistics statistics;
+    private MonteCarloStatistics collapsedStatistics; // the statistics of the children dropped when the node was collapsed
+
+    private final AtomicInteger numNodes; // shared by the nodes of a tree, and recounted when it is recycled
+    private int nodeBudget = Integer.MAX_VALUE;
 
     private boolean isSearching = false;
-    private volatile boolean stopRequested = false;
+    private volatile CancellationToken cancellationToken = new CancellationToken();
 
     public MonteCarloGameNode(M parentMove, P position, IMonteCarloChildren<M> children, IPositionEvaluator<M, P> positionEvaluator,
             MoveListFactory<M> moveListFactory, int numSimulations, int maxDepth) {
@@ -50,86 +63,229 @@ public class MonteCarloGameNode<M, P extends IPosition<M>> {
         position.getPossibleMoves(moveList);
         unexpandedChildren = children.createNewWith(moveList.size());
         statistics = new MonteCarloStatistics(position.getCurrentPlayer());
+        if (parentNode == null) {
+            numNodes = new AtomicInteger(1);
+        } else {
+            numNodes = parentNode.numNodes;
+            numNodes.incrementAndGet();
+        }
+    }
+
+    /** The number of nodes the tree may grow to before its least visited subtrees are collapsed back to leaves; set on the root */
+    void setNodeBudget(int nodeBudget) {
+        this.nodeBudget = nodeBudget;
+    }
+
+    int getNumNodes() {
+        return numNodes.get();
+    }
+
+    /** Detaches the child of a played move from its parent so that it can be searched as the root */
+    MonteCarloGameNode<M, P> promoteChild(M move) {
+        if (expandedChildren == null) {
+            return null;
+        }
+        for (MonteCarloGameNode<M, P> child : expandedChildren) {
+            if (child.parentMove.equals(move)) {
+                child.parentNode = null;
+                child.parentMove = null;
+                child.position = position; // a child may have been created on the position of another thread
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /** Clears a previous stop so that the root can be searched again */
+    void resetStopRequested() {
+        if (cancellationToken.isCanceled()) {
+            cancellationToken = new CancellationToken();
+        }
+    }
+
+    /** Searches until stopped or decided, running progress every progressIntervalMs and counting nodes and evaluations into searchStatistics */
+    public void searchRoot(boolean escapeEarly, SearchStatistics searchStatistics, long progressIntervalMs, Runnable progress) {
+        searchRoot(escapeEarly, searchStatistics, progressIntervalMs, progress, 1);
     }
 
-    public void searchRoot(boolean escapeEarly) {
+    /** As {@link #searchRoot(boolean, SearchStatistics, long, Runnable)}, with numThreads threads searching the tree at once */
+    public void searchRoot(boolean escapeEarly, SearchStatistics searchStatistics, long progressIntervalMs, Runnable progress, int numThreads) {
         isSearching = true;
+        long nextProgress = System.currentTimeMillis() + progressIntervalMs;
         if (moveList.size() == 0) {
+            searchStatistics.addEvaluation();
             statistics.setResult(new MonteCarloStatistics(position.getCurrentPlayer(), positionEvaluator.evaluate(position, moveList)));
         } else {
-            expandedChildren = new ArrayList<>(moveList.size());
-            if (unexpandedChildren.initUnexpanded(this)) {
+            boolean childrenInitialized = expandedChildren != null; // a promoted child keeps the subtree it has already searched
+            if (!childrenInitialized) {
+                expandedChildren = new ArrayList<>(moveList.size());
+                childrenInitialized = unexpandedChildren.initUnexpanded(this, position);
+            }
+            if (childrenInitialized) {
+                MonteCarloPlayoutEngine<M, P> playoutEngine = new MonteCarloPlayoutEngine<>(positionEvaluator, moveListFactory, numSimulations, maxDepth,
+                        new SplittableRandom());
+                CancellationToken helpersToken = cancellationToken.newChild();
+                ReadWriteLock recycleLock = new ReentrantReadWriteLock(); // the helpers search under the read lock and wait while the tree is recycled
+                List<Thread> helpers = startHelpers(numThreads - 1, helpersToken, recycleLock, playoutEngine, searchStatistics);
+                List<MonteCarloGameNode<M, P>> path = new ArrayList<>();
                 do {
-                    search();
+                    search(position, path, playoutEngine, searchStatistics);
+                    if (numNodes.get() > nodeBudget) {
+                        recycleLock.writeLock().lock();
+                        try {
+                            recycle();
+                        } finally {
+                            recycleLock.writeLock().unlock();
+                        }
+                    }
+                    if (progress != null && System.currentTimeMillis() >= nextProgress) {
+                        progress.run();
+                        nextProgress = System.currentTimeMillis() + progressIntervalMs;
+                    }
                     if (escapeEarly && statistics.isDecided && statistics.numWon > 0) {
                         break;
-                    } else if (statistics.isDecided) {
-                        boolean allDecided = true;
-                        int i = 0;
-                        do {
-                            MonteCarloStatistics childStatistics = expandedChildren.get(i++).statistics;
-                            allDecided = allDecided && childStatistics.isDecided;
-                        } while (allDecided && i < expandedChildren.size());
-                        if (allDecided) {
-                            break;
-                        }
+                    } else if (statistics.isDecided && allChildrenDecided()) {
+                        break;
                     }
-                } while (!stopRequested);
+                } while (!cancellationToken.isCanceled());
+                helpersToken.cancel();
+                joinHelpers(helpers);
             } else {
                 updateStatistics();
             }
         }
         synchronized (this) {
             isSearching = false;
-            notify();
+            notifyAll(); // the searcher and the threads of other trees may be waiting to stop this one
         }
     }
 
-    private void search() {
-        MonteCarloGameNode<M, P> nodeToExpand = this;
-        while (nodeToExpand.unexpandedChildren.getNumUnexpanded() == 0) {
-            nodeToExpand = nodeToExpand.select();
+    @SuppressWarnings("unchecked")
+    private List<Thread> startHelpers(int numHelpers, CancellationToken helpersToken, ReadWriteLock recycleLock, MonteCarloPlayoutEngine<M, P> playoutEngine,
+            SearchStatistics searchStatistics) {
+        List<Thread> helpers = new ArrayList<>(numHelpers);
+        for (int i = 0; i < numHelpers; ++i) {
+            P helperPosition = (P) position.createCopy();
+            MonteCarloPlayoutEngine<M, P> helperPlayoutEngine = playoutEngine.split();
+            Thread helper = new Thread(() -> {
+                List<MonteCarloGameNode<M, P>> path = new ArrayList<>();
+                do {
+                    recycleLock.readLock().lock();
+                    try {
+                        search(helperPosition, path, helperPlayoutEngine, searchStatistics);
+                    } finally {
+                        recycleLock.readLock().unlock();
+                    }
+                } while (!helpersToken.isCanceled());
+            }, "Monte_Carlo_Helper_Thread_" + ThreadNumber.getThreadNum(getClass()));
+            helper.start();
+            helpers.add(helper);
         }
-        MonteCarloGameNode<M, P> nodeToSimulate = nodeToExpand.expand();
-        if (nodeToSimulate == null) {
-            nodeToExpand.updateStatistics();
-            nodeToExpand.backPropagate();
-        } else if (nodeToSimulate.moveList.size() == 0) {
-            nodeToSimulate.statistics
-                    .setResult(new MonteCarloStatistics(position.getCurrentPlayer(), positionEvaluator.evaluate(position, nodeToSimulate.moveList)));
-            setDecided();
-            nodeToSimulate.backPropagate();
-        } else {
-            MonteCarloStatistics result = nodeToSimulate.simulate();
-            nodeToSimulate.statistics.updateWith(result);
-            nodeToSimulate.backPropagate();
+        return helpers;
+    }
+
+    private static void joinHelpers(List<Thread> helpers) {
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
         }
     }
 
-    private MonteCarloGameNode<M, P> select() {
+    private synchronized boolean allChildrenDecided() {
+        for (MonteCarloGameNode<M, P> child : expandedChildren) {
+            if (!child.statistics.isDecided) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Descends from this node to a new leaf making moves on position, simulates from the leaf, and then unmakes the moves of the path */
+    private void search(P position, List<MonteCarloGameNode<M, P>> path, MonteCarloPlayoutEngine<M, P> playoutEngine, SearchStatistics searchStatistics) {
+        path.add(this);
+        MonteCarloGameNode<M, P> node = this;
+        MonteCarloGameNode<M, P> nodeToSimulate = null;
+        while (nodeToSimulate == null) {
+            MonteCarloGameNode<M, P> child;
+            synchronized (node) {
+                if (node.unexpandedChildren.getNumUnexpanded() > 0) {
+                    nodeToSimulate = node.expand(position);
+                    if (nodeToSimulate == null) {
+                        node.updateStatistics();
+                        break;
+                    }
+                    child = nodeToSimulate;
+                } else {
+                    child = node.select(position);
+                    if (child == null) { // decided by another thread
+                        break;
+                    }
+                }
+                ++child.statistics.numVirtualLosses;
+            }
+            path.add(child);
+            searchStatistics.addNode();
+            node = child;
+        }
+        if (nodeToSimulate != null) {
+            if (nodeToSimulate.moveList.size() == 0) {
+                searchStatistics.addEvaluation();
+                MonteCarloStatistics result = new MonteCarloStatistics(position.getCurrentPlayer(),
+                        positionEvaluator.evaluate(position, nodeToSimulate.moveList));
+                synchronized (nodeToSimulate) {
+                    nodeToSimulate.statistics.setResult(result);
+                }
+                synchronized (this) {
+                    setDecided();
+                }
+            } else {
+                MonteCarloStatistics result = playoutEngine.simulate(position, nodeToSimulate.statistics.player, cancellationToken, searchStatistics);
+                synchronized (nodeToSimulate) {
+                    nodeToSimulate.statistics.updateWith(result);
+                }
+            }
+        }
+        backPropagate(position, path);
+    }
+
+    private MonteCarloGameNode<M, P> select(P position) {
         MonteCarloGameNode<M, P> bestChild = null;
         double bestExpectedValue = MonteCarloStatistics.LOSS;
-        int i = 0;
-        do {
-            MonteCarloGameNode<M, P> child = expandedChildren.get(i);
-            if (child.statistics.isDecided) {
+        List<MonteCarloGameNode<M, P>> children = expandedChildren;
+        if (children == null) {
+            return null;
+        }
+        int numUncertain = statistics.numUncertain;
+        for (int i = 0; i < children.size(); ++i) {
+            MonteCarloStatistics childStatistics = children.get(i).statistics;
+            if (childStatistics.isDecided) {
                 continue;
             }
-            double meanValue = statistics.player == child.statistics.player ? child.statistics.getMeanValue() : -child.statistics.getMeanValue();
-            double childExpectedValue = meanValue + child.statistics.getUncertainty(statistics.numUncertain);
+            double meanValue = statistics.player == childStatistics.player ? childStatistics.getMeanValue() : -childStatistics.getMeanValue();
+            int virtualLosses = childStatistics.numVirtualLosses;
+            if (virtualLosses > 0) {
+                int total = childStatistics.getTotalNodesEvaluated();
+                meanValue = (meanValue * total - virtualLosses) / (total + virtualLosses);
+            }
+            double childExpectedValue = meanValue + childStatistics.getUncertainty(numUncertain, virtualLosses);
             if (bestChild == null || childExpectedValue > bestExpectedValue) {
                 bestExpectedValue = childExpectedValue;
-                bestChild = child;
+                bestChild = children.get(i);
             }
-        } while (++i < expandedChildren.size());
-        position.makeMove(bestChild.parentMove);
+        }
+        if (bestChild != null) {
+            position.makeMove(bestChild.parentMove);
+        }
         return bestChild;
     }
 
-    private MonteCarloGameNode<M, P> expand() {
+    private MonteCarloGameNode<M, P> expand(P position) {
         if (expandedChildren == null) {
             expandedChildren = new ArrayList<>(moveList.size());
-            if (!unexpandedChildren.initUnexpanded(this)) {
+            if (!unexpandedChildren.initUnexpanded(this, position)) {
                 return null;
             }
         }
@@ -143,57 +299,92 @@ public class MonteCarloGameNode<M, P extends IPosition<M>> {
         return childNode;
     }
 
-    private MonteCarloStatistics simulate() {
-        MonteCarloStatistics result = new MonteCarloStatistics(statistics.player);
-
-        MoveList<M> possibleMoves = moveListFactory.newAnalysisMoveList();
-        position.getPossibleMoves(possibleMoves);
-        if (possibleMoves.size() == 0) {
-            return new MonteCarloStatistics(position.getCurrentPlayer(), positionEvaluator.evaluate(position, possibleMoves));
+    /**
+     * Collapses the least visited subtrees until the tree is a quarter below its budget. A collapsed node keeps the statistics of its children and is
+     * expanded again if it is selected. No helper is searching the tree meanwhile, so the count of nodes is only reduced by the nodes freed.
+     */
+    private void recycle() {
+        List<int[]> collapsible = new ArrayList<>(); // the visits, parent visits and number of descendants of each node with children
+        int nodesToFree = countNodes(this, Integer.MAX_VALUE, collapsible) - nodeBudget / 4 * 3;
+        if (nodesToFree <= 0) {
+            return;
         }
-
-        int simulation = 0;
-        List<M> movesMade = new ArrayList<>();
-        do {
-            int i = 0;
-            while (possibleMoves.size() > 0 && i <= maxDepth) {
-                M move = possibleMoves.get(RANDOM.nextInt(possibleMoves.size()));
-                position.makeMove(move);
-                movesMade.add(move);
-                possibleMoves.clear();
-                position.getPossibleMoves(possibleMoves);
-                ++i;
-            }
-
-            if (i == maxDepth) {
-                result.addScore(AnalysisResult.DRAW);
+        // a node is collapsed if it has at most maxVisits and its parent more, so find the least maxVisits that frees enough
+        int minVisits = 0;
+        int maxVisits = statistics.getTotalNodesEvaluated();
+        while (minVisits < maxVisits) {
+            int visits = minVisits + (maxVisits - minVisits) / 2;
+            if (countFreed(collapsible, visits) >= nodesToFree) {
+                maxVisits = visits;
             } else {
-                result.addScore(statistics.player == position.getCurrentPlayer() ? positionEvaluator.evaluate(position, possibleMoves)
-                        : -positionEvaluator.evaluate(position, possibleMoves));
+                minVisits = visits + 1;
             }
+        }
+        numNodes.addAndGet(-collapse(this, maxVisits));
+    }
 
-            while (--i >= 0) {
-                position.unmakeMove(movesMade.get(i));
+    private static <M, P extends IPosition<M>> int countNodes(MonteCarloGameNode<M, P> node, int parentVisits, List<int[]> collapsible) {
+        int visits = node.statistics.getTotalNodesEvaluated();
+        int count = 1;
+        synchronized (node) {
+            if (node.expandedChildren == null) {
+                return count;
             }
+            for (MonteCarloGameNode<M, P> child : node.expandedChildren) {
+                count += countNodes(child, node.parentNode == null ? Integer.MAX_VALUE : visits, collapsible);
+            }
+        }
+        if (node.parentNode != null && count > 1) {
+            collapsible.add(new int[] { visits, parentVisits, count - 1 });
+        }
+        return count;
+    }
 
-            movesMade.clear();
-            possibleMoves.clear();
-            position.getPossibleMoves(possibleMoves);
-        } while (!stopRequested && ++simulation < numSimulations);
+    private static int countFreed(List<int[]> collapsible, int maxVisits) {
+        int freed = 0;
+        for (int[] node : collapsible) {
+            if (node[0] <= maxVisits && node[1] > maxVisits) {
+                freed += node[2];
+            }
+        }
+        return freed;
+    }
 
-        return result;
+    private static <M, P extends IPosition<M>> int collapse(MonteCarloGameNode<M, P> node, int maxVisits) {
+        int freed = 0;
+        synchronized (node) {
+            if (node.expandedChildren == null) {
+                return 0;
+            }
+            if (node.parentNode != null && node.statistics.getTotalNodesEvaluated() <= maxVisits) {
+                freed = countNodes(node, 0, new ArrayList<>()) - 1;
+                node.collapsedStatistics = new MonteCarloStatistics(node.statistics.player);
+                node.collapsedStatistics.setResult(node.statistics);
+                node.expandedChildren = null;
+                node.unexpandedChildren = node.unexpandedChildren.createNewWith(node.moveList.size());
+                return freed;
+            }
+            for (MonteCarloGameNode<M, P> child : node.expandedChildren) {
+                freed += collapse(child, maxVisits);
+            }
+        }
+        return freed;
     }
 
-    private void backPropagate() {
-        position.unmakeMove(parentMove);
-        MonteCarloGameNode<M, P> parent = parentNode;
-        while (parent != null) {
-            parent.updateStatistics();
-            if (parent.parentMove != null) {
-                position.unmakeMove(parent.parentMove);
+    /** Unmakes the moves of the path from the leaf up, updating the statistics of each parent and removing the virtual loss of each child */
+    private static <M, P extends IPosition<M>> void backPropagate(P position, List<MonteCarloGameNode<M, P>> path) {
+        for (int i = path.size() - 1; i > 0; --i) {
+            MonteCarloGameNode<M, P> child = path.get(i);
+            MonteCarloGameNode<M, P> parent = path.get(i - 1);
+            position.unmakeMove(child.parentMove);
+            synchronized (parent) {
+                --child.statistics.numVirtualLosses;
+                if (parent.expandedChildren != null) { // a decided node drops its children
+                    parent.updateStatistics();
+                }
             }
-            parent = parent.parentNode;
         }
+        path.clear();
     }
 
     private void updateStatistics() {
@@ -201,13 +392,14 @@ public class MonteCarloGameNode<M, P extends IPosition<M>> {
         boolean won = false;
         MonteCarloStatistics newStatistics = new MonteCarloStatistics(statistics.player);
 
-        int i = 0;
-        do {
-            MonteCarloGameNode<M, P> child = expandedChildren.get(i);
+        for (MonteCarloGameNode<M, P> child : expandedChildren) {
             newStatistics.updateWith(child.statistics);
             won = won || child.statistics.isWin(statistics.player);
             allChildrenDecided = allChildrenDecided && child.statistics.isDecided;
-        } while (++i < expandedChildren.size());
+        }
+        if (collapsedStatistics != null && !allChildrenDecided && !won) { // a decided node is scored by its children alone
+            newStatistics.updateWith(collapsedStatistics);
+        }
 
         statistics.setResult(newStatistics);
 
@@ -225,7 +417,7 @@ public class MonteCarloGameNode<M, P extends IPosition<M>> {
     }
 
     public synchronized void stopSearch() {
-        stopRequested = true;
+        cancellationToken.cancel();
         while (isSearching) {
             try {
                 wait();
@@ -0,0 +1,122 @@
+package bge.strategy.ts.montecarlo;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.IPositionEvaluator;
+import bge.analysis.SearchStatistics;
+import bge.igame.IPosition;
+import bge.igame.IRandomMovePosition;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.CancellationToken;
+import bge.strategy.ts.jfr.MonteCarloPlayoutBatchEvent;
+
+/**
+ * Plays the random games simulated from the leaves of a Monte Carlo tree. An engine belongs to one searching thread: it reuses its move list and the stack
+ * of moves it unmakes, and draws from its own random generator. A position that implements {@link IRandomMovePosition} chooses each move itself, so that
+ * the moves are only generated to evaluate the end of a game.
+ */
+class MonteCarloPlayoutEngine<M, P extends IPosition<M>> {
+    private static final int INITIAL_MOVES_MADE = 64;
+
+    private final IPositionEvaluator<M, P> positionEvaluator;
+    private final MoveListFactory<M> moveListFactory;
+    private final int numSimulations;
+    private final int maxDepth;
+
+    private final SplittableRandom random;
+    private final MoveList<M> possibleMoves;
+    private Object[] movesMade;
+
+    MonteCarloPlayoutEngine(IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory, int numSimulations, int maxDepth,
+            SplittableRandom random) {
+        this.positionEvaluator = positionEvaluator;
+        this.moveListFactory = moveListFactory;
+        this.numSimulations = numSimulations;
+        this.maxDepth = maxDepth;
+        this.random = random;
+        possibleMoves = moveListFactory.newAnalysisMoveList();
+        movesMade = new Object[maxDepth < INITIAL_MOVES_MADE ? maxDepth + 1 : INITIAL_MOVES_MADE];
+    }
+
+    /** An engine for another thread, with a generator split from this one */
+    MonteCarloPlayoutEngine<M, P> split() {
+        return new MonteCarloPlayoutEngine<>(positionEvaluator, moveListFactory, numSimulations, maxDepth, random.split());
+    }
+
+    SplittableRandom getRandom() {
+        return random;
+    }
+
+    /** Plays numSimulations random games of at most maxDepth moves from position, scoring each for player */
+    @SuppressWarnings("unchecked")
+    MonteCarloStatistics simulate(P position, int player, CancellationToken cancellationToken, SearchStatistics searchStatistics) {
+        IRandomMovePosition<M> randomMovePosition = position instanceof IRandomMovePosition ? (IRandomMovePosition<M>) position : null;
+        M move = nextRandomMove(position, randomMovePosition);
+        if (move == null) {
+            return new MonteCarloStatistics(position.getCurrentPlayer(), evaluate(position, randomMovePosition));
+        }
+
+        MonteCarloStatistics result = new MonteCarloStatistics(player);
+        MonteCarloPlayoutBatchEvent playoutEvent = new MonteCarloPlayoutBatchEvent();
+        playoutEvent.begin();
+        int simulation = 0;
+        do {
+            if (simulation > 0) {
+                move = nextRandomMove(position, randomMovePosition);
+            }
+            int depth = 0;
+            while (move != null && depth <= maxDepth) {
+                position.makeMove(move);
+                if (depth == movesMade.length) {
+                    movesMade = Arrays.copyOf(movesMade, depth * 2);
+                }
+                movesMade[depth++] = move;
+                move = nextRandomMove(position, randomMovePosition);
+            }
+
+            if (depth == maxDepth) {
+                result.addScore(AnalysisResult.DRAW);
+            } else {
+                searchStatistics.addEvaluation();
+                double score = evaluate(position, randomMovePosition);
+                result.addScore(player == position.getCurrentPlayer() ? score : -score);
+            }
+
+            while (--depth >= 0) {
+                position.unmakeMove((M) movesMade[depth]);
+                movesMade[depth] = null;
+            }
+        } while (!cancellationToken.isCanceled() && ++simulation < numSimulations);
+
+        int playouts = Math.min(simulation + 1, numSimulations);
+        searchStatistics.addPlayouts(playouts);
+        playoutEvent.end();
+        if (playoutEvent.shouldCommit()) {
+            playoutEvent.playouts = playouts;
+            playoutEvent.maxDepth = maxDepth;
+            playoutEvent.commit();
+        }
+        return result;
+    }
+
+    private M nextRandomMove(P position, IRandomMovePosition<M> randomMovePosition) {
+        if (randomMovePosition != null) {
+            return randomMovePosition.getRandomMove(random);
+        }
+        possibleMoves.clear();
+        position.getPossibleMoves(possibleMoves);
+        return possibleMoves.size() == 0 ? null : possibleMoves.get(random.nextInt(possibleMoves.size()));
+    }
+
+    /** The moves are generated here if the position chose the moves of the game, as the evaluator may depend on them */
+    private double evaluate(P position, IRandomMovePosition<M> randomMovePosition) {
+        if (randomMovePosition != null) {
+            possibleMoves.clear();
+            position.getPossibleMoves(possibleMoves);
+        }
+        return positionEvaluator.evaluate(position, possibleMoves);
+    }
+}
@@ -9,13 +9,16 @@ public class MonteCarloStatistics {
 
     public final int player;
 
-    int numUncertain = 0;
-    int numCertain = 0;
-    int numWon = 0;
-    int numDrawn = 0;
-    int numLost = 0;
+    // written under the lock of the node, and read by the threads selecting among its siblings without it
+    volatile int numUncertain = 0;
+    volatile int numCertain = 0;
+    volatile int numWon = 0;
+    volatile int numDrawn = 0;
+    volatile int numLost = 0;
 
-    boolean isDecided = false;
+    volatile boolean isDecided = false;
+
+    int numVirtualLosses = 0; // the threads searching below the node, guarded by the lock of its parent
 
     public MonteCarloStatistics(int player) {
         this.player = player;
@@ -58,6 +61,21 @@ public class MonteCarloStatistics {
         }
     }
 
+    /** Adds the statistics of the same position in another tree, the result of a tree in which it has been decided replacing the others */
+    public void mergeWith(MonteCarloStatistics statistics) {
+        if (isDecided) {
+            return;
+        } else if (statistics.isDecided) {
+            numUncertain = 0;
+            numCertain = 0;
+            numWon = 0;
+            numDrawn = 0;
+            numLost = 0;
+            isDecided = true;
+        }
+        updateWith(statistics);
+    }
+
     public void setDecided() {
         isDecided = true;
         numCertain += numUncertain;
@@ -96,7 +114,12 @@ public class MonteCarloStatistics {
     }
 
     public double getUncertainty(int parentNumUncertain) {
-        return isDecided || parentNumUncertain == 0 ? 0.0 : Math.sqrt(2 * Math.log(parentNumUncertain) / numUncertain);
+        return getUncertainty(parentNumUncertain, 0);
+    }
+
+    /** The uncertainty counting each virtual loss as a simulation */
+    public double getUncertainty(int parentNumUncertain, int virtualLosses) {
+        return isDecided || parentNumUncertain == 0 ? 0.0 : Math.sqrt(2 * Math.log(parentNumUncertain) / (numUncertain + virtualLosses));
     }
 
     public double getMeanValue() {
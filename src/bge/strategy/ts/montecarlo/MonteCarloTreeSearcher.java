@@ -1,19 +1,28 @@
 package bge.strategy.ts.montecarlo;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import bge.analysis.AnalysisResult;
 import bge.analysis.IPositionEvaluator;
 import bge.analysis.MoveWithScore;
 import bge.analysis.PartialResultObservable;
+import bge.analysis.SearchStatistics;
 import bge.analysis.StrategyResult;
+import bge.igame.IHashablePosition;
 import bge.igame.IPosition;
 import bge.igame.MoveListFactory;
+import bge.strategy.ts.ISearchObserver;
 import bge.strategy.ts.ITreeSearcher;
 import gt.async.ThreadNumber;
 
 public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeSearcher<M, P>, PartialResultObservable {
+    private static final long PROGRESS_INTERVAL_MS = 25;
+    private static final long MERGE_INTERVAL_MS = 250;
+
     private final IMonteCarloChildren<M> monteCarloChildren;
     private final IPositionEvaluator<M, P> positionEvaluator;
     private final MoveListFactory<M> moveListFactory;
@@ -24,9 +33,18 @@ public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeS
 
     private final int numSimulations;
     private final int maxDepth;
+    private int numThreads = 1;
+    private int numTrees = 1;
     private MonteCarloGameNode<M, P> monteCarloNode;
+    private final List<MonteCarloGameNode<M, P>> otherTrees = new ArrayList<>(); // searched with monteCarloNode when there is more than one tree
+    private int nodeBudget = Integer.MAX_VALUE;
+    private int arenaBudgetMb = 0;
+    private ArenaMonteCarloTree<M, P> arenaTree; // searched in place of monteCarloNode when there is an arena budget
+
+    private final SearchStatistics searchStatistics = new SearchStatistics();
 
     private volatile AnalysisResult<M> result;
+    private volatile ISearchObserver<M> searchObserver;
 
     public MonteCarloTreeSearcher(IMonteCarloChildren<M> monteCarloChildren, IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory,
             int numSimulations, int maxDepth) {
@@ -37,21 +55,139 @@ public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeS
         this.maxDepth = maxDepth;
     }
 
+    /** Searches the tree with the given number of threads at once, each descending it with its own copy of the position */
+    public MonteCarloTreeSearcher<M, P> setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+        return this;
+    }
+
+    /**
+     * Searches the given number of independent trees at once, each on its own copy of the position in its own thread, and merges the statistics of their
+     * root children into the result. The trees share nothing while they are searched.
+     */
+    public MonteCarloTreeSearcher<M, P> setNumTrees(int numTrees) {
+        this.numTrees = numTrees;
+        return this;
+    }
+
+    /**
+     * Bounds the number of nodes of the tree, or of each tree when there are several, so that a search without a time limit runs in constant memory. When
+     * the budget is reached the least visited subtrees are collapsed back to leaves that keep their statistics.
+     */
+    public MonteCarloTreeSearcher<M, P> setNodeBudget(int nodeBudget) {
+        this.nodeBudget = nodeBudget;
+        return this;
+    }
+
+    /**
+     * Holds the tree in arrays of at most budgetMb megabytes allocated once, rather than in node objects, so that a long search neither allocates nor grows
+     * past the budget. The arena is searched by one thread and expands children in a random order; 0, the default, holds the tree in node objects. A budget
+     * too small to hold the root and every move of a position is rejected, as the root would never be expanded.
+     */
+    public MonteCarloTreeSearcher<M, P> setArenaBudgetMb(int arenaBudgetMb) {
+        if (arenaBudgetMb < 0 || arenaBudgetMb > 0 && ArenaMonteCarloTree.capacityOf(arenaBudgetMb) < 1 + moveListFactory.getMaxMoves()) {
+            throw new IllegalArgumentException("Arena budget " + arenaBudgetMb + "MB cannot hold a root with " + moveListFactory.getMaxMoves() + " moves");
+        }
+        this.arenaBudgetMb = arenaBudgetMb;
+        return this;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void searchForever(P position, boolean escapeEarly) {
         searchComplete = false;
-        treeSearchThread = new Thread(() -> startSearch((P) position.createCopy(), escapeEarly),
-                "Monte_Carlo_Search_Thread_" + ThreadNumber.getThreadNum(getClass()));
+        result = null;
+        searchStatistics.start();
+        if (arenaBudgetMb > 0) {
+            monteCarloNode = null;
+            otherTrees.clear();
+            if (arenaTree == null || arenaTree.getBudgetMb() != arenaBudgetMb) {
+                arenaTree = new ArenaMonteCarloTree<>(positionEvaluator, moveListFactory, numSimulations, maxDepth, arenaBudgetMb);
+            }
+            arenaTree.resetStopRequested();
+            if (!isRootOf(arenaTree.getPosition(), position)) {
+                arenaTree.reset((P) position.createCopy());
+            }
+        } else if (monteCarloNode != null && isRootOf(monteCarloNode.position, position) && otherTrees.size() == numTrees - 1) {
+            monteCarloNode.resetStopRequested();
+            for (MonteCarloGameNode<M, P> tree : otherTrees) {
+                tree.resetStopRequested();
+            }
+        } else {
+            arenaTree = null;
+            monteCarloNode = new MonteCarloGameNode<>(null, null, (P) position.createCopy(), monteCarloChildren, positionEvaluator, moveListFactory,
+                    numSimulations, maxDepth);
+            otherTrees.clear();
+            for (int i = 1; i < numTrees; ++i) {
+                otherTrees.add(new MonteCarloGameNode<>(null, null, (P) position.createCopy(), monteCarloChildren, positionEvaluator, moveListFactory,
+                        numSimulations, maxDepth));
+            }
+        }
+        if (monteCarloNode != null) {
+            int treeBudget = Math.max(1, nodeBudget / numTrees);
+            monteCarloNode.setNodeBudget(treeBudget);
+            for (MonteCarloGameNode<M, P> tree : otherTrees) {
+                tree.setNodeBudget(treeBudget);
+            }
+        }
+        treeSearchThread = new Thread(() -> startSearch(escapeEarly), "Monte_Carlo_Search_Thread_" + ThreadNumber.getThreadNum(getClass()));
         treeSearchThread.start();
     }
 
-    private void startSearch(P position, boolean escapeEarly) {
-        result = null;
-        monteCarloNode = new MonteCarloGameNode<>(null, null, position, monteCarloChildren, positionEvaluator, moveListFactory, numSimulations, maxDepth);
-        monteCarloNode.searchRoot(escapeEarly);
+    private static <M, P extends IPosition<M>> boolean isRootOf(P rootPosition, P position) {
+        return rootPosition != null && position instanceof IHashablePosition && rootPosition.getCurrentPlayer() == position.getCurrentPlayer()
+                && ((IHashablePosition) rootPosition).getZobristHash() == ((IHashablePosition) position).getZobristHash();
+    }
+
+    private void startSearch(boolean escapeEarly) {
+        ISearchObserver<M> observer = searchObserver;
+        List<Thread> treeThreads = startOtherTrees(escapeEarly);
+        if (arenaTree != null) {
+            arenaTree.searchRoot(escapeEarly, searchStatistics, PROGRESS_INTERVAL_MS,
+                    observer == null ? null : () -> observer.searchProgressed(calculatePartialResult()));
+        } else if (observer == null) {
+            monteCarloNode.searchRoot(escapeEarly, searchStatistics, 0, null, numThreads);
+        } else if (!otherTrees.isEmpty()) {
+            monteCarloNode.searchRoot(escapeEarly, searchStatistics, MERGE_INTERVAL_MS, () -> observer.searchProgressed(calculatePartialResult()),
+                    numThreads);
+        } else {
+            monteCarloNode.searchRoot(escapeEarly, searchStatistics, PROGRESS_INTERVAL_MS, () -> observer.searchProgressed(calculatePartialResult()),
+                    numThreads);
+        }
+        stopOtherTrees(treeThreads);
+        searchStatistics.stop();
         result = calculatePartialResult();
         searchComplete = true;
+        if (observer != null) {
+            observer.searchCompleted();
+        }
+    }
+
+    private List<Thread> startOtherTrees(boolean escapeEarly) {
+        List<Thread> treeThreads = new ArrayList<>(otherTrees.size());
+        MonteCarloGameNode<M, P> firstTree = monteCarloNode;
+        for (MonteCarloGameNode<M, P> tree : otherTrees) {
+            Thread treeThread = new Thread(() -> {
+                tree.searchRoot(escapeEarly, searchStatistics, 0, null, numThreads);
+                firstTree.stopSearch(); // a tree that has been decided ends the search of the others
+            }, "Monte_Carlo_Tree_Thread_" + ThreadNumber.getThreadNum(getClass()));
+            treeThread.start();
+            treeThreads.add(treeThread);
+        }
+        return treeThreads;
+    }
+
+    private void stopOtherTrees(List<Thread> treeThreads) {
+        for (MonteCarloGameNode<M, P> tree : otherTrees) {
+            tree.stopSearch();
+        }
+        for (Thread treeThread : treeThreads) {
+            try {
+                treeThread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
@@ -61,9 +197,17 @@ public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeS
 
     @Override
     public void stopSearch(boolean gameOver) {
+        boolean searching = isSearching();
+        long stopStart = System.nanoTime();
         if (monteCarloNode != null) {
             monteCarloNode.stopSearch();
         }
+        for (MonteCarloGameNode<M, P> tree : otherTrees) {
+            tree.stopSearch();
+        }
+        if (arenaTree != null) {
+            arenaTree.stopSearch();
+        }
         if (treeSearchThread != null) {
             try {
                 treeSearchThread.join();
@@ -71,6 +215,9 @@ public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeS
                 throw new RuntimeException(e);
             }
         }
+        if (searching) {
+            searchStatistics.setStopLatency(System.nanoTime() - stopStart);
+        }
     }
 
     @Override
@@ -78,8 +225,59 @@ public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeS
         return result;
     }
 
+    @Override
+    public SearchStatistics getSearchStatistics() {
+        return searchStatistics;
+    }
+
+    @Override
+    public void setSearchObserver(ISearchObserver<M> searchObserver) {
+        this.searchObserver = searchObserver;
+    }
+
+    /** Promotes the subtree of the move to be the new root, so that the next search starts with the simulations already made below it */
+    @Override
+    public void moveMade(M move) {
+        if (monteCarloNode == null || isSearching()) {
+            return;
+        }
+        monteCarloNode = promoteChild(monteCarloNode, move);
+        for (int i = 0; i < otherTrees.size(); ++i) {
+            otherTrees.set(i, promoteChild(otherTrees.get(i), move));
+        }
+        if (monteCarloNode == null || otherTrees.contains(null)) {
+            monteCarloNode = null;
+            otherTrees.clear();
+        }
+    }
+
+    private static <M, P extends IPosition<M>> MonteCarloGameNode<M, P> promoteChild(MonteCarloGameNode<M, P> root, M move) {
+        MonteCarloGameNode<M, P> child = root.promoteChild(move);
+        if (child == null || child.statistics.isDecided) { // decided nodes drop their children
+            return null;
+        }
+        child.position.makeMove(move); // the root's position is passed to the promoted child
+        return child;
+    }
+
+    @Override
+    public M getPredictedReply(M move) {
+        return null; // the whole position is searched so that the subtree of any reply is kept
+    }
+
     private AnalysisResult<M> calculatePartialResult() {
-        List<MonteCarloGameNode<M, P>> expandedChildren = monteCarloNode.expandedChildren;
+        if (arenaTree != null) {
+            return arenaTree.calculateResult();
+        }
+        synchronized (monteCarloNode) { // the search threads add to the children of the root
+            if (otherTrees.isEmpty() || monteCarloNode.expandedChildren == null) { // a root without children has no moves in any tree
+                return calculatePartialResult(monteCarloNode.expandedChildren);
+            }
+        }
+        return mergePartialResults();
+    }
+
+    private AnalysisResult<M> calculatePartialResult(List<MonteCarloGameNode<M, P>> expandedChildren) {
         if (expandedChildren == null && monteCarloNode.statistics.isDecided) {
             AnalysisResult<M> result = new AnalysisResult<>(monteCarloNode.statistics.player);
             result.addMoveWithScore(new MoveWithScore<M>(null, convertScore(monteCarloNode.statistics, true, monteCarloNode.statistics.numUncertain)));
@@ -99,7 +297,38 @@ public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeS
         return result;
     }
 
-    private static double convertScore(MonteCarloStatistics statistics, boolean isCurrentPlayer, int parentNumUncertain) {
+    /** Sums the statistics of each root child over the trees, taking the result of a tree in which the child has been decided */
+    private AnalysisResult<M> mergePartialResults() {
+        List<MonteCarloGameNode<M, P>> trees = new ArrayList<>(otherTrees.size() + 1);
+        trees.add(monteCarloNode);
+        trees.addAll(otherTrees);
+        int player = monteCarloNode.statistics.player;
+        int parentNumUncertain = 0;
+        Map<M, MonteCarloStatistics> mergedStatistics = new LinkedHashMap<>();
+        for (MonteCarloGameNode<M, P> tree : trees) {
+            synchronized (tree) {
+                if (tree.expandedChildren == null) {
+                    continue;
+                }
+                parentNumUncertain += tree.statistics.numUncertain;
+                for (MonteCarloGameNode<M, P> childNode : tree.expandedChildren) {
+                    mergedStatistics.computeIfAbsent(childNode.parentMove, move -> new MonteCarloStatistics(childNode.statistics.player))
+                            .mergeWith(childNode.statistics);
+                }
+            }
+        }
+        if (mergedStatistics.isEmpty()) {
+            return null;
+        }
+        AnalysisResult<M> result = new AnalysisResult<>(player, mergedStatistics.size());
+        for (Map.Entry<M, MonteCarloStatistics> moveStatistics : mergedStatistics.entrySet()) {
+            MonteCarloStatistics statistics = moveStatistics.getValue();
+            result.addMoveWithScore(moveStatistics.getKey(), convertScore(statistics, player == statistics.player, parentNumUncertain));
+        }
+        return result;
+    }
+
+    static double convertScore(MonteCarloStatistics statistics, boolean isCurrentPlayer, int parentNumUncertain) {
         double meanValue = isCurrentPlayer ? statistics.getMeanValue() : -statistics.getMeanValue();
         if (statistics.isDecided) {
             if (meanValue == MonteCarloStatistics.WIN) {
@@ -120,7 +349,14 @@ public class MonteCarloTreeSearcher<M, P extends IPosition<M>> implements ITreeS
     public StrategyResult getPartialResult() {
         if (monteCarloNode != null) {
             AnalysisResult<M> partialResult = result == null ? calculatePartialResult() : result;
-            return new StrategyResult(partialResult, Collections.emptyList(), monteCarloNode.statistics.getTotalNodesEvaluated());
+            int nodesEvaluated = monteCarloNode.statistics.getTotalNodesEvaluated();
+            for (MonteCarloGameNode<M, P> tree : otherTrees) {
+                nodesEvaluated += tree.statistics.getTotalNodesEvaluated();
+            }
+            return new StrategyResult(partialResult, Collections.emptyList(), nodesEvaluated);
+        } else if (arenaTree != null) {
+            AnalysisResult<M> partialResult = result == null ? calculatePartialResult() : result;
+            return new StrategyResult(partialResult, Collections.emptyList(), arenaTree.getTotalNodesEvaluated());
         } else {
             return new StrategyResult(null, Collections.emptyList(), 0);
         }
@@ -1,12 +1,10 @@
 package bge.strategy.ts.montecarlo;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import bge.igame.IPosition;
 
 public class RandomMonteCarloChildren<M> implements IMonteCarloChildren<M> {
-    private static final Random RANDOM = new Random();
-
     int numUnexpanded;
     int[] unexpandedIndexes;
 
@@ -20,7 +18,7 @@ public class RandomMonteCarloChildren<M> implements IMonteCarloChildren<M> {
     }
 
     @Override
-    public <P extends IPosition<M>> boolean initUnexpanded(MonteCarloGameNode<M, P> parentNode) {
+    public <P extends IPosition<M>> boolean initUnexpanded(MonteCarloGameNode<M, P> parentNode, P position) {
         unexpandedIndexes = new int[numUnexpanded];
         int i = 0;
         do {
@@ -41,7 +39,7 @@ public class RandomMonteCarloChildren<M> implements IMonteCarloChildren<M> {
 
     @Override
     public int getNextNodeIndex() {
-        int moveIndex = RANDOM.nextInt(numUnexpanded);
+        int moveIndex = ThreadLocalRandom.current().nextInt(numUnexpanded);
         int moveListIndex = unexpandedIndexes[moveIndex];
         unexpandedIndexes[moveIndex] = unexpandedIndexes[--numUnexpanded];
         return moveListIndex;
@@ -21,8 +21,7 @@ public class WeightedMonteCarloChildren<M> implements IMonteCarloChildren<M> {
     }
 
     @Override
-    public <P extends IPosition<M>> boolean initUnexpanded(MonteCarloGameNode<M, P> parentNode) {
-        P position = parentNode.position;
+    public <P extends IPosition<M>> boolean initUnexpanded(MonteCarloGameNode<M, P> parentNode, P position) {
         MoveList<M> moveList = parentNode.moveList;
         IPositionEvaluator<M, P> positionEvaluator = parentNode.positionEvaluator;
 
@@ -61,4 +61,31 @@ public class AnalysisResultTest {
         assertFalse(AnalysisResult.isGreater(AnalysisResult.DRAW, 1), "Draw > 1");
         assertFalse(AnalysisResult.isGreater(AnalysisResult.DRAW, AnalysisResult.DRAW), "Draw > Draw");
     }
+
+    @Test
+    public void testGrowsPastCapacity() {
+        AnalysisResult<Integer> result = new AnalysisResult<>(1, 1);
+        for (int i = 0; i < 10; ++i) {
+            result.addMoveWithScore(Integer.valueOf(i), i == 5 ? AnalysisResult.WIN : i);
+        }
+        assertEquals(10, result.getNumMoves());
+        assertEquals(Integer.valueOf(7), result.getMove(7));
+        assertEquals(7.0, result.getScore(7));
+        assertEquals(Integer.valueOf(5), result.getBestMove(1).move);
+        assertEquals(AnalysisResult.LOSS, result.getBestScore(2));
+        assertTrue(result.isWin());
+        assertFalse(result.isDecided());
+    }
+
+    @Test
+    public void testDecidedMoves() {
+        AnalysisResult<String> result = new AnalysisResult<>(1);
+        result.addMoveWithScore("lost", AnalysisResult.LOSS);
+        result.addMoveWithScore("drawn", AnalysisResult.DRAW);
+        result.addMoveWithScore("won", AnalysisResult.WIN);
+        List<MoveWithScore<String>> decidedMoves = result.getDecidedMoves();
+        assertEquals(Arrays.asList("drawn", "won", "lost"), Arrays.asList(decidedMoves.get(0).move, decidedMoves.get(1).move, decidedMoves.get(2).move));
+        assertTrue(result.isDecided());
+        assertEquals(Arrays.asList("won"), result.getBestMoves());
+    }
 }
@@ -0,0 +1,62 @@
+package bge.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class PackedScoreTest {
+    @Test
+    public void testScoresRoundTrip() {
+        for (double score : new double[] { 0, 1.25, -3.1, 0.001, AnalysisResult.WIN_INT, AnalysisResult.LOSS_INT, AnalysisResult.WIN_INT - 5, AnalysisResult.LOSS_INT + 2 }) {
+            assertEquals(score, PackedScore.toDouble(PackedScore.valueOf(score)), 0.0000001);
+        }
+        assertEquals(AnalysisResult.WIN_INT, PackedScore.toDouble(PackedScore.valueOf(AnalysisResult.WIN))); // a win in 0 plies
+        assertTrue(AnalysisResult.isDraw(PackedScore.toDouble(PackedScore.valueOf(AnalysisResult.DRAW))));
+    }
+
+    @Test
+    public void testOrderMatchesIsGreater() {
+        double[] scores = { AnalysisResult.LOSS, AnalysisResult.LOSS_INT + 1, -1, -0.001, AnalysisResult.DRAW, 0, 0.001, 1, AnalysisResult.WIN_INT - 1,
+                AnalysisResult.WIN };
+        for (int i = 0; i < scores.length; ++i) {
+            for (int j = 0; j < scores.length; ++j) {
+                assertEquals(AnalysisResult.isGreater(scores[i], scores[j]), PackedScore.valueOf(scores[i]) > PackedScore.valueOf(scores[j]), i + " > " + j);
+            }
+        }
+    }
+
+    @Test
+    public void testBoundsBetweenScores() {
+        int score = PackedScore.valueOf(0.25);
+        assertTrue(PackedScore.boundOf(Math.nextDown(0.25)) < score);
+        assertTrue(PackedScore.boundOf(Math.nextUp(0.25)) > score);
+        assertEquals(score, PackedScore.boundOf(0.25));
+        assertTrue(PackedScore.boundOf(Math.nextDown(0.0)) < PackedScore.DRAW);
+        assertTrue(PackedScore.boundOf(AnalysisResult.WIN) > PackedScore.valueOf(AnalysisResult.WIN));
+    }
+
+    @Test
+    public void testMateDistance() {
+        int mateInOne = PackedScore.fromChild(-PackedScore.LOSS);
+        assertEquals(PackedScore.WIN - 1, mateInOne);
+        assertEquals(PackedScore.LOSS + 2, PackedScore.fromChild(-mateInOne));
+        assertTrue(mateInOne > PackedScore.fromChild(PackedScore.fromChild(mateInOne)));
+        assertEquals(mateInOne, PackedScore.toChild(PackedScore.fromChild(mateInOne)));
+        assertEquals(AnalysisResult.WIN_INT - 1, PackedScore.toDouble(mateInOne));
+        assertEquals(AnalysisResult.WIN_INT - 2, AnalysisResult.fromChild(PackedScore.toDouble(mateInOne)));
+        assertEquals(AnalysisResult.WIN_IN_ONE, AnalysisResult.fromChild(AnalysisResult.WIN));
+    }
+
+    @Test
+    public void testDrawSurvivesNegation() {
+        assertEquals(PackedScore.DRAW, PackedScore.negate(PackedScore.DRAW));
+        assertTrue(AnalysisResult.isDraw(PackedScore.toDouble(PackedScore.negate(PackedScore.valueOf(AnalysisResult.DRAW)))));
+        for (double score : new double[] { 0, 0.001, -0.001, Math.nextUp(0.0), Math.nextDown(0.0), 0.0015, -0.0015 }) {
+            assertTrue(PackedScore.negate(PackedScore.boundOf(score)) != PackedScore.DRAW, "Bound " + score);
+            assertTrue(PackedScore.negate(PackedScore.valueOf(score)) != PackedScore.DRAW, "Score " + score);
+            int alpha = PackedScore.valueOf(score);
+            assertTrue(PackedScore.negate(PackedScore.nullWindowBeta(alpha)) != PackedScore.DRAW, "Null window above " + score);
+        }
+    }
+}
@@ -104,6 +104,30 @@ public class ChessPositionTest implements ChessConstants {
         }
     }
 
+    @Test
+    public void testNullMove() {
+        ChessPosition position = ForsythEdwardsNotation.stringToPosition("4k3/3p4/8/4P3/8/8/8/4K2R b K - 0 1");
+        makeMove(position, "d7-d5");
+        ChessPosition copy = position.createCopy();
+        long hash = position.getZobristHash();
+        assertEquals(true, position.canPass());
+        position.makeNullMove();
+        assertEquals(TwoPlayers.PLAYER_2, position.getCurrentPlayer());
+        assertEquals(NO_SQUARE, position.enPassantSquare);
+        assertEquals(ForsythEdwardsNotation.stringToPosition("4k3/8/8/3pP3/8/8/8/4K2R b K - 0 2").getZobristHash(), position.getZobristHash());
+        position.unmakeNullMove();
+        assertEquals(TwoPlayers.PLAYER_1, position.getCurrentPlayer());
+        assertEquals(hash, position.getZobristHash());
+        assertEquals(ForsythEdwardsNotation.positionToString(position), ForsythEdwardsNotation.positionToString(copy));
+    }
+
+    @Test
+    public void testCanPassAndZugzwang() {
+        assertEquals(false, ForsythEdwardsNotation.stringToPosition("4k3/8/8/8/8/8/8/R3K2r w - - 0 1").canPass());
+        assertEquals(false, ForsythEdwardsNotation.stringToPosition("4k3/8/8/8/8/8/8/R3K3 w - - 0 1").isZugzwangLikely());
+        assertEquals(true, ForsythEdwardsNotation.stringToPosition("4k3/4p3/8/8/8/8/4P3/R3K3 b - - 0 1").isZugzwangLikely());
+    }
+
     public static void makeMove(ChessPosition position, String moveString) {
         MoveList<IChessMove> possibleMoves = new ArrayMoveList<>(ChessGame.MAX_MOVES);
         position.getPossibleMoves(possibleMoves);
@@ -1,6 +1,7 @@
 package bge.game.tictactoe;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 
@@ -86,7 +87,11 @@ public class TicTacToeTreeSearchTest {
         AnalysisResult<Coordinate> search = treeSearcher.startSearch(position, 9, true);
         Coordinate draw = Coordinate.valueOf(2, 1);
         for (MoveWithScore<Coordinate> moveWithScore : search.getMovesWithScore()) {
-            assertEquals(moveWithScore.move.equals(draw) ? -0.0 : AnalysisResult.WIN, moveWithScore.score, moveWithScore.move.toString());
+            if (moveWithScore.move.equals(draw)) {
+                assertEquals(-0.0, moveWithScore.score, moveWithScore.move.toString());
+            } else {
+                assertTrue(AnalysisResult.isWin(moveWithScore.score), moveWithScore.move.toString());
+            }
         }
         treeSearcher.stopSearch(true);
     }
@@ -122,7 +127,7 @@ public class TicTacToeTreeSearchTest {
             String assertMessage = "search " + String.valueOf(i) + ":\n" + result.toString();
             assertEquals(2, movesWithScore.size(), assertMessage);
             assertEquals(AnalysisResult.DRAW, MoveWithScoreFinder.find(movesWithScore, Coordinate.valueOf(2, 2)).score, assertMessage);
-            assertEquals(AnalysisResult.LOSS, MoveWithScoreFinder.find(movesWithScore, Coordinate.valueOf(0, 2)).score, assertMessage);
+            assertEquals(AnalysisResult.LOSS_IN_TWO, MoveWithScoreFinder.find(movesWithScore, Coordinate.valueOf(0, 2)).score, assertMessage);
         }
         treeSearcher.stopSearch(true);
     }
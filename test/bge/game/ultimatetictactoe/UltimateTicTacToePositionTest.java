@@ -1,11 +1,15 @@
 package bge.game.ultimatetictactoe;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
 
 import org.junit.jupiter.api.Test;
 
@@ -91,4 +95,29 @@ public class UltimateTicTacToePositionTest {
         PerfTest.countPos(new UltimateTicTacToePosition(), 1, 720);
         PerfTest.countPos(new UltimateTicTacToePosition(), 5, 4020960);
     }
+
+    @Test
+    public void testRandomMoveIsPossible() {
+        SplittableRandom random = new SplittableRandom(1);
+        MoveList<Coordinate> possibleMoves = new ArrayMoveList<>(UltimateTicTacToeGame.MAX_MOVES);
+        for (int game = 0; game < 100; ++game) {
+            UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+            while (true) {
+                possibleMoves.clear();
+                position.getPossibleMoves(possibleMoves);
+                if (possibleMoves.size() == 0) {
+                    assertNull(position.getRandomMove(random));
+                    break;
+                }
+                Set<Coordinate> randomMoves = new HashSet<>();
+                for (int i = 0; i < 50 * possibleMoves.size(); ++i) {
+                    Coordinate move = position.getRandomMove(random);
+                    assertTrue(possibleMoves.contains(move), move + " of " + possibleMoves.size());
+                    randomMoves.add(move);
+                }
+                assertEquals(possibleMoves.size(), randomMoves.size()); // every move may be chosen
+                position.makeMove(possibleMoves.get(random.nextInt(possibleMoves.size())));
+            }
+        }
+    }
 }
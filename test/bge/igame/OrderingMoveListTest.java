@@ -0,0 +1,59 @@
+package bge.igame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import bge.game.tictactoe.TicTacToePosition;
+
+public class OrderingMoveListTest {
+    private static MoveList<Coordinate> newMoveList(MoveListProvider<Coordinate> provider, TicTacToePosition position) {
+        MoveList<Coordinate> moveList = provider.getMoveList(0);
+        position.getPossibleMoves(moveList);
+        return moveList;
+    }
+
+    @Test
+    public void testGeneratedOrderWithoutCutoffs() {
+        TicTacToePosition position = new TicTacToePosition();
+        MoveListProvider<Coordinate> provider = new MoveListFactory<Coordinate>(9).newOrderingMoveListProvider();
+        MoveList<Coordinate> moveList = newMoveList(provider, position);
+        MoveList<Coordinate> arrayMoveList = new ArrayMoveList<>(9);
+        position.getPossibleMoves(arrayMoveList);
+        assertEquals(arrayMoveList.size(), moveList.size());
+        for (int i = 0; i < moveList.size(); ++i) {
+            assertEquals(arrayMoveList.get(i), moveList.get(i));
+        }
+    }
+
+    @Test
+    public void testKillersThenHistory() {
+        TicTacToePosition position = new TicTacToePosition();
+        MoveListProvider<Coordinate> provider = new MoveListFactory<Coordinate>(9).newOrderingMoveListProvider();
+        provider.recordCutoff(0, position, Coordinate.valueOf(2, 2), 4);
+        provider.recordCutoff(1, position, Coordinate.valueOf(1, 1), 1);
+        provider.recordCutoff(0, position, Coordinate.valueOf(0, 1), 1);
+        provider.recordCutoff(0, position, Coordinate.valueOf(2, 0), 1);
+
+        MoveList<Coordinate> moveList = newMoveList(provider, position);
+        assertEquals(Coordinate.valueOf(2, 0), moveList.get(0));
+        assertEquals(Coordinate.valueOf(0, 1), moveList.get(1));
+        assertEquals(Coordinate.valueOf(2, 2), moveList.get(2));
+        assertEquals(Coordinate.valueOf(1, 1), moveList.get(3));
+        assertEquals(Coordinate.valueOf(0, 0), moveList.get(4));
+    }
+
+    @Test
+    public void testGeneratedIndex() {
+        TicTacToePosition position = new TicTacToePosition();
+        MoveListProvider<Coordinate> provider = new MoveListFactory<Coordinate>(9).newOrderingMoveListProvider();
+        provider.recordCutoff(0, position, Coordinate.valueOf(2, 2), 1);
+        MoveList<Coordinate> moveList = newMoveList(provider, position);
+        MoveList<Coordinate> arrayMoveList = new ArrayMoveList<>(9);
+        position.getPossibleMoves(arrayMoveList);
+        for (int i = 0; i < moveList.size(); ++i) {
+            assertEquals(arrayMoveList.get(moveList.getGeneratedIndex(i)), moveList.get(i));
+            assertEquals(i, moveList.getIndex(moveList.getGeneratedIndex(i)));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package bge.perf;
+
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import bge.analysis.IPositionEvaluator;
+import bge.game.papersoccer.PaperSoccerGame;
+import bge.game.papersoccer.PaperSoccerPosition;
+import bge.game.papersoccer.PaperSoccerPositionEvaluator;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.IPosition;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkJoinPoolTreeSearcher;
+import bge.strategy.ts.forkjoin.ForkJoinTreeSearcher;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.IterativeDeepeningTreeSearcher;
+import bge.strategy.ts.forkjoin.RootSplittingTreeSearcher;
+
+/** Prints the nodes per second of the fork join schedulers at each number of threads; a program rather than a test, as the unit tests do not time searches */
+public class ForkJoinSchedulerBenchmark {
+    private static final int[] NUM_THREADS = { 1, 2, 4, 8, 16, 32 };
+
+    public static void main(String[] args) {
+        MoveListFactory<Coordinate> utttMoveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        compareSchedulers("Ultimate tic tac toe", UltimateTicTacToePosition::new, new UltimateTicTacToePositionEvaluator(), utttMoveListFactory, 5,
+                "work stealing", (forkableFactory, numThreads) -> new ForkJoinPoolTreeSearcher<>(forkableFactory, utttMoveListFactory, numThreads.intValue()));
+        MoveListFactory<Integer> paperSoccerMoveListFactory = new MoveListFactory<>(PaperSoccerGame.MAX_MOVES); // at most 8 root moves
+        compareSchedulers("Paper soccer", PaperSoccerPosition::new, new PaperSoccerPositionEvaluator(), paperSoccerMoveListFactory, 8, "root splitting",
+                (forkableFactory, numThreads) -> new RootSplittingTreeSearcher<>(forkableFactory, paperSoccerMoveListFactory, numThreads.intValue()));
+    }
+
+    /** Compares the scheduler with the thread workers of ForkJoinTreeSearcher, searching the position to the given plies with minimax */
+    public static <M, P extends IPosition<M>> void compareSchedulers(String gameName, Supplier<P> newPosition, IPositionEvaluator<M, P> positionEvaluator,
+            MoveListFactory<M> moveListFactory, int plies, String schedulerName,
+            BiFunction<ForkableTreeSearchFactory<M, P>, Integer, IterativeDeepeningTreeSearcher<M, P>> newTreeSearcher) {
+        BiFunction<ForkableTreeSearchFactory<M, P>, Integer, IterativeDeepeningTreeSearcher<M, P>> newWorkersTreeSearcher = (forkableFactory,
+                numThreads) -> new ForkJoinTreeSearcher<>(forkableFactory, moveListFactory, numThreads.intValue());
+        nodesPerSecond(newPosition, positionEvaluator, moveListFactory, plies, newWorkersTreeSearcher, 1); // warm up
+        nodesPerSecond(newPosition, positionEvaluator, moveListFactory, plies, newTreeSearcher, 1);
+        System.out.println(gameName + ", " + plies + " plies:");
+        for (int numThreads : NUM_THREADS) {
+            long workersNps = nodesPerSecond(newPosition, positionEvaluator, moveListFactory, plies, newWorkersTreeSearcher, numThreads);
+            long schedulerNps = nodesPerSecond(newPosition, positionEvaluator, moveListFactory, plies, newTreeSearcher, numThreads);
+            System.out.println(numThreads + " threads: workers " + workersNps + " nps, " + schedulerName + " " + schedulerNps + " nps");
+        }
+    }
+
+    private static <M, P extends IPosition<M>> long nodesPerSecond(Supplier<P> newPosition, IPositionEvaluator<M, P> positionEvaluator,
+            MoveListFactory<M> moveListFactory, int plies,
+            BiFunction<ForkableTreeSearchFactory<M, P>, Integer, IterativeDeepeningTreeSearcher<M, P>> newTreeSearcher, int numThreads) {
+        IterativeDeepeningTreeSearcher<M, P> treeSearcher = newTreeSearcher.apply(new ForkableTreeSearchFactory<>(ForkableType.MINIMAX, positionEvaluator,
+                moveListFactory), Integer.valueOf(numThreads));
+        treeSearcher.startSearch(newPosition.get(), plies, false);
+        treeSearcher.stopSearch(true);
+        return treeSearcher.getSearchStatistics().getNodesPerSecond();
+    }
+}
@@ -0,0 +1,111 @@
+package bge.perf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import bge.game.chess.ChessPosition;
+import bge.game.gomoku.GomokuPosition;
+import bge.game.papersoccer.PaperSoccerPosition;
+import bge.game.photosynthesis.IPhotosynthesisMove;
+import bge.game.photosynthesis.PhotosynthesisPosition;
+import bge.game.photosynthesis.PhotosynthesisPositionHasher;
+import bge.game.sudoku.SudokuConstants;
+import bge.game.sudoku.SudokuMove;
+import bge.game.sudoku.SudokuPosition;
+import bge.game.tictactoe.TicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.igame.ArrayMoveList;
+import bge.igame.Coordinate;
+import bge.igame.IHashablePosition;
+import bge.igame.IPosition;
+import bge.igame.MoveList;
+
+public class PositionHashTest {
+    private static <M, P extends IPosition<M> & IHashablePosition> void checkHashes(P position, int depth) {
+        long hash = position.getZobristHash();
+        MoveList<M> possibleMoves = new ArrayMoveList<>(SudokuConstants.MAX_MOVES);
+        position.getPossibleMoves(possibleMoves);
+        int i = 0;
+        while (i < possibleMoves.size()) {
+            M move = possibleMoves.get(i);
+            position.makeMove(move);
+            assertNotEquals(hash, position.getZobristHash(), move.toString());
+            assertEquals(position.getZobristHash(), ((IHashablePosition) position.createCopy()).getZobristHash());
+            if (depth > 0) {
+                checkHashes(position, depth - 1);
+            }
+            position.unmakeMove(move);
+            assertEquals(hash, position.getZobristHash(), move.toString());
+            ++i;
+        }
+    }
+
+    @SafeVarargs
+    private static <M, P extends IPosition<M> & IHashablePosition> long hashAfter(P position, M... moves) {
+        for (M move : moves) {
+            position.makeMove(move);
+        }
+        return position.getZobristHash();
+    }
+
+    @Test
+    public void testChess() {
+        checkHashes(new ChessPosition(), 2);
+    }
+
+    @Test
+    public void testTicTacToe() {
+        checkHashes(new TicTacToePosition(), 4);
+        Coordinate a = Coordinate.valueOf(0, 0);
+        Coordinate b = Coordinate.valueOf(1, 1);
+        Coordinate c = Coordinate.valueOf(2, 2);
+        assertEquals(hashAfter(new TicTacToePosition(), a, b, c), hashAfter(new TicTacToePosition(), c, b, a));
+        assertNotEquals(hashAfter(new TicTacToePosition(), a, b, c), hashAfter(new TicTacToePosition(), b, a, c));
+    }
+
+    @Test
+    public void testUltimateTicTacToe() {
+        checkHashes(new UltimateTicTacToePosition(), 2);
+        Coordinate a = Coordinate.valueOf(4, 4);
+        Coordinate b = Coordinate.valueOf(4, 0);
+        Coordinate c = Coordinate.valueOf(0, 4);
+        assertEquals(hashAfter(new UltimateTicTacToePosition(), a, b, c), hashAfter(new UltimateTicTacToePosition(), c, b, a));
+    }
+
+    @Test
+    public void testGomoku() {
+        checkHashes(new GomokuPosition(), 1);
+        Integer a = Integer.valueOf(21);
+        Integer b = Integer.valueOf(22);
+        Integer c = Integer.valueOf(23);
+        assertEquals(hashAfter(new GomokuPosition(), a, b, c), hashAfter(new GomokuPosition(), c, b, a));
+    }
+
+    @Test
+    public void testPaperSoccer() {
+        checkHashes(new PaperSoccerPosition(), 4);
+    }
+
+    @Test
+    public void testPhotosynthesis() {
+        PhotosynthesisPosition position = new PhotosynthesisPosition(4);
+        MoveList<IPhotosynthesisMove> possibleMoves = new ArrayMoveList<>(SudokuConstants.MAX_MOVES);
+        for (int i = 0; i < 40; ++i) {
+            possibleMoves.clear();
+            position.getPossibleMoves(possibleMoves);
+            position.makeMove(possibleMoves.get(i % possibleMoves.size()));
+            assertEquals(PhotosynthesisPositionHasher.computeHash(position), position.getZobristHash());
+        }
+        checkHashes(position, 2);
+    }
+
+    @Test
+    public void testSudoku() {
+        checkHashes(new SudokuPosition(), 1);
+        SudokuMove a = SudokuMove.valueOf(0, SudokuConstants.DIGIT_1);
+        SudokuMove b = SudokuMove.valueOf(40, SudokuConstants.DIGIT_5);
+        assertEquals(hashAfter(new SudokuPosition(), a, b), hashAfter(new SudokuPosition(), b, a));
+    }
+}
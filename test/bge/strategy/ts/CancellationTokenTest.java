@@ -0,0 +1,68 @@
+package bge.strategy.ts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.SearchStatistics;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkJoinTreeSearcher;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+
+public class CancellationTokenTest {
+    @Test
+    public void testCancelParentCancelsChildren() {
+        CancellationToken root = new CancellationToken();
+        CancellationToken child = root.newChild();
+        CancellationToken grandchild = child.newChild();
+        CancellationToken sibling = root.newChild();
+        child.cancel();
+        assertFalse(root.isCanceled());
+        assertTrue(grandchild.isCanceled());
+        assertFalse(sibling.isCanceled());
+        root.cancel();
+        assertTrue(sibling.isCanceled());
+    }
+
+    @Test
+    public void testResetCancellation() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkableTreeSearchFactory<Coordinate, UltimateTicTacToePosition> factory = new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA,
+                new UltimateTicTacToePositionEvaluator(), moveListFactory);
+        CancellationToken token = factory.getCancellationToken();
+        factory.resetCancellation();
+        assertTrue(token == factory.getCancellationToken()); // kept until canceled
+        token.cancel();
+        factory.resetCancellation();
+        assertFalse(factory.getCancellationToken().isCanceled());
+    }
+
+    @Test
+    public void testStopLatency() throws InterruptedException {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 4);
+        treeSearcher.startSearch(new UltimateTicTacToePosition(), 2, false); // warm up
+        long maxStopLatency = 0;
+        for (int i = 0; i < 10; ++i) {
+            treeSearcher.searchForever(new UltimateTicTacToePosition(), false);
+            Thread.sleep(20);
+            treeSearcher.stopSearch(false);
+            SearchStatistics statistics = treeSearcher.getSearchStatistics();
+            maxStopLatency = Math.max(maxStopLatency, statistics.getStopLatencyMicros());
+            AnalysisResult<Coordinate> result = treeSearcher.getResult();
+            assertEquals(81, result.getNumMoves());
+        }
+        treeSearcher.stopSearch(true);
+        System.out.println("Max stop latency: " + maxStopLatency + "us");
+        assertTrue(maxStopLatency < 100000, maxStopLatency + "us");
+    }
+}
@@ -0,0 +1,103 @@
+package bge.strategy.ts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkJoinTreeSearcher;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+
+public class TimeManagerTest {
+    private static AnalysisResult<String> newResult(String bestMove, double score) {
+        AnalysisResult<String> result = new AnalysisResult<>(1);
+        result.addMoveWithScore(new MoveWithScore<>(bestMove, score));
+        return result;
+    }
+
+    @Test
+    public void testFixedTimeLimits() {
+        TimeManager<String> timeManager = new TimeManager<>(1000);
+        timeManager.startMove();
+        assertEquals(750, timeManager.getSoftLimit());
+        assertEquals(1000, timeManager.getHardLimit());
+    }
+
+    @Test
+    public void testBestMoveChangeExtendsFixedTime() {
+        TimeManager<String> timeManager = new TimeManager<>(1000);
+        timeManager.startMove();
+        timeManager.plyCompleted(newResult("a", 1), 1);
+        timeManager.plyCompleted(newResult("a", 1), 2);
+        assertEquals(750, timeManager.getSoftLimit());
+        timeManager.plyCompleted(newResult("b", 1), 3);
+        assertEquals(1000, timeManager.getSoftLimit());
+    }
+
+    @Test
+    public void testFixedTimeSearchesPastHalfTheTime() throws InterruptedException {
+        TimeManager<String> timeManager = new TimeManager<>(200);
+        timeManager.startMove();
+        Thread.sleep(120);
+        timeManager.searchProgressed(newResult("a", 1));
+        assertFalse(timeManager.isStopped());
+    }
+
+    @Test
+    public void testClockLimits() {
+        TimeManager<String> timeManager = new TimeManager<String>(1000).setClock(30000, 300);
+        timeManager.startMove();
+        assertEquals(30000 / 30 + 225, timeManager.getSoftLimit());
+        assertEquals((30000 / 30 + 225) * 4, timeManager.getHardLimit());
+        timeManager.endMove();
+        long remainingMs = timeManager.getRemainingMs();
+        assertTrue(remainingMs > 30000 && remainingMs <= 30300, "Remaining " + remainingMs);
+    }
+
+    @Test
+    public void testBestMoveChangeExtendsSoftLimit() {
+        TimeManager<String> timeManager = new TimeManager<String>(1000).setClock(15000, 0);
+        timeManager.startMove();
+        timeManager.plyCompleted(newResult("a", 1), 1);
+        timeManager.plyCompleted(newResult("a", 1), 2);
+        assertEquals(500, timeManager.getSoftLimit());
+        timeManager.plyCompleted(newResult("b", 1), 3);
+        assertEquals(750, timeManager.getSoftLimit());
+        timeManager.plyCompleted(newResult("b", 0), 4); // the score drops
+        assertEquals(1000, timeManager.getSoftLimit());
+        assertFalse(timeManager.isStopped());
+    }
+
+    @Test
+    public void testStopWhenNextPlyCannotFinish() throws InterruptedException {
+        TimeManager<String> timeManager = new TimeManager<>(1000);
+        timeManager.startMove();
+        timeManager.plyCompleted(newResult("a", 1), 1);
+        assertFalse(timeManager.isStopped());
+        Thread.sleep(300); // a ply 300 times longer than the last
+        timeManager.plyCompleted(newResult("a", 1), 2);
+        assertTrue(timeManager.isStopped());
+    }
+
+    @Test
+    public void testGetMoveWithinHardLimit() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 2);
+        TreeSearchStrategy<Coordinate> strategy = new TreeSearchStrategy<>(treeSearcher, 200, false);
+        long start = System.currentTimeMillis();
+        strategy.getMove(new UltimateTicTacToePosition());
+        long time = System.currentTimeMillis() - start;
+        assertTrue(time < 600, "Searched for " + time + "ms"); // allowing for the workers to stop
+        strategy.stopSearch();
+    }
+}
@@ -0,0 +1,126 @@
+package bge.strategy.ts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.game.ultimatetictactoe.UltimateTicTacToeUtilities;
+import bge.igame.Coordinate;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkJoinTreeSearcher;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+import bge.strategy.ts.montecarlo.MonteCarloTreeSearcher;
+import bge.strategy.ts.montecarlo.RandomMonteCarloChildren;
+
+public class TreeSearchStrategyTest {
+    private static final MoveListFactory<Coordinate> MOVE_LIST_FACTORY = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+
+    @BeforeAll
+    public static void initialize() {
+        UltimateTicTacToeUtilities.initialize(); // so that the tables are not built in the time of the first move
+    }
+
+    private static ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> newForkJoinTreeSearcher() {
+        return new ForkJoinTreeSearcher<>(new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), MOVE_LIST_FACTORY)
+                .setTranspositionTable(new TranspositionTable(1)), MOVE_LIST_FACTORY, 2);
+    }
+
+    private static Coordinate getMove(TreeSearchStrategy<Coordinate> strategy, UltimateTicTacToePosition position) {
+        Coordinate move = strategy.getMove(position);
+        strategy.pauseSearch(); // as the game runner does when the turn ends
+        return move;
+    }
+
+    private static Coordinate otherMove(UltimateTicTacToePosition position, Coordinate move) {
+        MoveList<Coordinate> possibleMoves = MOVE_LIST_FACTORY.newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        for (int i = 0; i < possibleMoves.size(); ++i) {
+            if (!possibleMoves.get(i).equals(move)) {
+                return possibleMoves.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static void assertLegal(UltimateTicTacToePosition position, Coordinate move) {
+        MoveList<Coordinate> possibleMoves = MOVE_LIST_FACTORY.newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        assertTrue(possibleMoves.contains(move), move + " is legal");
+    }
+
+    @Test
+    public void testPonderHit() {
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newForkJoinTreeSearcher();
+        TreeSearchStrategy<Coordinate> strategy = new TreeSearchStrategy<Coordinate>(treeSearcher, 500, false).setPonder(true);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+
+        Coordinate move = getMove(strategy, position);
+        strategy.moveMade(move);
+        assertTrue(treeSearcher.isSearching());
+        position.makeMove(move);
+
+        Coordinate reply = strategy.getPredictedReply();
+        assertNotNull(reply);
+
+        strategy.moveMade(reply);
+        assertTrue(treeSearcher.isSearching());
+        position.makeMove(reply);
+
+        Coordinate nextMove = getMove(strategy, position);
+        assertEquals(position.getCurrentPlayer(), treeSearcher.getResult().getPlayer());
+        assertLegal(position, nextMove);
+        strategy.stopSearch();
+    }
+
+    @Test
+    public void testPonderMiss() {
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newForkJoinTreeSearcher();
+        TreeSearchStrategy<Coordinate> strategy = new TreeSearchStrategy<Coordinate>(treeSearcher, 500, false).setPonder(true);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+
+        Coordinate move = getMove(strategy, position);
+        strategy.moveMade(move);
+        position.makeMove(move);
+
+        Coordinate reply = otherMove(position, strategy.getPredictedReply());
+        strategy.moveMade(reply);
+        assertFalse(treeSearcher.isSearching());
+        position.makeMove(reply);
+
+        Coordinate nextMove = getMove(strategy, position);
+        assertLegal(position, nextMove);
+        strategy.stopSearch();
+    }
+
+    @Test
+    public void testPonderMonteCarlo() {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0),
+                new UltimateTicTacToePositionEvaluator(), MOVE_LIST_FACTORY, 1, UltimateTicTacToeUtilities.MAX_REASONABLE_DEPTH);
+        TreeSearchStrategy<Coordinate> strategy = new TreeSearchStrategy<Coordinate>(treeSearcher, 500, false).setPonder(true);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+
+        Coordinate move = getMove(strategy, position);
+        strategy.moveMade(move);
+        assertTrue(treeSearcher.isSearching());
+        position.makeMove(move);
+
+        Coordinate reply = otherMove(position, null);
+        strategy.moveMade(reply);
+        assertFalse(treeSearcher.isSearching());
+        position.makeMove(reply);
+
+        Coordinate nextMove = getMove(strategy, position);
+        assertLegal(position, nextMove);
+        strategy.stopSearch();
+    }
+}
@@ -1,15 +1,27 @@
 package bge.strategy.ts.forkjoin;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import org.junit.jupiter.api.Test;
 
+import bge.analysis.AnalysisResult;
 import bge.analysis.IPositionEvaluator;
+import bge.analysis.MoveWithScore;
+import bge.analysis.PackedScore;
 import bge.game.chess.ChessGame;
 import bge.game.chess.ChessPosition;
 import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.fen.ForsythEdwardsNotation;
 import bge.game.chess.move.IChessMove;
+import bge.game.tictactoe.TicTacToeGame;
+import bge.game.tictactoe.TicTacToePosition;
+import bge.game.tictactoe.TicTacToePositionEvaluator;
+import bge.igame.Coordinate;
 import bge.igame.IPosition;
 import bge.igame.MoveListFactory;
 import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
 
 public class AlphaBetaQPositionEvaluatorTest {
     @Test
@@ -24,6 +36,87 @@ public class AlphaBetaQPositionEvaluatorTest {
         ForkableAlphaBetaTest.compareStrategies(new ChessPosition(), moveListFactory, strat1, strat2, 4, 5);
     }
 
+    @Test
+    public void testPruningFindsWinningCapture() {
+        for (int i = 0; i < 4; ++i) {
+            MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+            ForkJoinTreeSearcher<IChessMove, ChessPosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory)
+                            .setNullMovePruning((i & 1) != 0).setLateMoveReductions((i & 2) != 0),
+                    moveListFactory, 1);
+            AnalysisResult<IChessMove> result = treeSearcher.startSearch(ForsythEdwardsNotation.stringToPosition("4k3/pp6/8/3q4/8/8/PP1R4/4K3 w - - 0 1"), 5, false);
+            treeSearcher.stopSearch(true);
+            assertEquals("d2xd5", result.getBestMove(result.getPlayer()).move.toString());
+        }
+    }
+
+    @Test
+    public void testPruningSearchesNoMoreNodes() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        CountingPositionEvaluator<IChessMove, ChessPosition> evaluator = new CountingPositionEvaluator<>(new ChessPositionEvaluator());
+        evaluator.assertSameScoreInNoMoreNodes(new ChessPosition(), moveListFactory, 5,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16)),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16))
+                        .setNullMovePruning(true),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16))
+                        .setLateMoveReductions(true),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16))
+                        .setNullMovePruning(true).setLateMoveReductions(true));
+    }
+
+    @Test
+    public void testPackedScoresEqualDoubleScores() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        for (int plies = 1; plies <= 4; ++plies) {
+            double[] bestScores = new double[2];
+            for (int i = 0; i < 2; ++i) {
+                ForkJoinTreeSearcher<IChessMove, ChessPosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                        new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory)
+                                .setTranspositionTable(new TranspositionTable(16)).setPackedScores(i == 1),
+                        moveListFactory, 2);
+                AnalysisResult<IChessMove> result = treeSearcher.startSearch(new ChessPosition(), plies, false);
+                treeSearcher.stopSearch(true);
+                bestScores[i] = result.getBestMove(result.getPlayer()).score;
+            }
+            assertEquals(bestScores[0], bestScores[1], 1.0 / PackedScore.SCALE, "Comparing scores at " + plies + " plies");
+        }
+    }
+
+    @Test
+    public void testPackedScoresKeepDraws() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(TicTacToeGame.MAX_MOVES);
+        for (int i = 0; i < 2; ++i) {
+            ForkJoinTreeSearcher<Coordinate, TicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new TicTacToePositionEvaluator(), moveListFactory)
+                            .setTranspositionTable(new TranspositionTable(16)).setPackedScores(i == 1),
+                    moveListFactory, 1);
+            AnalysisResult<Coordinate> result = treeSearcher.startSearch(new TicTacToePosition(), 9, false);
+            treeSearcher.stopSearch(true);
+            assertEquals(9, result.getNumMoves());
+            for (int j = 0; j < result.getNumMoves(); ++j) {
+                assertTrue(AnalysisResult.isDraw(result.getScore(j)), result.getMove(j) + " " + result.getScore(j) + ", packed " + (i == 1));
+            }
+            assertTrue(result.isDecided(), "Packed " + (i == 1));
+        }
+    }
+
+    @Test
+    public void testFindShortestMate() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        for (int i = 0; i < 4; ++i) {
+            ForkableType forkableType = i == 0 ? ForkableType.MINIMAX : i == 1 ? ForkableType.ALPHA_BETA : ForkableType.ALPHA_BETA_Q;
+            ForkJoinTreeSearcher<IChessMove, ChessPosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(forkableType, new ChessPositionEvaluator(), moveListFactory)
+                            .setTranspositionTable(new TranspositionTable(16)).setPackedScores(i == 3),
+                    moveListFactory, 2);
+            AnalysisResult<IChessMove> result = treeSearcher.startSearch(ForsythEdwardsNotation.stringToPosition("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), 3, false);
+            treeSearcher.stopSearch(true);
+            MoveWithScore<IChessMove> bestMove = result.getBestMove(result.getPlayer());
+            assertEquals(AnalysisResult.WIN_IN_ONE, bestMove.score, forkableType.toString());
+            assertEquals("[a1-a8]", result.getBestMoves().toString(), forkableType.toString());
+        }
+    }
+
     private static class ForkableAlphaBetaQTestFactory<M, P extends IPosition<M>> extends ForkableTreeSearchFactory<M, P> {
         public ForkableAlphaBetaQTestFactory(ForkableType forkableType, IPositionEvaluator<M, P> positionEvaluator, MoveListFactory<M> moveListFactory) {
             super(forkableType, positionEvaluator, moveListFactory);
@@ -0,0 +1,49 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.IPositionEvaluator;
+import bge.igame.IPosition;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+
+/** Counts the positions evaluated, to compare the nodes the search options save */
+public class CountingPositionEvaluator<M, P extends IPosition<M>> implements IPositionEvaluator<M, P> {
+    private final IPositionEvaluator<M, P> positionEvaluator;
+    final LongAdder nodes = new LongAdder();
+
+    public CountingPositionEvaluator(IPositionEvaluator<M, P> positionEvaluator) {
+        this.positionEvaluator = positionEvaluator;
+    }
+
+    @Override
+    public double evaluate(P position, MoveList<M> possibleMoves) {
+        nodes.increment();
+        return positionEvaluator.evaluate(position, possibleMoves);
+    }
+
+    /** Searches with one worker, so that the number of nodes is the same each time */
+    AnalysisResult<M> search(P position, MoveListFactory<M> moveListFactory, ForkableTreeSearchFactory<M, P> forkableFactory, int plies) {
+        nodes.reset();
+        ForkJoinTreeSearcher<M, P> treeSearcher = new ForkJoinTreeSearcher<>(forkableFactory, moveListFactory, 1);
+        AnalysisResult<M> result = treeSearcher.startSearch(position, plies, false);
+        treeSearcher.stopSearch(true);
+        return result;
+    }
+
+    /** Asserts that each of the factories, which evaluate with this evaluator, finds the best score of the first in no more nodes */
+    @SafeVarargs
+    final void assertSameScoreInNoMoreNodes(P position, MoveListFactory<M> moveListFactory, int plies, ForkableTreeSearchFactory<M, P>... forkableFactories) {
+        AnalysisResult<M> expected = search(position, moveListFactory, forkableFactories[0], plies);
+        long expectedNodes = nodes.sum();
+        for (int i = 1; i < forkableFactories.length; ++i) {
+            AnalysisResult<M> result = search(position, moveListFactory, forkableFactories[i], plies);
+            assertEquals(expected.getBestMove(expected.getPlayer()).score, result.getBestMove(result.getPlayer()).score, 0.001, "Comparing score " + i);
+            assertTrue(nodes.sum() <= expectedNodes, "Search " + i + " " + nodes.sum() + " nodes, first " + expectedNodes);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+import bge.analysis.MoveWithScoreFinder;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+
+/** Checks the schedulers against the thread workers of ForkJoinTreeSearcher */
+public class ForkJoinSchedulersTest {
+    private static final int NUM_SCHEDULERS = 2;
+
+    private static IterativeDeepeningTreeSearcher<Coordinate, UltimateTicTacToePosition> newTreeSearcher(int scheduler,
+            ForkableTreeSearchFactory<Coordinate, UltimateTicTacToePosition> forkableFactory, MoveListFactory<Coordinate> moveListFactory, int numWorkers) {
+        return scheduler == 0
+                ? new ForkJoinPoolTreeSearcher<>(forkableFactory, moveListFactory, numWorkers)
+                : new RootSplittingTreeSearcher<>(forkableFactory, moveListFactory, numWorkers);
+    }
+
+    @Test
+    public void testStartStop() throws InterruptedException {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        for (int scheduler = 0; scheduler < NUM_SCHEDULERS; ++scheduler) {
+            for (int numWorkers : new int[] { 1, 2, 4 }) {
+                IterativeDeepeningTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher(scheduler,
+                        new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory,
+                        numWorkers);
+                treeSearcher.searchForever(new UltimateTicTacToePosition(), true);
+                Thread.sleep(50);
+                treeSearcher.stopSearch(true);
+                AnalysisResult<Coordinate> result = treeSearcher.getResult();
+                assertNotNull(result.getBestMove(result.getPlayer()).move, "Scheduler " + scheduler + ", " + numWorkers + " workers");
+            }
+        }
+    }
+
+    @Test
+    public void testStopThenRestart() throws InterruptedException {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> expectedSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 1);
+        AnalysisResult<Coordinate> expected = expectedSearcher.startSearch(new UltimateTicTacToePosition(), 4, false);
+        expectedSearcher.stopSearch(true);
+        for (int numWorkers : new int[] { 1, 4 }) {
+            RootSplittingTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new RootSplittingTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory,
+                    numWorkers);
+            UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+            position.makeMove(Coordinate.valueOf(4, 4));
+            treeSearcher.searchForever(position, false);
+            Thread.sleep(50);
+            treeSearcher.stopSearch(false); // in the middle of a ply, leaving root moves and forks unsearched
+            assertEquals(0, treeSearcher.getNumQueuedSearches(), numWorkers + " workers");
+            AnalysisResult<Coordinate> result = treeSearcher.startSearch(new UltimateTicTacToePosition(), 4, false);
+            assertEquals(expected.getNumMoves(), result.getNumMoves());
+            assertEquals(expected.getBestScore(expected.getPlayer()), result.getBestScore(result.getPlayer()), 0.001, numWorkers + " workers");
+            treeSearcher.stopSearch(true);
+        }
+    }
+
+    @Test
+    public void testEqualsThreadWorkerScheduler() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        for (int scheduler = 0; scheduler < NUM_SCHEDULERS; ++scheduler) {
+            for (int i = 0; i < 3; ++i) { // alpha beta, then with young brothers wait, then minimax
+                ForkableType forkableType = i == 2 ? ForkableType.MINIMAX : ForkableType.ALPHA_BETA;
+                ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> s1 = new ForkJoinTreeSearcher<>(
+                        new ForkableTreeSearchFactory<>(forkableType, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 4);
+                IterativeDeepeningTreeSearcher<Coordinate, UltimateTicTacToePosition> s2 = newTreeSearcher(scheduler,
+                        new ForkableTreeSearchFactory<>(forkableType, new UltimateTicTacToePositionEvaluator(), moveListFactory).setYoungBrothersWait(i == 1),
+                        moveListFactory, 4);
+                for (int plies = 1; plies <= 5; ++plies) {
+                    AnalysisResult<Coordinate> s1Result = s1.startSearch(new UltimateTicTacToePosition(), plies, false);
+                    AnalysisResult<Coordinate> s2Result = s2.startSearch(new UltimateTicTacToePosition(), plies, false);
+                    List<MoveWithScore<Coordinate>> s2Moves = s2Result.getMovesWithScore();
+                    assertEquals(s1Result.getMovesWithScore().size(), s2Moves.size());
+                    for (MoveWithScore<Coordinate> s1MoveWithScore : s1Result.getMovesWithScore()) {
+                        assertEquals(s1MoveWithScore.score, MoveWithScoreFinder.find(s2Moves, s1MoveWithScore.move).score, 0.001,
+                                "Scheduler " + scheduler + ", " + forkableType + ", " + plies + " plies, " + s1MoveWithScore);
+                    }
+                }
+                s1.stopSearch(true);
+                s2.stopSearch(true);
+            }
+        }
+    }
+}
@@ -1,14 +1,32 @@
 package bge.strategy.ts.forkjoin;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+import bge.game.forkjoinexample.ForkJoinExampleNode;
+import bge.game.forkjoinexample.ForkJoinExampleThreadTracker;
+import bge.game.forkjoinexample.ForkJoinExampleTree;
+import bge.game.forkjoinexample.ForkJoinPositionEvaluator;
 import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
 import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
 import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
 import bge.igame.Coordinate;
+import bge.igame.MoveList;
 import bge.igame.MoveListFactory;
+import bge.strategy.ts.ISearchObserver;
 import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
 
 public class ForkJoinTreeSearcherTest {
     private static void doTest(int numThreads) throws InterruptedException {
@@ -77,4 +95,152 @@ public class ForkJoinTreeSearcherTest {
         System.out.println(numThreads + " workers " + numPlies + " plies in " + (System.currentTimeMillis() - start) + "ms");
         iterativeDeepeningSearcher.stopSearch(true);
     }
+
+    private static <M> Map<M, Double> scoresByMove(AnalysisResult<M> result) {
+        Map<M, Double> scores = new HashMap<>();
+        for (MoveWithScore<M> moveWithScore : result.getMovesWithScore()) {
+            scores.put(moveWithScore.move, Double.valueOf(moveWithScore.score));
+        }
+        return scores;
+    }
+
+    @Test
+    public void testPipelinedDeepeningScoresEqual() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        for (int plies = 1; plies <= 4; ++plies) {
+            ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.MINIMAX, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 4);
+            ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> pipelinedSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.MINIMAX, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 4)
+                            .setPipelinedDeepening(true);
+            Map<Coordinate, Double> expected = scoresByMove(treeSearcher.startSearch(new UltimateTicTacToePosition(), plies, false));
+            Map<Coordinate, Double> actual = scoresByMove(pipelinedSearcher.startSearch(new UltimateTicTacToePosition(), plies, false));
+            assertEquals(expected, actual, "Comparing scores at " + plies + " plies");
+            treeSearcher.stopSearch(true);
+            pipelinedSearcher.stopSearch(true);
+        }
+    }
+
+    @Test
+    public void testPipelinedDeepeningBestScoreEqualsAlphaBeta() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        for (int i = 0; i < 3; ++i) { // full window, then the root moves searched ahead are merged into an aspiration window, then into multi-PV
+            ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 4);
+            ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> pipelinedSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                            .setAspirationWindow(i == 1 ? 0.5 : 0).setMultiPv(i == 2 ? 3 : 0),
+                    moveListFactory, 4).setPipelinedDeepening(true);
+            AnalysisResult<Coordinate> expected = treeSearcher.startSearch(new UltimateTicTacToePosition(), 5, false);
+            AnalysisResult<Coordinate> actual = pipelinedSearcher.startSearch(new UltimateTicTacToePosition(), 5, false);
+            assertEquals(expected.getNumMoves(), actual.getNumMoves());
+            assertEquals(expected.getBestScore(expected.getPlayer()), actual.getBestScore(actual.getPlayer()), 0.001, "Search " + i);
+            treeSearcher.stopSearch(true);
+            pipelinedSearcher.stopSearch(true);
+        }
+    }
+
+    @Test
+    public void testStartStopPipelined() throws InterruptedException {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory), moveListFactory, 4)
+                        .setPipelinedDeepening(true);
+        Semaphore pliesCompleted = new Semaphore(0);
+        treeSearcher.setSearchObserver(new ISearchObserver<Coordinate>() {
+            @Override
+            public void plyCompleted(AnalysisResult<Coordinate> result, int plies) {
+                pliesCompleted.release();
+            }
+
+            @Override
+            public void searchProgressed(AnalysisResult<Coordinate> result) {
+            }
+
+            @Override
+            public void searchCompleted() {
+            }
+        });
+        for (int i = 0; i < 10; ++i) {
+            pliesCompleted.drainPermits();
+            treeSearcher.searchForever(new UltimateTicTacToePosition(), false);
+            pliesCompleted.acquire(); // stopping in the first ply leaves moves unscored
+            Thread.sleep(20);
+            treeSearcher.stopSearch(false);
+            AnalysisResult<Coordinate> result = treeSearcher.getResult();
+            assertEquals(81, result.getNumMoves());
+        }
+        treeSearcher.stopSearch(true);
+    }
+
+    @AfterEach
+    public void resetSleepTimes() {
+        ForkJoinExampleThreadTracker.setSleepTimes(100, 25, 10);
+    }
+
+    @Test
+    public void testComparePipelinedUtilisation() {
+        ForkJoinExampleThreadTracker.setSleepTimes(1, 0, 0);
+        MoveListFactory<ForkJoinExampleNode> moveListFactory = new MoveListFactory<>(4);
+        long[] idleWorkerMs = new long[2];
+        for (int i = 0; i < 2; ++i) { // ply by ply, then pipelined
+            ForkJoinExampleTree tree = new ForkJoinExampleTree(6, 4);
+            ForkJoinExampleThreadTracker.init(tree);
+            ForkJoinTreeSearcher<ForkJoinExampleNode, ForkJoinExampleTree> treeSearcher = new ForkJoinTreeSearcher<>(
+                    new ForkableTreeSearchFactory<>(ForkableType.MINIMAX, new ForkJoinPositionEvaluator(), moveListFactory), moveListFactory, 4)
+                            .setPipelinedDeepening(i == 1);
+            ForkJoinExampleThreadTracker.searchStarted();
+            AnalysisResult<ForkJoinExampleNode> result = treeSearcher.startSearch(tree, 5, false);
+            idleWorkerMs[i] = treeSearcher.getSearchStatistics().getIdleWorkerMs();
+            assertEquals(4, result.getNumMoves());
+            treeSearcher.stopSearch(true);
+        }
+        assertTrue(idleWorkerMs[1] < idleWorkerMs[0], "Workers idle pipelined " + idleWorkerMs[1] + "ms, ply by ply " + idleWorkerMs[0] + "ms");
+    }
+
+    @Test
+    public void testPredictedReplyLeavesSearchUnchanged() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        TranspositionTable transpositionTable = new TranspositionTable(1);
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(transpositionTable),
+                moveListFactory, 2);
+        AtomicInteger observerCalls = new AtomicInteger();
+        treeSearcher.setSearchObserver(new ISearchObserver<Coordinate>() {
+            @Override
+            public void plyCompleted(AnalysisResult<Coordinate> result, int plies) {
+                observerCalls.incrementAndGet();
+            }
+
+            @Override
+            public void searchProgressed(AnalysisResult<Coordinate> result) {
+                observerCalls.incrementAndGet();
+            }
+
+            @Override
+            public void searchCompleted() {
+                observerCalls.incrementAndGet();
+            }
+        });
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        AnalysisResult<Coordinate> result = treeSearcher.startSearch(position, 3, false);
+        int plies = treeSearcher.getPlies();
+        long nodes = treeSearcher.getSearchStatistics().getNodes();
+        int calls = observerCalls.get();
+
+        transpositionTable.clear(); // so that the reply is searched for
+        Coordinate move = result.getBestMove(result.getPlayer()).move;
+        Coordinate reply = treeSearcher.getPredictedReply(move);
+        position.makeMove(move);
+        MoveList<Coordinate> possibleMoves = moveListFactory.newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        assertTrue(possibleMoves.contains(reply), String.valueOf(reply));
+
+        assertSame(result, treeSearcher.getResult());
+        assertEquals(plies, treeSearcher.getPlies());
+        assertEquals(nodes, treeSearcher.getSearchStatistics().getNodes());
+        assertEquals(calls, observerCalls.get());
+        treeSearcher.stopSearch(true);
+    }
 }
@@ -10,6 +10,10 @@ import org.junit.jupiter.api.Test;
 import bge.analysis.AnalysisResult;
 import bge.analysis.MoveWithScore;
 import bge.analysis.MoveWithScoreFinder;
+import bge.game.chess.ChessGame;
+import bge.game.chess.ChessPosition;
+import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.move.IChessMove;
 import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
 import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
 import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
@@ -29,6 +33,26 @@ public class ForkableAlphaBetaTest {
                 4, 6);
     }
 
+    @Test
+    public void testYoungBrothersWaitEqualsAlphaBeta() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+
+        compareStrategies(new UltimateTicTacToePosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory).setYoungBrothersWait(true),
+                4, 6);
+    }
+
+    @Test
+    public void testYoungBrothersWaitEqualsAlphaBeta_Chess() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+
+        compareStrategies(new ChessPosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory).setYoungBrothersWait(true),
+                4, 4);
+    }
+
     public static <M, P extends IPosition<M>> void compareStrategies(P position, MoveListFactory<M> moveListFactory, ForkableTreeSearchFactory<M, P> strat1,
             ForkableTreeSearchFactory<M, P> strat2, int numThreads, int maxPlies) {
         ForkJoinTreeSearcher<M, P> s1 = new ForkJoinTreeSearcher<>(strat1, moveListFactory, numThreads);
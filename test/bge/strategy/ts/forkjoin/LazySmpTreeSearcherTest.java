@@ -0,0 +1,95 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+import bge.analysis.MoveWithScoreFinder;
+import bge.game.chess.ChessGame;
+import bge.game.chess.ChessPosition;
+import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.move.IChessMove;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+
+public class LazySmpTreeSearcherTest {
+    private static void doTest(int numThreads) throws InterruptedException {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+
+        LazySmpTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new LazySmpTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(1)),
+                moveListFactory, numThreads);
+
+        treeSearcher.searchForever(new UltimateTicTacToePosition(), true);
+        Thread.sleep(50);
+        treeSearcher.stopSearch(true);
+        AnalysisResult<Coordinate> result = treeSearcher.getResult();
+        System.out.println(numThreads + " threads, plies: " + treeSearcher.getPlies() + ", bestMove = " + result.getBestMove(result.getPlayer()).toString());
+    }
+
+    @Test
+    public void testStartStop_1() throws InterruptedException {
+        doTest(1);
+    }
+
+    @Test
+    public void testStartStop_2() throws InterruptedException {
+        doTest(2);
+    }
+
+    @Test
+    public void testStartStop_4() throws InterruptedException {
+        doTest(4);
+    }
+
+    @Test
+    public void testEqualsForkJoinWithoutTable() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkableTreeSearchFactory<Coordinate, UltimateTicTacToePosition> forkableFactory = new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA,
+                new UltimateTicTacToePositionEvaluator(), moveListFactory);
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> s1 = new ForkJoinTreeSearcher<>(forkableFactory, moveListFactory, 4);
+        LazySmpTreeSearcher<Coordinate, UltimateTicTacToePosition> s2 = new LazySmpTreeSearcher<>(forkableFactory, moveListFactory, 4);
+        for (int plies = 1; plies <= 5; ++plies) {
+            AnalysisResult<Coordinate> s1Result = s1.startSearch(new UltimateTicTacToePosition(), plies, false);
+            AnalysisResult<Coordinate> s2Result = s2.startSearch(new UltimateTicTacToePosition(), plies, false);
+            List<MoveWithScore<Coordinate>> s2Moves = s2Result.getMovesWithScore();
+            assertEquals(s1Result.getMovesWithScore().size(), s2Moves.size());
+            for (MoveWithScore<Coordinate> s1MoveWithScore : s1Result.getMovesWithScore()) {
+                assertEquals(s1MoveWithScore.score, MoveWithScoreFinder.find(s2Moves, s1MoveWithScore.move).score, 0.001, s1MoveWithScore.toString());
+            }
+        }
+        s1.stopSearch(true);
+        s2.stopSearch(true);
+    }
+
+    @Test
+    public void testCompareSpeeds() {
+        timeToDepth(1); // warm up
+        for (int numThreads : new int[] { 1, 2, 4 }) {
+            System.out.println(numThreads + " threads: 4 plies in " + timeToDepth(numThreads) + "ms");
+        }
+    }
+
+    private static long timeToDepth(int numThreads) {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        LazySmpTreeSearcher<IChessMove, ChessPosition> treeSearcher = new LazySmpTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(16)),
+                moveListFactory, numThreads);
+        long start = System.currentTimeMillis();
+        treeSearcher.startSearch(new ChessPosition(), 4, false);
+        long time = System.currentTimeMillis() - start;
+        treeSearcher.stopSearch(true);
+        return time;
+    }
+}
@@ -0,0 +1,64 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import bge.game.chess.ChessGame;
+import bge.game.chess.ChessPosition;
+import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.move.IChessMove;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+
+public class MoveOrderingTest {
+    @Test
+    public void testMoveOrderingEqualsAlphaBeta() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new UltimateTicTacToePosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory).setMoveOrdering(false),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                4, 6);
+    }
+
+    @Test
+    public void testMoveOrderingEqualsAlphaBeta_Chess() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new ChessPosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory).setMoveOrdering(false),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(16)),
+                4, 4);
+    }
+
+    @Test
+    public void testMoveOrderingSearchesNoMoreNodes() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        CountingPositionEvaluator<IChessMove, ChessPosition> evaluator = new CountingPositionEvaluator<>(new ChessPositionEvaluator());
+        evaluator.assertSameScoreInNoMoreNodes(new ChessPosition(), moveListFactory, 5,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16))
+                        .setMoveOrdering(false),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16)));
+    }
+
+    @Test
+    public void testOrderingTablesCarryOverToNextSearch() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        CountingPositionEvaluator<IChessMove, ChessPosition> evaluator = new CountingPositionEvaluator<>(new ChessPositionEvaluator());
+        ForkJoinTreeSearcher<IChessMove, ChessPosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory), moveListFactory, 1);
+        long[] nodes = new long[2];
+        for (int i = 0; i < 2; ++i) {
+            evaluator.nodes.reset();
+            treeSearcher.startSearch(new ChessPosition(), 5, false);
+            nodes[i] = evaluator.nodes.sum();
+        }
+        treeSearcher.stopSearch(true);
+        assertTrue(nodes[1] < nodes[0], "First search " + nodes[0] + " nodes, second " + nodes[1]);
+    }
+}
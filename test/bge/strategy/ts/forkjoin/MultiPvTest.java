@@ -0,0 +1,156 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.MoveWithScore;
+import bge.game.chess.ChessGame;
+import bge.game.chess.ChessPosition;
+import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.fen.ForsythEdwardsNotation;
+import bge.game.chess.move.IChessMove;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.IPosition;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+
+public class MultiPvTest {
+    private static final int MULTI_PV = 3;
+
+    private static List<Double> sortedScores(AnalysisResult<?> result) {
+        List<Double> scores = new ArrayList<>();
+        for (MoveWithScore<?> moveWithScore : result.getMovesWithScore()) {
+            scores.add(Double.valueOf(moveWithScore.score));
+        }
+        Collections.sort(scores, Collections.reverseOrder());
+        return scores;
+    }
+
+    private static <M, P extends IPosition<M>> void compareBestScores(P position, MoveListFactory<M> moveListFactory, IterativeDeepeningTreeSearcher<M, P> s1,
+            IterativeDeepeningTreeSearcher<M, P> s2, int maxPlies) {
+        for (int plies = 1; plies <= maxPlies; ++plies) {
+            List<Double> exactScores = sortedScores(s1.startSearch(position, plies, false));
+            List<Double> multiPvScores = sortedScores(s2.startSearch(position, plies, false));
+            assertEquals(exactScores.size(), multiPvScores.size());
+            for (int i = 0; i < MULTI_PV; ++i) {
+                assertEquals(exactScores.get(i).doubleValue(), multiPvScores.get(i).doubleValue(), 0.001, "Comparing score " + i + " at " + plies + " plies");
+            }
+        }
+        s1.stopSearch(true);
+        s2.stopSearch(true);
+    }
+
+    @Test
+    public void testBestScoresEqualAlphaBeta() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        compareBestScores(new UltimateTicTacToePosition(), moveListFactory,
+                new ForkJoinTreeSearcher<>(new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                        moveListFactory, 4),
+                new ForkJoinTreeSearcher<>(new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setMultiPv(MULTI_PV), moveListFactory, 4),
+                5);
+    }
+
+    @Test
+    public void testBestScoresEqualAlphaBeta_Chess() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        compareBestScores(new ChessPosition(), moveListFactory,
+                new ForkJoinTreeSearcher<>(new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory),
+                        moveListFactory, 4),
+                new ForkJoinTreeSearcher<>(new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory)
+                        .setMultiPv(MULTI_PV).setYoungBrothersWait(true), moveListFactory, 4),
+                4);
+    }
+
+    @Test
+    public void testBestScoresEqualAlphaBeta_LazySmp() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        compareBestScores(new UltimateTicTacToePosition(), moveListFactory,
+                new LazySmpTreeSearcher<>(new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                        moveListFactory, 1),
+                new LazySmpTreeSearcher<>(new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setMultiPv(MULTI_PV), moveListFactory, 1),
+                5);
+    }
+
+    private static void assertLegal(List<IChessMove> line, ChessPosition position, MoveListFactory<IChessMove> moveListFactory) {
+        for (IChessMove move : line) {
+            MoveList<IChessMove> possibleMoves = moveListFactory.newAnalysisMoveList();
+            position.getPossibleMoves(possibleMoves);
+            assertTrue(possibleMoves.contains(move), line.toString());
+            position.makeMove(move);
+        }
+    }
+
+    @Test
+    public void testPrincipalVariations() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        int plies = 4;
+        for (int numWorkers : new int[] { 1, 2, 4 }) {
+            for (boolean youngBrothersWait : new boolean[] { false, true }) {
+                ForkJoinTreeSearcher<IChessMove, ChessPosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                        new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory)
+                                .setTranspositionTable(new TranspositionTable(16)).setMultiPv(MULTI_PV).setYoungBrothersWait(youngBrothersWait),
+                        moveListFactory, numWorkers);
+                AnalysisResult<IChessMove> result = treeSearcher.startSearch(new ChessPosition(), plies, false);
+                List<List<IChessMove>> principalVariations = treeSearcher.getPrincipalVariations();
+                assertEquals(MULTI_PV, principalVariations.size());
+                assertTrue(result.getBestMoves().contains(principalVariations.get(0).get(0)));
+                // forked nodes store their best moves, so the best line reaches the last searched ply
+                assertEquals(plies, principalVariations.get(0).size(), principalVariations.get(0).toString());
+                for (List<IChessMove> line : principalVariations) {
+                    assertTrue(line.size() > 1 && line.size() <= plies, line.toString());
+                    assertLegal(line, new ChessPosition(), moveListFactory);
+                }
+                assertFalse(principalVariations.get(0).get(0).equals(principalVariations.get(1).get(0)));
+                treeSearcher.stopSearch(true);
+            }
+        }
+    }
+
+    @Test
+    public void testPrincipalVariationOfMate() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        String fen = "k7/8/2K5/8/8/8/8/7R w - - 0 1"; // mate in two
+        ForkJoinTreeSearcher<IChessMove, ChessPosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(16)).setMultiPv(1),
+                moveListFactory, 2);
+        AnalysisResult<IChessMove> result = treeSearcher.startSearch(ForsythEdwardsNotation.stringToPosition(fen), 4, false);
+        assertTrue(result.isWin());
+        List<IChessMove> line = treeSearcher.getPrincipalVariations().get(0);
+        assertEquals(3, line.size(), line.toString());
+        ChessPosition position = ForsythEdwardsNotation.stringToPosition(fen);
+        assertLegal(line, position, moveListFactory);
+        MoveList<IChessMove> possibleMoves = moveListFactory.newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        assertEquals(0, possibleMoves.size(), line.toString());
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testFewerLinesSearchNoMoreNodes() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        CountingPositionEvaluator<IChessMove, ChessPosition> evaluator = new CountingPositionEvaluator<>(new ChessPositionEvaluator());
+        // Without multi-PV every move of the root is scored exactly
+        evaluator.assertSameScoreInNoMoreNodes(new ChessPosition(), moveListFactory, 4,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setMultiPv(MULTI_PV));
+        evaluator.assertSameScoreInNoMoreNodes(new ChessPosition(), moveListFactory, 4,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setMultiPv(MULTI_PV),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setMultiPv(1));
+    }
+}
@@ -0,0 +1,87 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.game.chess.ChessGame;
+import bge.game.chess.ChessPosition;
+import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.move.IChessMove;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.IPosition;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+
+public class PrincipalVariationSearchTest {
+    @Test
+    public void testPrincipalVariationSearchEqualsAlphaBeta() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new UltimateTicTacToePosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setPrincipalVariationSearch(true),
+                4, 6);
+    }
+
+    @Test
+    public void testPrincipalVariationSearchEqualsAlphaBeta_Chess() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new ChessPosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory)
+                        .setPrincipalVariationSearch(true),
+                4, 4);
+    }
+
+    @Test
+    public void testAspirationWindowBestScoreEqualsAlphaBeta() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        compareBestScores(new UltimateTicTacToePosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setPrincipalVariationSearch(true).setAspirationWindow(1),
+                6);
+    }
+
+    @Test
+    public void testAspirationWindowBestScoreEqualsAlphaBeta_Chess() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        compareBestScores(new ChessPosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory)
+                        .setAspirationWindow(0.1),
+                4);
+    }
+
+    private static <M, P extends IPosition<M>> void compareBestScores(P position, MoveListFactory<M> moveListFactory, ForkableTreeSearchFactory<M, P> strat1,
+            ForkableTreeSearchFactory<M, P> strat2, int maxPlies) {
+        ForkJoinTreeSearcher<M, P> s1 = new ForkJoinTreeSearcher<>(strat1, moveListFactory, 2);
+        ForkJoinTreeSearcher<M, P> s2 = new ForkJoinTreeSearcher<>(strat2, moveListFactory, 2);
+        for (int plies = 1; plies <= maxPlies; ++plies) {
+            AnalysisResult<M> s1Result = s1.startSearch(position, plies, false);
+            AnalysisResult<M> s2Result = s2.startSearch(position, plies, false);
+            assertEquals(s1Result.getBestMove(s1Result.getPlayer()).score, s2Result.getBestMove(s2Result.getPlayer()).score, 0.001, "Comparing score " + plies);
+        }
+        s1.stopSearch(true);
+        s2.stopSearch(true);
+    }
+
+    @Test
+    public void testPrincipalVariationSearchSearchesNoMoreNodes() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        CountingPositionEvaluator<IChessMove, ChessPosition> evaluator = new CountingPositionEvaluator<>(new ChessPositionEvaluator());
+        // Principal variation search only pays for its repeated searches once the table orders the moves well, which it does from 6 plies
+        evaluator.assertSameScoreInNoMoreNodes(new ChessPosition(), moveListFactory, 6,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16)),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16))
+                        .setPrincipalVariationSearch(true),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, evaluator, moveListFactory).setTranspositionTable(new TranspositionTable(16))
+                        .setPrincipalVariationSearch(true).setAspirationWindow(0.5));
+    }
+}
@@ -0,0 +1,96 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.SearchStatistics;
+import bge.game.chess.ChessGame;
+import bge.game.chess.ChessPosition;
+import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.move.IChessMove;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.game.ultimatetictactoe.UltimateTicTacToeUtilities;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+import bge.strategy.ts.montecarlo.MonteCarloTreeSearcher;
+import bge.strategy.ts.montecarlo.RandomMonteCarloChildren;
+
+public class SearchStatisticsTest {
+    @Test
+    public void testEffectiveBranchingFactor() {
+        SearchStatistics statistics = new SearchStatistics();
+        statistics.start();
+        for (int i = 0; i < 10; ++i) {
+            statistics.addNode();
+        }
+        statistics.plyCompleted();
+        assertEquals(0, statistics.getEffectiveBranchingFactor(), 0.001);
+        for (int i = 0; i < 30; ++i) {
+            statistics.addQuiescenceNode();
+        }
+        statistics.plyCompleted();
+        assertEquals(3, statistics.getEffectiveBranchingFactor(), 0.001);
+        assertEquals(40, statistics.getNodes());
+        assertEquals(30, statistics.getQuiescenceNodes());
+        statistics.start();
+        assertEquals(0, statistics.getNodes());
+    }
+
+    @Test
+    public void testAlphaBetaQCounts() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        CountingPositionEvaluator<IChessMove, ChessPosition> evaluator = new CountingPositionEvaluator<>(new ChessPositionEvaluator());
+        ForkableTreeSearchFactory<IChessMove, ChessPosition> factory = new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, evaluator, moveListFactory)
+                .setTranspositionTable(new TranspositionTable(16));
+        ForkJoinTreeSearcher<IChessMove, ChessPosition> treeSearcher = new ForkJoinTreeSearcher<>(factory, moveListFactory, 2);
+        treeSearcher.startSearch(new ChessPosition(), 4, false);
+        treeSearcher.stopSearch(true);
+
+        SearchStatistics statistics = treeSearcher.getSearchStatistics();
+        System.out.println(statistics);
+        assertEquals(evaluator.nodes.sum(), statistics.getEvaluations());
+        assertTrue(statistics.getNodes() > statistics.getQuiescenceNodes() && statistics.getQuiescenceNodes() > 0, statistics.toString());
+        assertTrue(statistics.getTranspositionHits() > 0, statistics.toString());
+        assertTrue(statistics.getBetaCutoffs() > statistics.getFirstMoveCutoffs() && statistics.getFirstMoveCutoffs() > 0, statistics.toString());
+        assertTrue(statistics.getForks() > 0, statistics.toString());
+        assertEquals(statistics.getForks(), statistics.getJoins()); // a complete search joins every fork
+        assertTrue(statistics.getEffectiveBranchingFactor() > 1, statistics.toString());
+    }
+
+    @Test
+    public void testMinimaxCounts() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        CountingPositionEvaluator<Coordinate, UltimateTicTacToePosition> evaluator = new CountingPositionEvaluator<>(new UltimateTicTacToePositionEvaluator());
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.MINIMAX, evaluator, moveListFactory), moveListFactory, 2);
+        treeSearcher.startSearch(new UltimateTicTacToePosition(), 3, false);
+        treeSearcher.stopSearch(true);
+
+        SearchStatistics statistics = treeSearcher.getSearchStatistics();
+        assertEquals(evaluator.nodes.sum(), statistics.getEvaluations());
+        assertEquals(0, statistics.getBetaCutoffs());
+        double effectiveBranchingFactor = statistics.getEffectiveBranchingFactor(); // most positions have 9 moves, and minimax searches them all
+        assertTrue(effectiveBranchingFactor > 8 && effectiveBranchingFactor < 11, statistics.toString());
+    }
+
+    @Test
+    public void testMonteCarloCounts() throws InterruptedException {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0),
+                new UltimateTicTacToePositionEvaluator(), moveListFactory, 2, UltimateTicTacToeUtilities.MAX_REASONABLE_DEPTH);
+        treeSearcher.searchForever(new UltimateTicTacToePosition(), false);
+        Thread.sleep(100);
+        treeSearcher.stopSearch(true);
+
+        SearchStatistics statistics = treeSearcher.getSearchStatistics();
+        assertTrue(statistics.getNodes() > 81, statistics.toString());
+        assertTrue(statistics.getEvaluations() > 81, statistics.toString()); // two simulations per expanded node
+        assertTrue(statistics.getNodesPerSecond() > 0, statistics.toString());
+    }
+}
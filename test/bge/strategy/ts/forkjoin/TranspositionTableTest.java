@@ -0,0 +1,107 @@
+package bge.strategy.ts.forkjoin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.game.chess.ChessGame;
+import bge.game.chess.ChessPosition;
+import bge.game.chess.ChessPositionEvaluator;
+import bge.game.chess.move.IChessMove;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable;
+import bge.strategy.ts.forkjoin.alphabeta.TranspositionTable.TranspositionEntry;
+
+public class TranspositionTableTest {
+    @Test
+    public void testSizeIsPowerOfTwo() {
+        TranspositionTable table = new TranspositionTable(1);
+        int numEntries = table.getNumEntries();
+        assertEquals(Integer.highestOneBit(numEntries), numEntries);
+        assertTrue(numEntries * 24 <= 1 << 20);
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        TranspositionEntry entry = new TranspositionEntry();
+        long hash = 0x123456789ABCDEFL;
+        assertFalse(table.probe(hash, entry));
+        table.store(hash, 7, TranspositionTable.LOWER_BOUND, 1.25, 42);
+        assertTrue(table.probe(hash, entry));
+        assertEquals(7, entry.depth);
+        assertEquals(TranspositionTable.LOWER_BOUND, entry.bound);
+        assertEquals(1.25, entry.score);
+        assertEquals(42, entry.moveIndex);
+        assertFalse(table.probe(hash ^ (1L << 62), entry));
+    }
+
+    @Test
+    public void testStoreGameOverScores() {
+        TranspositionTable table = new TranspositionTable(1);
+        TranspositionEntry entry = new TranspositionEntry();
+        table.store(1, 0, TranspositionTable.EXACT, AnalysisResult.DRAW, TranspositionTable.NO_MOVE);
+        assertTrue(table.probe(1, entry));
+        assertTrue(AnalysisResult.isDraw(entry.score));
+        assertEquals(TranspositionTable.NO_MOVE, entry.moveIndex);
+        table.store(2, 3, TranspositionTable.UPPER_BOUND, AnalysisResult.LOSS, 0);
+        assertTrue(table.probe(2, entry));
+        assertEquals(AnalysisResult.LOSS, entry.score);
+    }
+
+    @Test
+    public void testClear() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(5, 1, TranspositionTable.EXACT, 0.5, 1);
+        table.clear();
+        assertFalse(table.probe(5, new TranspositionEntry()));
+    }
+
+    @Test
+    public void testAlphaBetaWithTableEqualsMinimax() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new UltimateTicTacToePosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.MINIMAX, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(1)),
+                2, 4);
+    }
+
+    @Test
+    public void testAlphaBetaWithTableEqualsAlphaBeta() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new ChessPosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new ChessPositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(16)),
+                4, 4);
+    }
+
+    @Test
+    public void testYoungBrothersWaitWithTableEqualsAlphaBeta() {
+        MoveListFactory<Coordinate> moveListFactory = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new UltimateTicTacToePosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(1)).setYoungBrothersWait(true),
+                4, 5);
+    }
+
+    @Test
+    public void testPackedScoresWithTableEqualPackedScores() {
+        MoveListFactory<IChessMove> moveListFactory = new MoveListFactory<>(ChessGame.MAX_MOVES);
+        ForkableAlphaBetaTest.compareStrategies(new ChessPosition(), moveListFactory,
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory).setPackedScores(true),
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA_Q, new ChessPositionEvaluator(), moveListFactory)
+                        .setTranspositionTable(new TranspositionTable(16)).setPackedScores(true).setYoungBrothersWait(true),
+                4, 4);
+    }
+}
@@ -0,0 +1,85 @@
+package bge.strategy.ts.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.game.ultimatetictactoe.UltimateTicTacToeUtilities;
+import bge.igame.Coordinate;
+import bge.igame.MoveListFactory;
+import bge.strategy.ts.forkjoin.ForkJoinTreeSearcher;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory;
+import bge.strategy.ts.forkjoin.ForkableTreeSearchFactory.ForkableType;
+import bge.strategy.ts.montecarlo.MonteCarloTreeSearcher;
+import bge.strategy.ts.montecarlo.RandomMonteCarloChildren;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class SearchEventsTest {
+    private static final MoveListFactory<Coordinate> MOVE_LIST_FACTORY = new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES);
+
+    private static Map<String, Integer> countEvents(Recording recording) throws IOException {
+        Path file = Files.createTempFile("search", ".jfr");
+        try {
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Map<String, Integer> counts = new HashMap<>();
+            for (RecordedEvent event : events) {
+                counts.merge(event.getEventType().getName(), Integer.valueOf(1), Integer::sum);
+            }
+            return counts;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static int count(Map<String, Integer> counts, String name) {
+        return counts.getOrDefault(name, Integer.valueOf(0)).intValue();
+    }
+
+    @Test
+    public void testForkJoinEvents() throws IOException {
+        ForkJoinTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new ForkJoinTreeSearcher<>(
+                new ForkableTreeSearchFactory<>(ForkableType.ALPHA_BETA, new UltimateTicTacToePositionEvaluator(), MOVE_LIST_FACTORY), MOVE_LIST_FACTORY, 2);
+        try (Recording recording = new Recording()) {
+            recording.enable(SearchIterationEvent.class);
+            recording.enable(ForkEvent.class);
+            recording.enable(WorkerIdleEvent.class);
+            recording.start();
+            treeSearcher.startSearch(new UltimateTicTacToePosition(), 4, false);
+            recording.stop();
+            Map<String, Integer> counts = countEvents(recording);
+            assertTrue(count(counts, "bge.SearchIteration") == 4, counts.toString());
+            assertTrue(count(counts, "bge.Fork") > 0, counts.toString());
+            assertTrue(count(counts, "bge.WorkerIdle") > 0, counts.toString());
+        }
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testMonteCarloEvents() throws IOException, InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0),
+                new UltimateTicTacToePositionEvaluator(), MOVE_LIST_FACTORY, 2, UltimateTicTacToeUtilities.MAX_REASONABLE_DEPTH);
+        try (Recording recording = new Recording()) {
+            recording.enable(MonteCarloPlayoutBatchEvent.class);
+            recording.start();
+            treeSearcher.searchForever(new UltimateTicTacToePosition(), false);
+            Thread.sleep(100);
+            treeSearcher.stopSearch(true);
+            recording.stop();
+            Map<String, Integer> counts = countEvents(recording);
+            assertTrue(count(counts, "bge.MonteCarloPlayoutBatch") > 0, counts.toString());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package bge.strategy.ts.montecarlo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import bge.analysis.AnalysisResult;
+import bge.analysis.SearchStatistics;
+import bge.game.tictactoe.TicTacToeGame;
+import bge.game.tictactoe.TicTacToePosition;
+import bge.game.tictactoe.TicTacToePositionEvaluator;
+import bge.game.ultimatetictactoe.UltimateTicTacToeGame;
+import bge.game.ultimatetictactoe.UltimateTicTacToePosition;
+import bge.game.ultimatetictactoe.UltimateTicTacToePositionEvaluator;
+import bge.game.ultimatetictactoe.UltimateTicTacToeUtilities;
+import bge.igame.Coordinate;
+import bge.igame.MoveList;
+import bge.igame.MoveListFactory;
+
+public class MonteCarloTreeSearcherTest {
+    private static MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> newTreeSearcher() {
+        return new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0), new UltimateTicTacToePositionEvaluator(),
+                new MoveListFactory<>(UltimateTicTacToeGame.MAX_MOVES), 1, UltimateTicTacToeUtilities.MAX_REASONABLE_DEPTH);
+    }
+
+    private static void search(MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher, UltimateTicTacToePosition position)
+            throws InterruptedException {
+        treeSearcher.searchForever(position, false);
+        Thread.sleep(100);
+        treeSearcher.stopSearch(false);
+    }
+
+    private static MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> mostSearchedChild(MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> node) {
+        MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> mostSearched = null;
+        for (MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> child : node.expandedChildren) {
+            if (!child.statistics.isDecided
+                    && (mostSearched == null || child.statistics.getTotalNodesEvaluated() > mostSearched.statistics.getTotalNodesEvaluated())) {
+                mostSearched = child;
+            }
+        }
+        return mostSearched;
+    }
+
+    @Test
+    public void testSubtreePromotedAfterMove() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher();
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        for (int i = 0; i < 2; ++i) {
+            search(treeSearcher, position);
+            MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> child = mostSearchedChild(treeSearcher.getRoot());
+            Coordinate move = child.parentMove;
+            int nodesEvaluated = child.statistics.getTotalNodesEvaluated();
+
+            treeSearcher.moveMade(move);
+            position.makeMove(move);
+            assertSame(child, treeSearcher.getRoot());
+
+            search(treeSearcher, position);
+            assertSame(child, treeSearcher.getRoot());
+            assertTrue(child.statistics.getTotalNodesEvaluated() > nodesEvaluated, "Nodes evaluated " + nodesEvaluated);
+        }
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testNewTreeForOtherPosition() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher();
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        search(treeSearcher, position);
+        MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> root = treeSearcher.getRoot();
+
+        search(treeSearcher, position);
+        assertSame(root, treeSearcher.getRoot());
+
+        position.makeMove(mostSearchedChild(root).parentMove); // the searcher is not told of the move
+        search(treeSearcher, position);
+        assertNotSame(root, treeSearcher.getRoot());
+        treeSearcher.stopSearch(true);
+    }
+
+    private static void assertNoVirtualLosses(MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> node) {
+        assertEquals(0, node.statistics.numVirtualLosses, node.statistics.toString());
+        if (node.expandedChildren != null) {
+            for (MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> child : node.expandedChildren) {
+                assertNoVirtualLosses(child);
+            }
+        }
+    }
+
+    @Test
+    public void testTreeParallelSearch() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher().setNumThreads(4);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        search(treeSearcher, position);
+        search(treeSearcher, position);
+
+        MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> root = treeSearcher.getRoot();
+        assertEquals(position.getZobristHash(), root.position.getZobristHash()); // every thread unmakes its moves on its own position
+        int childNodesEvaluated = 0;
+        for (MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> child : root.expandedChildren) {
+            childNodesEvaluated += child.statistics.getTotalNodesEvaluated();
+        }
+        assertEquals(childNodesEvaluated, root.statistics.getTotalNodesEvaluated());
+        assertTrue(childNodesEvaluated > 81, "Nodes evaluated " + childNodesEvaluated);
+        assertNoVirtualLosses(root);
+
+        Coordinate move = mostSearchedChild(root).parentMove;
+        treeSearcher.moveMade(move);
+        position.makeMove(move);
+        search(treeSearcher, position);
+        assertEquals(position.getZobristHash(), treeSearcher.getRoot().position.getZobristHash());
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testRootParallelSearch() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher().setNumTrees(3);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        search(treeSearcher, position);
+        search(treeSearcher, position);
+
+        AnalysisResult<Coordinate> result = treeSearcher.getResult();
+        assertEquals(81, result.getNumMoves());
+        MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> root = treeSearcher.getRoot();
+        int nodesEvaluated = treeSearcher.getPartialResult().depth.intValue(); // summed over the trees
+        assertTrue(nodesEvaluated > root.statistics.getTotalNodesEvaluated(), "Nodes evaluated " + nodesEvaluated);
+
+        MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> child = mostSearchedChild(root);
+        Coordinate move = child.parentMove;
+        treeSearcher.moveMade(move);
+        position.makeMove(move);
+        search(treeSearcher, position);
+        assertSame(child, treeSearcher.getRoot());
+        assertEquals(position.getZobristHash(), child.position.getZobristHash());
+        MoveList<Coordinate> possibleMoves = new MoveListFactory<Coordinate>(UltimateTicTacToeGame.MAX_MOVES).newAnalysisMoveList();
+        position.getPossibleMoves(possibleMoves);
+        assertEquals(possibleMoves.size(), treeSearcher.getResult().getNumMoves()); // each move in the result once
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testArenaSearch() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher().setArenaBudgetMb(4);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        search(treeSearcher, position);
+        int nodesEvaluated = treeSearcher.getPartialResult().depth.intValue();
+        search(treeSearcher, position); // the arena is kept for the same position
+        assertTrue(treeSearcher.getPartialResult().depth.intValue() > nodesEvaluated, "Nodes evaluated " + nodesEvaluated);
+        assertEquals(81, treeSearcher.getResult().getNumMoves());
+        assertTrue(treeSearcher.getSearchStatistics().getNodes() > 81, treeSearcher.getSearchStatistics().toString());
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testArenaTooSmallForRoot() {
+        int capacity = ArenaMonteCarloTree.capacityOf(1);
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0),
+                new UltimateTicTacToePositionEvaluator(), new MoveListFactory<>(capacity), 1, 1); // more moves than a megabyte holds children
+        assertThrows(IllegalArgumentException.class, () -> treeSearcher.setArenaBudgetMb(1));
+        treeSearcher.setArenaBudgetMb(2);
+    }
+
+    @Test
+    public void testArenaSolvesTicTacToe() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, TicTacToePosition> treeSearcher = new MonteCarloTreeSearcher<>(new RandomMonteCarloChildren<>(0),
+                new TicTacToePositionEvaluator(), new MoveListFactory<>(TicTacToeGame.MAX_MOVES), 1, TicTacToeGame.MAX_MOVES).setArenaBudgetMb(32);
+        treeSearcher.searchForever(new TicTacToePosition(), false);
+        long timeout = System.currentTimeMillis() + 30000;
+        while (treeSearcher.isSearching() && System.currentTimeMillis() < timeout) { // the search ends when every move has been decided
+            Thread.sleep(10);
+        }
+        treeSearcher.stopSearch(true);
+
+        AnalysisResult<Coordinate> result = treeSearcher.getResult();
+        assertEquals(9, result.getNumMoves());
+        assertTrue(result.isDecided(), result.toString());
+        for (int i = 0; i < result.getNumMoves(); ++i) {
+            assertTrue(AnalysisResult.isDraw(result.getScore(i)), result.toString());
+        }
+    }
+
+    private static int countNodes(MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> node) {
+        int count = 1;
+        if (node.expandedChildren != null) {
+            for (MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> child : node.expandedChildren) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testNodeBudget() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher().setNodeBudget(200);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        search(treeSearcher, position);
+        search(treeSearcher, position);
+
+        MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> root = treeSearcher.getRoot();
+        int numNodes = countNodes(root);
+        assertTrue(numNodes <= 201, "Nodes " + numNodes);
+        assertEquals(numNodes, root.getNumNodes());
+        int rootNodesEvaluated = root.statistics.getTotalNodesEvaluated();
+        assertTrue(rootNodesEvaluated > 2 * numNodes, "Nodes evaluated " + rootNodesEvaluated); // the collapsed subtrees keep their statistics
+        int childNodesEvaluated = 0;
+        for (MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> child : root.expandedChildren) {
+            childNodesEvaluated += child.statistics.getTotalNodesEvaluated();
+        }
+        assertEquals(childNodesEvaluated, rootNodesEvaluated);
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testNodeBudget_TreeParallel() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher().setNodeBudget(200).setNumThreads(4);
+        UltimateTicTacToePosition position = new UltimateTicTacToePosition();
+        search(treeSearcher, position);
+        search(treeSearcher, position);
+
+        MonteCarloGameNode<Coordinate, UltimateTicTacToePosition> root = treeSearcher.getRoot();
+        int numNodes = countNodes(root);
+        assertEquals(numNodes, root.getNumNodes()); // the nodes the helpers add while the tree is recycled are not lost from the count
+        int rootNodesEvaluated = root.statistics.getTotalNodesEvaluated();
+        assertTrue(rootNodesEvaluated > 2 * numNodes, "Nodes evaluated " + rootNodesEvaluated);
+        treeSearcher.stopSearch(true);
+    }
+
+    @Test
+    public void testPlayoutsCounted() throws InterruptedException {
+        MonteCarloTreeSearcher<Coordinate, UltimateTicTacToePosition> treeSearcher = newTreeSearcher();
+        search(treeSearcher, new UltimateTicTacToePosition());
+        SearchStatistics statistics = treeSearcher.getSearchStatistics();
+        assertTrue(statistics.getPlayouts() > 0);
+        assertTrue(statistics.getPlayoutsPerSecond() > 0);
+        assertTrue(statistics.toString().contains("playouts/s"), statistics.toString());
+        treeSearcher.stopSearch(true);
+    }
+}